@@ -0,0 +1,140 @@
+package com.greentrace.server.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH result files (-rf json) and fails on regressions
+ * A result regresses when it is worse than the baseline by more than the threshold and by more than
+ * the combined error margins of both runs; throughput ("thrpt") is better when higher, all other
+ * modes when lower. Allocation per operation (gc.alloc.rate.norm, from -prof gc) is compared too
+ * when both runs have it
+ *
+ *   java -jar benchmarks.jar -rf json -rff current.json
+ *   java -cp benchmarks.jar com.greentrace.server.benchmark.BenchmarkComparison baseline.json current.json [threshold %]
+ *
+ * Exits with status 1 if any benchmark regressed, so it can gate a release build
+ */
+public class BenchmarkComparison {
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    /**
+     * Allocation differences below one byte per operation are measurement noise
+     */
+    private static final double ALLOCATION_NOISE_FLOOR = 1.0;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <current.json> [threshold %]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.10;
+
+        Map<String, Result> baseline = read(Path.of(args[0]));
+        Map<String, Result> current = read(Path.of(args[1]));
+
+        int regressions = 0;
+        System.out.printf(Locale.ROOT, "%-64s %14s %14s %9s%n", "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf(Locale.ROOT, "%-64s %14s %14s %9s%n", entry.getKey(), "-", format(entry.getValue()), "new");
+                continue;
+            }
+            if (report(entry.getKey(), before, entry.getValue(), threshold)) {
+                regressions++;
+            }
+        }
+        baseline.keySet().stream()
+                .filter(key -> !current.containsKey(key))
+                .forEach(key -> System.out.printf(Locale.ROOT, "%-64s %14s %14s %9s%n", key, format(baseline.get(key)), "-", "removed"));
+
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%d regression(s) over %.0f%%%n", regressions, threshold * 100);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    /**
+     * Print one comparison line
+     * @return True if the current result is a regression
+     */
+    private static boolean report(String key, Result before, Result after, double threshold) {
+        double difference = after.score() - before.score();
+        double change = before.score() != 0 ? difference / before.score() : Math.signum(difference);
+        double worse = before.higherIsBetter() ? -change : change;
+        boolean significant = Math.abs(difference) > before.error() + after.error() + before.noiseFloor();
+        boolean regression = worse > threshold && significant;
+
+        System.out.printf(Locale.ROOT, "%-64s %14s %14s %+8.1f%%%s%n",
+                key, format(before), format(after), change * 100, regression ? "  REGRESSION" : "");
+        return regression;
+    }
+
+    /**
+     * Read a JMH JSON result file
+     * @return Results keyed by benchmark name, parameters and metric
+     */
+    private static Map<String, Result> read(Path file) throws IOException {
+        Map<String, Result> results = new TreeMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file.toFile())) {
+            String key = shortName(run.path("benchmark").asText()) + params(run.path("params"));
+            boolean higherIsBetter = "thrpt".equals(run.path("mode").asText());
+            results.put(key, result(run.path("primaryMetric"), higherIsBetter, 0));
+
+            JsonNode allocation = run.path("secondaryMetrics").path(ALLOCATION_METRIC);
+            if (!allocation.isMissingNode()) {
+                results.put(key + " [alloc]", result(allocation, false, ALLOCATION_NOISE_FLOOR));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Drop the package from a benchmark name
+     * @param benchmark Fully qualified benchmark method, e.g. com.example.FooBenchmark.bar
+     * @return Class and method, e.g. FooBenchmark.bar
+     */
+    private static String shortName(String benchmark) {
+        int method = benchmark.lastIndexOf('.');
+        int type = method > 0 ? benchmark.lastIndexOf('.', method - 1) : -1;
+        return benchmark.substring(type + 1);
+    }
+
+    private static String params(JsonNode params) {
+        if (params.isMissingNode() || params.isEmpty()) {
+            return "";
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> fields = params.fields(); fields.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            values.put(field.getKey(), field.getValue().asText());
+        }
+        return values.toString();
+    }
+
+    private static Result result(JsonNode metric, boolean higherIsBetter, double noiseFloor) {
+        double error = metric.path("scoreError").asDouble(0);
+        return new Result(
+                metric.path("score").asDouble(),
+                Double.isNaN(error) ? 0 : error,
+                metric.path("scoreUnit").asText(),
+                higherIsBetter,
+                noiseFloor);
+    }
+
+    private static String format(Result result) {
+        return String.format(Locale.ROOT, "%.3f %s", result.score(), result.unit());
+    }
+
+    private record Result(double score, double error, String unit, boolean higherIsBetter, double noiseFloor) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.greentrace.server.benchmark;
+
+import com.greentrace.server.model.User;
+import com.greentrace.server.repository.UserRepository;
+import com.greentrace.server.security.JwtKeyRing;
+import com.greentrace.server.security.JwtService;
+import com.greentrace.server.security.TokenRevocationStore;
+import com.greentrace.server.security.UserStatusRegistry;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+
+/**
+ * Shared fixtures for benchmarks
+ * Builds application components without a Spring context or database
+ */
+public final class BenchmarkFixtures {
+
+    /**
+     * Default development JWT secret from application.yml
+     */
+    public static final String JWT_SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    /**
+     * Default token lifetime from application.yml (24 hours)
+     */
+    public static final long JWT_EXPIRATION = 86400000L;
+
+    public static final String EMAIL = "benchmark.user@greentrace.io";
+    public static final Long USER_ID = 42L;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Create a JwtService configured like the default profile
+     * @return JwtService instance
+     */
+    public static JwtService jwtService() {
+        return new JwtService(JWT_SECRET, JWT_EXPIRATION, "", jwtKeyRing());
+    }
+
+    /**
+     * Create an in-memory ES256 key ring like the default profile
+     * @return JwtKeyRing instance
+     */
+    public static JwtKeyRing jwtKeyRing() {
+        return new JwtKeyRing("ES256", "", false, 604800000L, 3600000L, 10000L, JWT_EXPIRATION);
+    }
+
+    /**
+     * Create an empty user status table (every user active at epoch 0)
+     * @return UserStatusRegistry instance
+     */
+    public static UserStatusRegistry userStatusRegistry() {
+        return new UserStatusRegistry(userRepository(), JWT_EXPIRATION);
+    }
+
+    /**
+     * Create an empty token revocation store
+     * The store is never loaded or snapshotted, so it needs no database
+     * @return TokenRevocationStore instance
+     */
+    public static TokenRevocationStore tokenRevocationStore() {
+        return new TokenRevocationStore(new JdbcTemplate());
+    }
+
+    /**
+     * Create a sample user matching the fixture email and ID
+     * @return User entity
+     */
+    public static User user() {
+        return User.builder()
+                .id(USER_ID)
+                .firstName("Bench")
+                .lastName("Mark")
+                .email(EMAIL)
+                .password("{noop}unused")
+                .build();
+    }
+
+    /**
+     * Create an in-memory UserRepository that answers every lookup with the fixture user
+     * Only the finder methods used on the request path are implemented
+     * @return UserRepository stub
+     */
+    public static UserRepository userRepository() {
+        User user = user();
+        return (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByNormalizedEmail", "findById" -> Optional.of(user);
+                    case "existsByNormalizedEmail" -> true;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "BenchmarkUserRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                }
+        );
+    }
+}
@@ -0,0 +1,117 @@
+package com.greentrace.server.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * User lookup latency against a users table seeded with one million rows (H2, in memory)
+ * "lowerEmail" runs the former LOWER(email) = LOWER(?) query, "normalizedEmail" the indexed lookup
+ * used by UserRepository.findByNormalizedEmail
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailLookupBenchmark {
+
+    private static final String LOWER_EMAIL_SQL =
+            "SELECT id, email, password FROM users WHERE LOWER(email) = LOWER(?)";
+
+    private static final String NORMALIZED_EMAIL_SQL =
+            "SELECT id, email, password FROM users WHERE email_normalized = ?";
+
+    @Param({"1000000"})
+    public int userCount;
+
+    private Connection connection;
+    private PreparedStatement lowerEmailQuery;
+    private PreparedStatement normalizedEmailQuery;
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:email_lookup;DB_CLOSE_DELAY=-1", "sa", "");
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS users");
+            statement.execute("""
+                    CREATE TABLE users (
+                        id BIGINT PRIMARY KEY,
+                        first_name VARCHAR(50) NOT NULL,
+                        last_name VARCHAR(50) NOT NULL,
+                        email VARCHAR(100) NOT NULL UNIQUE,
+                        email_normalized VARCHAR(100) NOT NULL,
+                        password VARCHAR(255) NOT NULL,
+                        CONSTRAINT uk_users_email_normalized UNIQUE (email_normalized)
+                    )""");
+        }
+
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO users (id, first_name, last_name, email, email_normalized, password) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < userCount; i++) {
+                String email = emailFor(i);
+                insert.setLong(1, i + 1L);
+                insert.setString(2, "First");
+                insert.setString(3, "Last");
+                insert.setString(4, email);
+                insert.setString(5, email.toLowerCase(Locale.ROOT));
+                insert.setString(6, "{bcrypt}$2a$10$benchmarkbenchmarkbenchmarkbenchmarkbenchmarkbenchmarkbe");
+                insert.addBatch();
+                if (i % 10_000 == 9_999) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        connection.setAutoCommit(true);
+
+        lowerEmailQuery = connection.prepareStatement(LOWER_EMAIL_SQL);
+        normalizedEmailQuery = connection.prepareStatement(NORMALIZED_EMAIL_SQL);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE users");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public long lowerEmail() throws SQLException {
+        return lookup(lowerEmailQuery, emailFor(randomUser()));
+    }
+
+    @Benchmark
+    public long normalizedEmail() throws SQLException {
+        return lookup(normalizedEmailQuery, emailFor(randomUser()).toLowerCase(Locale.ROOT));
+    }
+
+    private int randomUser() {
+        return ThreadLocalRandom.current().nextInt(userCount);
+    }
+
+    private static long lookup(PreparedStatement query, String email) throws SQLException {
+        query.setString(1, email);
+        try (ResultSet resultSet = query.executeQuery()) {
+            return resultSet.next() ? resultSet.getLong(1) : -1;
+        }
+    }
+
+    private static String emailFor(int index) {
+        return "User" + index + "@Example.com";
+    }
+}
@@ -0,0 +1,98 @@
+package com.greentrace.server.benchmark;
+
+import com.greentrace.server.security.JwtAuthenticationFilter;
+import com.greentrace.server.security.JwtService;
+import com.greentrace.server.security.VerifiedTokenCache;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Before/after benchmark of the JWT authentication filter path
+ * "legacy" replays the original three-parse implementation, "current" runs the production filter
+ * with the verified token cache disabled and "currentCached" with it enabled
+ * "legacy" verifies an HS256 token, the current filter an ES256 token from the key ring
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private String authHeader;
+    private String legacyAuthHeader;
+    private JwtAuthenticationFilter currentFilter;
+    private JwtAuthenticationFilter cachedFilter;
+    private LegacyJwtAuthenticationFilter legacyFilter;
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = BenchmarkFixtures.jwtService();
+        authHeader = "Bearer " + jwtService.generateToken(BenchmarkFixtures.EMAIL, BenchmarkFixtures.USER_ID, 0);
+        currentFilter = new JwtAuthenticationFilter(
+                jwtService, new VerifiedTokenCache(0, 0), BenchmarkFixtures.userStatusRegistry(),
+                BenchmarkFixtures.tokenRevocationStore(), Set.of(), new SimpleMeterRegistry());
+        cachedFilter = new JwtAuthenticationFilter(
+                jwtService, new VerifiedTokenCache(10_000, 300_000), BenchmarkFixtures.userStatusRegistry(),
+                BenchmarkFixtures.tokenRevocationStore(), Set.of(), new SimpleMeterRegistry());
+        // The legacy filter only understands tokens signed with the shared HMAC secret
+        legacyAuthHeader = "Bearer " + Jwts.builder()
+                .claim("userId", BenchmarkFixtures.USER_ID)
+                .claim("epoch", 0)
+                .subject(BenchmarkFixtures.EMAIL)
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + BenchmarkFixtures.JWT_EXPIRATION))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(BenchmarkFixtures.JWT_SECRET)))
+                .compact();
+        legacyFilter = new LegacyJwtAuthenticationFilter(BenchmarkFixtures.JWT_SECRET, BenchmarkFixtures.userRepository());
+    }
+
+    @Benchmark
+    public Object legacy() throws ServletException, IOException {
+        return runFilter(legacyFilter::doFilter, legacyAuthHeader);
+    }
+
+    @Benchmark
+    public Object current() throws ServletException, IOException {
+        return runFilter(currentFilter::doFilter, authHeader);
+    }
+
+    @Benchmark
+    public Object currentCached() throws ServletException, IOException {
+        return runFilter(cachedFilter::doFilter, authHeader);
+    }
+
+    private Object runFilter(FilterInvocation invocation, String authHeader) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user/me");
+        request.setServletPath("/api/user/me");
+        request.addHeader("Authorization", authHeader);
+        try {
+            invocation.invoke(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+            return request.getAttribute("userId");
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @FunctionalInterface
+    private interface FilterInvocation {
+        void invoke(MockHttpServletRequest request, MockHttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException;
+    }
+}
@@ -0,0 +1,67 @@
+package com.greentrace.server.benchmark;
+
+import com.greentrace.server.security.JwtKeyRing;
+import com.greentrace.server.security.JwtPrincipal;
+import com.greentrace.server.security.JwtService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification cost of JwtService per signing algorithm
+ * "generate" signs a new token (login, signup), "verify" parses and checks one (every
+ * authenticated request on a token cache miss), "verifyLegacyHmac" a token signed with the
+ * shared HMAC secret that is still accepted during the migration
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    @Param({"ES256", "EdDSA"})
+    public String algorithm;
+
+    private JwtService jwtService;
+    private String token;
+    private String legacyToken;
+
+    @Setup
+    public void setUp() {
+        JwtKeyRing keyRing = new JwtKeyRing(algorithm, "", false, 604800000L, 3600000L, 10000L, BenchmarkFixtures.JWT_EXPIRATION);
+        // Cutover after the legacy token's issue time, as during the migration window
+        String legacyHmacCutover = Instant.now().plusSeconds(60).toString();
+        jwtService = new JwtService(BenchmarkFixtures.JWT_SECRET, BenchmarkFixtures.JWT_EXPIRATION, legacyHmacCutover, keyRing);
+        token = jwtService.generateToken(BenchmarkFixtures.EMAIL, BenchmarkFixtures.USER_ID, 0);
+        legacyToken = Jwts.builder()
+                .claim("userId", BenchmarkFixtures.USER_ID)
+                .claim("epoch", 0)
+                .subject(BenchmarkFixtures.EMAIL)
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + BenchmarkFixtures.JWT_EXPIRATION))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(BenchmarkFixtures.JWT_SECRET)))
+                .compact();
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtService.generateToken(BenchmarkFixtures.EMAIL, BenchmarkFixtures.USER_ID, 0);
+    }
+
+    @Benchmark
+    public JwtPrincipal verify() {
+        return jwtService.verifyToken(token);
+    }
+
+    @Benchmark
+    public JwtPrincipal verifyLegacyHmac() {
+        return jwtService.verifyToken(legacyToken);
+    }
+}
@@ -0,0 +1,91 @@
+package com.greentrace.server.benchmark;
+
+import com.greentrace.server.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+
+/**
+ * Frozen copy of the original JWT filter path, kept as the "before" baseline
+ * Parses and verifies each token three times and rebuilds the key and parser on every parse
+ */
+public class LegacyJwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private final String secretKey;
+    private final UserRepository userRepository;
+
+    public LegacyJwtAuthenticationFilter(String secretKey, UserRepository userRepository) {
+        this.secretKey = secretKey;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        final String authHeader = request.getHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String jwt = authHeader.substring(7);
+        try {
+            String userEmail = extractAllClaims(jwt).getSubject();
+            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                var userOptional = userRepository.findByNormalizedEmail(userEmail);
+                if (userOptional.isPresent() && isTokenValid(jwt, userEmail)) {
+                    var user = userOptional.get();
+                    UsernamePasswordAuthenticationToken authToken =
+                            new UsernamePasswordAuthenticationToken(userEmail, null, new ArrayList<>());
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                    request.setAttribute("userId", user.getId());
+                    request.setAttribute("userEmail", user.getEmail());
+                }
+            }
+        } catch (Exception e) {
+            logger.error("JWT authentication failed: " + e.getMessage());
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private boolean isTokenValid(String token, String email) {
+        try {
+            String tokenEmail = extractAllClaims(token).getSubject();
+            return tokenEmail.equals(email) && !extractAllClaims(token).getExpiration().before(new Date());
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private Claims extractAllClaims(String token) {
+        return Jwts.parser()
+                .verifyWith(getSignInKey())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    private SecretKey getSignInKey() {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+    }
+}
@@ -0,0 +1,44 @@
+package com.greentrace.server.benchmark;
+
+import com.greentrace.server.security.CalibratedBCryptPasswordEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt cost per work factor, i.e. the CPU time one signup ("encode") or login ("matches")
+ * takes on a hashing worker; each step of the cost doubles it
+ * Use the results to check the cost picked by BCryptCostCalibrator against the login latency budget
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 4)
+@Fork(1)
+public class PasswordEncodingBenchmark {
+
+    private static final String PASSWORD = "Correct-Horse-Battery-9";
+
+    @Param({"10", "11", "12"})
+    public int cost;
+
+    private CalibratedBCryptPasswordEncoder encoder;
+    private String encoded;
+
+    @Setup
+    public void setUp() {
+        encoder = new CalibratedBCryptPasswordEncoder(cost);
+        encoded = encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches(PASSWORD, encoded);
+    }
+}
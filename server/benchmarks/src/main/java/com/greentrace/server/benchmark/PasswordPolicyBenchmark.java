@@ -0,0 +1,45 @@
+package com.greentrace.server.benchmark;
+
+import com.greentrace.server.security.BreachedPasswordBloomFilter;
+import com.greentrace.server.security.PasswordPolicy;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password policy check run on signup, password reset and provisioning
+ * "accept" validates a strong password (full scan plus the breached-password lookup),
+ * "reject" a password that fails on the last character class, including the exception
+ * The breached-password filter is disabled, as in the default profile
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordPolicyBenchmark {
+
+    private PasswordPolicy passwordPolicy;
+
+    @Setup
+    public void setUp() throws IOException {
+        passwordPolicy = new PasswordPolicy(new BreachedPasswordBloomFilter(""));
+    }
+
+    @Benchmark
+    public void accept() {
+        passwordPolicy.validate("Correct-Horse-Battery-9");
+    }
+
+    @Benchmark
+    public Object reject() {
+        try {
+            passwordPolicy.validate("CorrectHorseBattery9");
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.greentrace.server.benchmark;
+
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.greentrace.server.dto.AuthResponse;
+import com.greentrace.server.dto.UserResponse;
+import com.greentrace.server.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Build-and-serialize cost of the login response
+ * "mapTree" replays the original nested Map.of response, "record" the typed AuthResponse, and
+ * "recordBlackbird" the typed response with the Blackbird module the application registers
+ * Run with "-prof gc" and compare gc.alloc.rate.norm (bytes allocated per response)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    private final OutputStream sink = OutputStream.nullOutputStream();
+
+    private ObjectMapper reflectiveMapper;
+    private ObjectMapper blackbirdMapper;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        // Like the HTTP message converter, write to a stream the mapper does not own
+        reflectiveMapper = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                .build();
+        blackbirdMapper = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .addModule(new BlackbirdModule())
+                .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                .build();
+        user = BenchmarkFixtures.user();
+        user.setLastLogin(LocalDateTime.of(2025, 1, 1, 12, 0));
+        token = BenchmarkFixtures.jwtService().generateToken(BenchmarkFixtures.EMAIL, BenchmarkFixtures.USER_ID, 0);
+    }
+
+    @Benchmark
+    public void mapTree() throws IOException {
+        reflectiveMapper.writeValue(sink, Map.of(
+                "success", true,
+                "message", "Welcome back! Login successful.",
+                "token", token,
+                "user", Map.of(
+                        "id", user.getId(),
+                        "firstName", user.getFirstName(),
+                        "lastName", user.getLastName(),
+                        "email", user.getEmail(),
+                        "fullName", user.getFullName(),
+                        "lastLogin", user.getLastLogin()
+                )
+        ));
+    }
+
+    @Benchmark
+    public void record() throws IOException {
+        reflectiveMapper.writeValue(sink, loginResponse());
+    }
+
+    @Benchmark
+    public void recordBlackbird() throws IOException {
+        blackbirdMapper.writeValue(sink, loginResponse());
+    }
+
+    private AuthResponse loginResponse() {
+        return new AuthResponse("Welcome back! Login successful.", token, UserResponse.withLastLogin(user));
+    }
+}
@@ -0,0 +1,184 @@
+package com.greentrace.server.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cold-start benchmark: starts the server in a new JVM and measures the time until the first
+ * HTTP response and until the first successful POST /api/auth/login (after a signup, since the
+ * default profile starts with an empty in-memory database)
+ *
+ * Not a JMH benchmark, as every sample is a separate process. Build the standard jar and the
+ * fast-startup layout first (mvn -Pfast-startup package), then run from the server directory:
+ *
+ *   java -cp benchmarks/target/benchmarks.jar com.greentrace.server.benchmark.StartupBenchmark [runs]
+ *
+ * Variants: the fat jar as built by default, the extracted jar with AOT initialization, and the
+ * extracted jar with AOT initialization and the CDS archive. Variants whose files are missing
+ * are skipped. -Dstartup.target sets the server build directory (default: target)
+ */
+public class StartupBenchmark {
+
+    private static final Duration START_TIMEOUT = Duration.ofSeconds(120);
+    private static final long POLL_INTERVAL_MILLIS = 10;
+
+    private static final String SIGNUP_BODY =
+            "{\"firstName\":\"Ada\",\"lastName\":\"Lovelace\",\"email\":\"ada@example.com\",\"password\":\"Str0ng!Pass\"}";
+    private static final String LOGIN_BODY =
+            "{\"email\":\"ada@example.com\",\"password\":\"Str0ng!Pass\"}";
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        Path target = Path.of(System.getProperty("startup.target", "target")).toAbsolutePath();
+        Path jar = findServerJar(target);
+        Path fastStartup = target.resolve("fast-startup");
+        Path extractedJar = fastStartup.resolve(jar.getFileName());
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+        List<Variant> variants = new ArrayList<>();
+        variants.add(new Variant("standard", target, List.of(java, "-jar", jar.toString())));
+        if (Files.exists(extractedJar)) {
+            variants.add(new Variant("aot", fastStartup,
+                    List.of(java, "-Dspring.aot.enabled=true", "-jar", extractedJar.toString())));
+        }
+        if (Files.exists(fastStartup.resolve("application.jsa"))) {
+            variants.add(new Variant("aot+cds", fastStartup,
+                    List.of(java, "-XX:SharedArchiveFile=application.jsa", "-Dspring.aot.enabled=true",
+                            "-jar", extractedJar.toString())));
+        }
+
+        StartupBenchmark benchmark = new StartupBenchmark();
+        System.out.printf(Locale.ROOT, "%-10s %5s %14s %14s%n", "variant", "run", "first resp ms", "first login ms");
+        List<String> summary = new ArrayList<>();
+        for (Variant variant : variants) {
+            long[] firstResponse = new long[runs];
+            long[] firstLogin = new long[runs];
+            for (int run = 0; run < runs; run++) {
+                Sample sample = benchmark.measure(variant);
+                firstResponse[run] = sample.firstResponseMillis();
+                firstLogin[run] = sample.firstLoginMillis();
+                System.out.printf(Locale.ROOT, "%-10s %5d %14d %14d%n",
+                        variant.name(), run + 1, sample.firstResponseMillis(), sample.firstLoginMillis());
+            }
+            summary.add(String.format(Locale.ROOT, "%-10s %14d %14d %14d",
+                    variant.name(), median(firstResponse), median(firstLogin), min(firstLogin)));
+        }
+
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-10s %14s %14s %14s%n", "variant", "median resp", "median login", "min login");
+        summary.forEach(System.out::println);
+    }
+
+    /**
+     * Start one server process and time it until the first successful login
+     * @param variant Command line to start
+     * @return Milliseconds from process start to the first response and to the first login
+     */
+    private Sample measure(Variant variant) throws IOException, InterruptedException {
+        int port = freePort();
+        URI baseUri = URI.create("http://localhost:" + port);
+        Path log = Files.createTempFile("startup-" + variant.name() + "-", ".log");
+
+        List<String> command = new ArrayList<>(variant.command());
+        command.add("--server.port=" + port);
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .directory(variant.directory().toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile());
+
+        long start = System.nanoTime();
+        Process process = builder.start();
+        try {
+            long firstResponse = awaitStatus(process, baseUri.resolve("/api/auth/signup"), SIGNUP_BODY, 201, start, log);
+            long firstLogin = awaitStatus(process, baseUri.resolve("/api/auth/login"), LOGIN_BODY, 200, start, log);
+            Files.deleteIfExists(log);
+            return new Sample(firstResponse, firstLogin);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    /**
+     * Poll an endpoint until it answers with the expected status
+     * @return Milliseconds since start when it did
+     */
+    private long awaitStatus(Process process, URI uri, String body, int expectedStatus, long start, Path log)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        long deadline = start + START_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Server exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == expectedStatus) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }
+                throw new IllegalStateException(uri + " returned " + response.statusCode() + ", see " + log);
+            } catch (ConnectException e) {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            }
+        }
+        throw new IllegalStateException("Server did not answer within " + START_TIMEOUT + ", see " + log);
+    }
+
+    private static Path findServerJar(Path target) throws IOException {
+        try (Stream<Path> files = Files.list(target)) {
+            return files
+                    .filter(file -> file.getFileName().toString().matches("server-.*\\.jar"))
+                    .filter(file -> !file.getFileName().toString().endsWith("-classes.jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No server jar in " + target + File.separator));
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static long min(long[] values) {
+        return Arrays.stream(values).min().orElse(0);
+    }
+
+    private record Variant(String name, Path directory, List<String> command) {
+    }
+
+    private record Sample(long firstResponseMillis, long firstLoginMillis) {
+    }
+}
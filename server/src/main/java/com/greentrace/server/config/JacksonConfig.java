@@ -0,0 +1,23 @@
+package com.greentrace.server.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jackson Configuration
+ * Module beans are picked up by Spring Boot's auto-configured ObjectMapper
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Replace reflective getter, setter and constructor calls with generated lambdas
+     * @return Blackbird module
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,13 @@
+package com.greentrace.server.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Scheduling Configuration
+ * Enables @Scheduled background jobs (write-behind flushes, cleanup sweeps)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,8 +1,15 @@
 package com.greentrace.server.config;
 
+import com.greentrace.server.security.BCryptCostCalibrator;
+import com.greentrace.server.security.CalibratedBCryptPasswordEncoder;
 import com.greentrace.server.security.JwtAuthenticationFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -10,11 +17,13 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.Map;
+
 /**
  * Spring Security Configuration
  * Configures JWT authentication, CORS, and endpoint security
@@ -24,12 +33,16 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @EnableMethodSecurity
 public class SecurityConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final CorsConfig corsConfig;
+    private final Environment environment;
 
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter, CorsConfig corsConfig) {
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter, CorsConfig corsConfig, Environment environment) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.corsConfig = corsConfig;
+        this.environment = environment;
     }
 
     /**
@@ -57,7 +70,15 @@ public class SecurityConfig {
                                 "/error",                 // Error pages
                                 "/favicon.ico"            // Favicon
                         ).permitAll()
+
+                        // Actuator (health, Prometheus scrape) is open on the separate management port,
+                        // administrators only when it shares the application port
+                        .requestMatchers(this::isManagementPort).permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         
+                        // Administrator endpoints (users listed in app.security.admin-user-ids)
+                        .requestMatchers("/api/protected/provisioning/**").hasRole("ADMIN")
+
                         // Protected endpoints (authentication required)
                         .requestMatchers(
                                 "/api/user/**",           // User profile endpoints
@@ -85,13 +106,45 @@ public class SecurityConfig {
                 .build();
     }
 
+    /**
+     * Check if a request arrived on the management port
+     * Actuator endpoints sharing the application port (management.server.port unset or equal to
+     * server.port) are not treated as management requests
+     * @param request HTTP request
+     * @return True for requests to the separate management server
+     */
+    private boolean isManagementPort(HttpServletRequest request) {
+        Integer managementPort = environment.getProperty("local.management.port", Integer.class);
+        Integer serverPort = environment.getProperty("local.server.port", Integer.class);
+        return managementPort != null && !managementPort.equals(serverPort) && request.getLocalPort() == managementPort;
+    }
+
     /**
      * Password encoder bean
-     * @return BCryptPasswordEncoder for password hashing
+     * BCrypt cost is calibrated at startup against a target hash latency unless a fixed strength is configured
+     * New hashes are stored with a {bcrypt} prefix; legacy unprefixed hashes still match and are upgraded on login
+     * @param strength Fixed BCrypt cost (0 = calibrate)
+     * @param targetLatency Target time for one hash in milliseconds
+     * @param minStrength Lowest cost calibration may choose
+     * @param maxStrength Highest cost calibration may choose
+     * @return DelegatingPasswordEncoder for password hashing
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(
+            @Value("${app.security.password-hashing.strength:0}") int strength,
+            @Value("${app.security.password-hashing.target-latency:250}") long targetLatency,
+            @Value("${app.security.password-hashing.min-strength:10}") int minStrength,
+            @Value("${app.security.password-hashing.max-strength:14}") int maxStrength
+    ) {
+        int bcryptStrength = strength > 0
+                ? strength
+                : BCryptCostCalibrator.calibrate(targetLatency, minStrength, maxStrength);
+        log.info("Using BCrypt strength {} ({})", bcryptStrength, strength > 0 ? "configured" : "calibrated");
+
+        PasswordEncoder bcrypt = new CalibratedBCryptPasswordEncoder(bcryptStrength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 
     /**
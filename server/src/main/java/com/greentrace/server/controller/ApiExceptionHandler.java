@@ -0,0 +1,149 @@
+package com.greentrace.server.controller;
+
+import com.greentrace.server.dto.ErrorResponse;
+import com.greentrace.server.security.LoginThrottledException;
+import com.greentrace.server.security.PasswordHashingOverloadedException;
+import com.greentrace.server.services.DuplicateEmailException;
+import com.greentrace.server.services.InvalidCredentialsException;
+import com.greentrace.server.services.UserNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * API Exception Handler
+ * Maps exceptions thrown by controllers to ErrorResponse bodies in one place
+ * Standard Spring MVC exceptions (unreadable body, wrong method, ...) keep their default status codes
+ * but use the same body shape
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler extends ResponseEntityExceptionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(ApiExceptionHandler.class);
+
+    /**
+     * Bean Validation failures on @Valid request bodies
+     * @return 400 response with the message of each invalid field
+     */
+    @Override
+    protected ResponseEntity<Object> handleMethodArgumentNotValid(
+            @NonNull MethodArgumentNotValidException ex,
+            @NonNull HttpHeaders headers,
+            @NonNull HttpStatusCode status,
+            @NonNull WebRequest request
+    ) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        ex.getBindingResult().getFieldErrors().forEach(error ->
+            errors.putIfAbsent(error.getField(), error.getDefaultMessage())
+        );
+        return ResponseEntity.badRequest().body(new ErrorResponse("Validation failed", errors));
+    }
+
+    /**
+     * Standard Spring MVC exceptions
+     * @return Response with the default status and headers and the exception's problem detail as message,
+     * or null if the response is already committed (e.g. a timed out event stream)
+     */
+    @Override
+    protected ResponseEntity<Object> handleExceptionInternal(
+            @NonNull Exception ex,
+            Object body,
+            @NonNull HttpHeaders headers,
+            @NonNull HttpStatusCode statusCode,
+            @NonNull WebRequest request
+    ) {
+        if (request instanceof ServletWebRequest servletRequest
+                && servletRequest.getResponse() != null && servletRequest.getResponse().isCommitted()) {
+            return null;
+        }
+        String message = body instanceof ProblemDetail problem && problem.getDetail() != null
+                ? problem.getDetail()
+                : "Request could not be processed";
+        return new ResponseEntity<>(new ErrorResponse(message), headers, statusCode);
+    }
+
+    /**
+     * Wrong email or password, or an account that may not log in
+     * @return 401 response that does not reveal which check failed
+     */
+    @ExceptionHandler(InvalidCredentialsException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCredentials(InvalidCredentialsException e) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new ErrorResponse("Invalid email or password. Please check your credentials and try again."));
+    }
+
+    /**
+     * Signup with an already registered email
+     * @return 409 response
+     */
+    @ExceptionHandler(DuplicateEmailException.class)
+    public ResponseEntity<ErrorResponse> handleDuplicateEmail(DuplicateEmailException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(e.getMessage()));
+    }
+
+    /**
+     * Unknown user
+     * @return 404 response
+     */
+    @ExceptionHandler(UserNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleUserNotFound(UserNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ErrorResponse("No account found with that email address."));
+    }
+
+    /**
+     * Any other rejected input (validation, password policy, invalid reset token)
+     * @return 400 response with the exception message
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalArgument(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+    }
+
+    /**
+     * Login attempts over the per-IP or per-account rate
+     * @return 429 response with a Retry-After header
+     */
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<ErrorResponse> handleLoginThrottled(LoginThrottledException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ErrorResponse("Too many login attempts. Please wait a moment and try again."));
+    }
+
+    /**
+     * Requests rejected by the password hashing pool
+     * @return 503 response with a Retry-After header
+     */
+    @ExceptionHandler(PasswordHashingOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleServerBusy(PasswordHashingOverloadedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ErrorResponse("The server is busy. Please try again in a moment."));
+    }
+
+    /**
+     * Anything unexpected
+     * @return 500 response without internal details
+     */
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorResponse> handleUnexpected(Exception e) {
+        log.error("Unhandled exception", e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("An unexpected error occurred. Please try again."));
+    }
+}
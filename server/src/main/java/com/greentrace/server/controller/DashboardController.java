@@ -0,0 +1,107 @@
+package com.greentrace.server.controller;
+
+import com.greentrace.server.dto.EmissionSeriesResponse;
+import com.greentrace.server.dto.EmissionTotalsResponse;
+import com.greentrace.server.model.RollupResolution;
+import com.greentrace.server.services.EmissionRollupService;
+import com.greentrace.server.services.EmissionStreamHub;
+import com.greentrace.server.util.TimeRange;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Dashboard Controller
+ * Emission analytics for the authenticated user, served from the pre-aggregated rollups
+ */
+@RestController
+@RequestMapping("/api/dashboard")
+public class DashboardController {
+
+    private final EmissionRollupService emissionRollupService;
+    private final EmissionStreamHub emissionStreamHub;
+
+    public DashboardController(EmissionRollupService emissionRollupService, EmissionStreamHub emissionStreamHub) {
+        this.emissionRollupService = emissionRollupService;
+        this.emissionStreamHub = emissionStreamHub;
+    }
+
+    /**
+     * Emission totals endpoint
+     * Sum, count, min and max per activity type and unit over [from, to), truncated to whole minutes
+     *
+     * @param from Start of the range, ISO-8601
+     * @param to End of the range, ISO-8601
+     * @param activityType Activity type to restrict to (optional)
+     * @param request HTTP request
+     * @return ResponseEntity with the totals
+     */
+    @GetMapping("/emissions/totals")
+    public ResponseEntity<EmissionTotalsResponse> totals(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) String activityType,
+            HttpServletRequest request
+    ) {
+        TimeRange range = TimeRange.parse(from, to);
+        Long userId = (Long) request.getAttribute("userId");
+
+        return ResponseEntity.ok(new EmissionTotalsResponse(
+                true,
+                range.from().truncatedTo(ChronoUnit.MINUTES),
+                range.to().truncatedTo(ChronoUnit.MINUTES),
+                emissionRollupService.totals(userId, activityType, range.from(), range.to())));
+    }
+
+    /**
+     * Emission time series endpoint
+     * Aggregates per bucket for charts; without a resolution the finest one within the point limit is used
+     *
+     * @param from Start of the range, ISO-8601
+     * @param to End of the range, ISO-8601
+     * @param resolution minute, hour, day or month (optional)
+     * @param activityType Activity type to restrict to (optional)
+     * @param request HTTP request
+     * @return ResponseEntity with the buckets
+     */
+    @GetMapping("/emissions/series")
+    public ResponseEntity<EmissionSeriesResponse> series(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) String resolution,
+            @RequestParam(required = false) String activityType,
+            HttpServletRequest request
+    ) {
+        TimeRange range = TimeRange.parse(from, to);
+        Long userId = (Long) request.getAttribute("userId");
+        RollupResolution bucketSize = resolution != null
+                ? RollupResolution.parse(resolution)
+                : emissionRollupService.resolutionFor(range.from(), range.to());
+
+        return ResponseEntity.ok(new EmissionSeriesResponse(
+                true,
+                bucketSize.name().toLowerCase(Locale.ROOT),
+                emissionRollupService.series(userId, activityType, bucketSize, range.from(), range.to())));
+    }
+
+    /**
+     * Live emission feed (Server-Sent Events)
+     * "emissions" events carry the change of each day's totals per activity type and unit since the
+     * previous event; a "resync" event means updates were dropped and the totals should be reloaded
+     *
+     * @param request HTTP request
+     * @return Event stream of the authenticated user's ingested readings
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(HttpServletRequest request) {
+        return emissionStreamHub.subscribe((Long) request.getAttribute("userId"));
+    }
+}
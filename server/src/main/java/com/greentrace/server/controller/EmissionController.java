@@ -0,0 +1,84 @@
+package com.greentrace.server.controller;
+
+import com.greentrace.server.dto.EmissionIngestReport;
+import com.greentrace.server.dto.EmissionReadingsResponse;
+import com.greentrace.server.model.EmissionReading;
+import com.greentrace.server.services.EmissionIngestService;
+import com.greentrace.server.services.EmissionStore;
+import com.greentrace.server.util.RecordFormat;
+import com.greentrace.server.util.TimeRange;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Emission Controller
+ * Bulk ingestion and retrieval of metered emission activity readings
+ */
+@RestController
+@RequestMapping("/api/protected/emissions")
+public class EmissionController {
+
+    private static final int MAX_READINGS = 10000;
+
+    private final EmissionIngestService emissionIngestService;
+    private final EmissionStore emissionStore;
+
+    public EmissionController(EmissionIngestService emissionIngestService, EmissionStore emissionStore) {
+        this.emissionIngestService = emissionIngestService;
+        this.emissionStore = emissionStore;
+    }
+
+    /**
+     * Bulk emission activity ingestion endpoint
+     * Accepts a CSV (header: source,timestamp,activityType,quantity,unit) or NDJSON stream of readings,
+     * attributed to the authenticated user. The body is read as a stream, so uploads are never buffered in full
+     *
+     * @param request HTTP request carrying the upload
+     * @return ResponseEntity with the ingestion report
+     */
+    @PostMapping(consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<EmissionIngestReport> ingest(HttpServletRequest request) throws IOException {
+        Long userId = (Long) request.getAttribute("userId");
+        RecordFormat format = RecordFormat.fromContentType(request.getContentType());
+        return ResponseEntity.ok(emissionIngestService.ingest(userId, request.getInputStream(), format));
+    }
+
+    /**
+     * Emission readings endpoint
+     * Returns the authenticated user's earliest readings in [from, to), oldest first, at most limit of them
+     *
+     * @param from Start of the range, ISO-8601 (inclusive)
+     * @param to End of the range, ISO-8601 (exclusive)
+     * @param source Source to restrict to (optional)
+     * @param limit Maximum number of readings (1 to 10000)
+     * @param request HTTP request
+     * @return ResponseEntity with the readings
+     */
+    @GetMapping("/readings")
+    public ResponseEntity<EmissionReadingsResponse> readings(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) String source,
+            @RequestParam(defaultValue = "1000") int limit,
+            HttpServletRequest request
+    ) {
+        if (limit < 1 || limit > MAX_READINGS) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_READINGS);
+        }
+        TimeRange range = TimeRange.parse(from, to);
+        Long userId = (Long) request.getAttribute("userId");
+
+        // One extra reading tells whether the range holds more than limit
+        List<EmissionReading> readings = emissionStore.scan(userId, source, range.from(), range.to(), limit + 1);
+        boolean truncated = readings.size() > limit;
+        return ResponseEntity.ok(new EmissionReadingsResponse(true, truncated ? readings.subList(0, limit) : readings, truncated));
+    }
+}
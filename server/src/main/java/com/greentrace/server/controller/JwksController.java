@@ -0,0 +1,45 @@
+package com.greentrace.server.controller;
+
+import com.greentrace.server.security.JwtKeyRing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * JWKS Controller
+ * Publishes the public token verification keys so other services can verify GreenTrace tokens locally
+ */
+@RestController
+@RequestMapping("/api/public")
+public class JwksController {
+
+    private final JwtKeyRing keyRing;
+    private final CacheControl cacheControl;
+
+    public JwksController(
+            JwtKeyRing keyRing,
+            @Value("${app.security.jwt.jwks-max-age:900}") long maxAgeSeconds
+    ) {
+        this.keyRing = keyRing;
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic();
+    }
+
+    /**
+     * JSON Web Key Set endpoint
+     * Verifiers should cache the response and refetch when a token carries an unknown "kid" (a freshly rotated key)
+     *
+     * @return ResponseEntity with the JWKS document
+     */
+    @GetMapping("/jwks")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .body(keyRing.jwks());
+    }
+}
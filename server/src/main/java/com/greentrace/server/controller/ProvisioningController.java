@@ -0,0 +1,46 @@
+package com.greentrace.server.controller;
+
+import com.greentrace.server.dto.ProvisioningReport;
+import com.greentrace.server.dto.ProvisioningResponse;
+import com.greentrace.server.services.UserProvisioningService;
+import com.greentrace.server.util.RecordFormat;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * Provisioning Controller
+ * Bulk user onboarding for whole organizations
+ */
+@RestController
+@RequestMapping("/api/protected/provisioning")
+public class ProvisioningController {
+
+    private final UserProvisioningService userProvisioningService;
+
+    public ProvisioningController(UserProvisioningService userProvisioningService) {
+        this.userProvisioningService = userProvisioningService;
+    }
+
+    /**
+     * Bulk user provisioning endpoint
+     * Accepts a CSV (header: firstName,lastName,email,password) or NDJSON stream of users
+     * The body is read as a stream, so uploads are never buffered in full
+     * Restricted to administrators (app.security.admin-user-ids, see SecurityConfig)
+     *
+     * @param request HTTP request carrying the upload
+     * @return ResponseEntity with the per-line provisioning report
+     */
+    @PostMapping(value = "/users", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ProvisioningResponse> provisionUsers(HttpServletRequest request) throws IOException {
+        RecordFormat format = RecordFormat.fromContentType(request.getContentType());
+        ProvisioningReport report = userProvisioningService.provision(request.getInputStream(), format);
+
+        return ResponseEntity.ok(new ProvisioningResponse(
+                true, report.created() + " of " + report.total() + " users provisioned.", report));
+    }
+}
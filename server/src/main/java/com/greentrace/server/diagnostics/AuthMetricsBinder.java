@@ -0,0 +1,142 @@
+package com.greentrace.server.diagnostics;
+
+import com.greentrace.server.security.LoginThrottle;
+import com.greentrace.server.security.PasswordHashingService;
+import com.greentrace.server.security.TokenRevocationStore;
+import com.greentrace.server.security.UserStatusRegistry;
+import com.greentrace.server.security.VerifiedTokenCache;
+import com.greentrace.server.services.AuditTrail;
+import com.greentrace.server.services.LoginWriteBehindBuffer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Auth Metrics Binder
+ * Publishes the counters the auth components already keep (LongAdders behind their stats() methods)
+ * as Micrometer meters; values are read at scrape time, so the request path does no extra work
+ */
+@Component
+public class AuthMetricsBinder implements MeterBinder {
+
+    private final VerifiedTokenCache tokenCache;
+    private final LoginThrottle loginThrottle;
+    private final PasswordHashingService passwordHashingService;
+    private final TokenRevocationStore tokenRevocationStore;
+    private final UserStatusRegistry userStatusRegistry;
+    private final LoginWriteBehindBuffer loginWriteBehindBuffer;
+    private final AuditTrail auditTrail;
+    private final ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor;
+
+    public AuthMetricsBinder(
+            VerifiedTokenCache tokenCache,
+            LoginThrottle loginThrottle,
+            PasswordHashingService passwordHashingService,
+            TokenRevocationStore tokenRevocationStore,
+            UserStatusRegistry userStatusRegistry,
+            LoginWriteBehindBuffer loginWriteBehindBuffer,
+            AuditTrail auditTrail,
+            ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor
+    ) {
+        this.tokenCache = tokenCache;
+        this.loginThrottle = loginThrottle;
+        this.passwordHashingService = passwordHashingService;
+        this.tokenRevocationStore = tokenRevocationStore;
+        this.userStatusRegistry = userStatusRegistry;
+        this.loginWriteBehindBuffer = loginWriteBehindBuffer;
+        this.auditTrail = auditTrail;
+        this.pinningMonitor = pinningMonitor;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        // Verified token cache
+        counter(registry, "greentrace.token.cache.requests", "Token cache lookups", tokenCache,
+                cache -> cache.stats().hits(), "result", "hit");
+        counter(registry, "greentrace.token.cache.requests", "Token cache lookups", tokenCache,
+                cache -> cache.stats().misses(), "result", "miss");
+        counter(registry, "greentrace.token.cache.removals", "Token cache entries removed", tokenCache,
+                cache -> cache.stats().evictions(), "cause", "capacity");
+        counter(registry, "greentrace.token.cache.removals", "Token cache entries removed", tokenCache,
+                cache -> cache.stats().expirations(), "cause", "expired");
+        gauge(registry, "greentrace.token.cache.size", "Cached verified tokens", tokenCache,
+                cache -> cache.stats().size());
+
+        // Login throttle decisions
+        counter(registry, "greentrace.login.throttle", "Login throttle decisions", loginThrottle,
+                throttle -> throttle.stats().allowed(), "decision", "allowed");
+        counter(registry, "greentrace.login.throttle", "Login throttle decisions", loginThrottle,
+                throttle -> throttle.stats().rejectedByIp(), "decision", "rejected_ip");
+        counter(registry, "greentrace.login.throttle", "Login throttle decisions", loginThrottle,
+                throttle -> throttle.stats().rejectedByAccount(), "decision", "rejected_account");
+        counter(registry, "greentrace.login.throttle.untracked", "Limit checks let through because all buckets were in use",
+                loginThrottle, throttle -> throttle.stats().untracked());
+        gauge(registry, "greentrace.login.throttle.buckets", "Tracked throttle buckets", loginThrottle,
+                throttle -> throttle.stats().trackedIps(), "limit", "ip");
+        gauge(registry, "greentrace.login.throttle.buckets", "Tracked throttle buckets", loginThrottle,
+                throttle -> throttle.stats().trackedAccounts(), "limit", "account");
+
+        // Password hashing pool (operation timers are recorded by the service itself)
+        counter(registry, "greentrace.password.rejected", "Hashing requests rejected because the queue was full",
+                passwordHashingService, service -> service.stats().rejected());
+        gauge(registry, "greentrace.password.queue.depth", "Hashing requests waiting for a worker",
+                passwordHashingService, service -> service.stats().queueDepth());
+        gauge(registry, "greentrace.password.active", "Hashing requests running",
+                passwordHashingService, service -> service.stats().active());
+
+        // Token state
+        gauge(registry, "greentrace.token.revoked", "Revoked tokens that have not expired yet",
+                tokenRevocationStore, TokenRevocationStore::size);
+        gauge(registry, "greentrace.user.status.overrides", "Users that are inactive or have revoked tokens",
+                userStatusRegistry, UserStatusRegistry::size);
+        gauge(registry, "greentrace.login.writebehind.pending", "Login updates waiting to be flushed",
+                loginWriteBehindBuffer, LoginWriteBehindBuffer::pendingCount);
+
+        // Audit trail pipeline
+        String overflowPolicy = auditTrail.stats().overflowPolicy();
+        counter(registry, "greentrace.audit.events", "Audit events by pipeline stage", auditTrail,
+                trail -> trail.stats().accepted(), "stage", "accepted");
+        counter(registry, "greentrace.audit.events", "Audit events by pipeline stage", auditTrail,
+                trail -> trail.stats().written(), "stage", "written");
+        counter(registry, "greentrace.audit.dropped", "Audit events lost to a full buffer or failing writes",
+                auditTrail, trail -> trail.stats().dropped(), "policy", overflowPolicy);
+        counter(registry, "greentrace.audit.write.failures", "Audit batch inserts that failed", auditTrail,
+                trail -> trail.stats().failedWrites());
+        gauge(registry, "greentrace.audit.backlog", "Audit events waiting to be written", auditTrail,
+                trail -> trail.stats().backlog());
+
+        // Virtual thread pinning (only when the monitor is enabled)
+        pinningMonitor.ifAvailable(monitor -> {
+            counter(registry, "greentrace.vthread.pinned", "Virtual thread pins over the reporting threshold",
+                    monitor, m -> m.stats().pins());
+            FunctionCounter.builder("greentrace.vthread.pinned.time", monitor,
+                            m -> m.stats().pinnedNanos() / (double) TimeUnit.SECONDS.toNanos(1))
+                    .description("Time virtual threads spent pinned")
+                    .baseUnit("seconds")
+                    .register(registry);
+        });
+    }
+
+    private static <T> void counter(MeterRegistry registry, String name, String description, T source,
+                                    ToDoubleFunction<T> value, String... tags) {
+        FunctionCounter.builder(name, source, value)
+                .description(description)
+                .tags(tags)
+                .register(registry);
+    }
+
+    private static <T> void gauge(MeterRegistry registry, String name, String description, T source,
+                                  ToDoubleFunction<T> value, String... tags) {
+        Gauge.builder(name, source, value)
+                .description(description)
+                .tags(tags)
+                .register(registry);
+    }
+}
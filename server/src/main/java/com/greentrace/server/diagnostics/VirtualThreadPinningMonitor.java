@@ -0,0 +1,142 @@
+package com.greentrace.server.diagnostics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Virtual Thread Pinning Monitor
+ * Streams the JFR "jdk.VirtualThreadPinned" event in-process and reports where virtual threads
+ * blocked while pinned to their carrier thread (typically inside synchronized blocks of a JDBC
+ * driver, connection pool or Hibernate), which stalls the carrier for every other virtual thread
+ *
+ * The first pin at each call site is logged with its stack at WARN, repeats at DEBUG; per-site
+ * counts are available from stats()
+ */
+@Component
+@ConditionalOnProperty(name = "app.diagnostics.pinning.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final Duration threshold;
+    private final ConcurrentHashMap<String, LongAdder> pinsBySite = new ConcurrentHashMap<>();
+    private final LongAdder pins = new LongAdder();
+    private final LongAdder pinnedNanos = new LongAdder();
+
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(@Value("${app.diagnostics.pinning.threshold:20}") long thresholdMillis) {
+        this.threshold = Duration.ofMillis(thresholdMillis);
+    }
+
+    /**
+     * Start streaming pinning events in the background
+     */
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Reporting virtual thread pinning longer than {} ms", threshold.toMillis());
+    }
+
+    /**
+     * Stop the event stream
+     */
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * Get a snapshot of the pinning counters
+     * @return Pinning statistics
+     */
+    public Stats stats() {
+        Map<String, Long> bySite = new LinkedHashMap<>();
+        pinsBySite.entrySet().stream()
+                .sorted(Map.Entry.<String, LongAdder>comparingByValue((a, b) -> Long.compare(b.sum(), a.sum())))
+                .forEach(entry -> bySite.put(entry.getKey(), entry.getValue().sum()));
+        return new Stats(pins.sum(), pinnedNanos.sum(), bySite);
+    }
+
+    private void onPinned(RecordedEvent event) {
+        long nanos = event.getDuration().toNanos();
+        List<RecordedFrame> frames = frames(event.getStackTrace());
+        String site = pinSite(frames);
+        LongAdder count = pinsBySite.computeIfAbsent(site, key -> new LongAdder());
+        count.increment();
+        pinnedNanos.add(nanos);
+        pins.increment();
+
+        if (count.sum() == 1) {
+            log.warn("Virtual thread pinned for {} ms at {}{}", nanos / 1_000_000, site, formatStack(frames));
+        } else if (log.isDebugEnabled()) {
+            log.debug("Virtual thread pinned for {} ms at {} ({} times)", nanos / 1_000_000, site, count.sum());
+        }
+    }
+
+    private static List<RecordedFrame> frames(RecordedStackTrace stackTrace) {
+        return stackTrace != null ? stackTrace.getFrames() : List.of();
+    }
+
+    /**
+     * Pick the frame that identifies a pin: the first frame outside the JDK, i.e. the driver,
+     * pool or application code that blocked
+     * @param frames Stack frames, innermost first
+     * @return Frame description, or "unknown" without a stack
+     */
+    private static String pinSite(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return describe(frame);
+            }
+        }
+        return frames.isEmpty() ? "unknown" : describe(frames.get(0));
+    }
+
+    private static String formatStack(List<RecordedFrame> frames) {
+        StringBuilder stack = new StringBuilder();
+        for (int i = 0; i < Math.min(frames.size(), LOGGED_FRAMES); i++) {
+            stack.append(System.lineSeparator()).append("\tat ").append(describe(frames.get(i)));
+        }
+        return stack.toString();
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    /**
+     * Point-in-time pinning counters
+     *
+     * @param pins Pinning events over the threshold
+     * @param pinnedNanos Total time virtual threads spent pinned in those events
+     * @param pinsBySite Event count per call site, most frequent first
+     */
+    public record Stats(long pins, long pinnedNanos, Map<String, Long> pinsBySite) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.greentrace.server.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Successful signup, login and token verification response
+ *
+ * @param success Always true
+ * @param message User-facing message
+ * @param token Issued JWT token (omitted by token verification)
+ * @param user Authenticated user
+ */
+public record AuthResponse(
+        boolean success,
+        String message,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String token,
+        UserResponse user
+) {
+
+    public AuthResponse(String message, String token, UserResponse user) {
+        this(true, message, token, user);
+    }
+}
@@ -0,0 +1,22 @@
+package com.greentrace.server.dto;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+
+/**
+ * One emission activity record of a bulk upload (an NDJSON line or CSV row)
+ * Fields are kept as sent and validated by EmissionIngestService
+ *
+ * @param source Meter or source system ID ("meter" is accepted as an alias)
+ * @param timestamp ISO-8601 time of the reading, with offset or Z
+ * @param activityType Activity type, e.g. electricity
+ * @param quantity Activity quantity
+ * @param unit Unit of the quantity, e.g. kWh
+ */
+public record EmissionActivityRecord(
+        @JsonAlias("meter") String source,
+        String timestamp,
+        String activityType,
+        Double quantity,
+        String unit
+) {
+}
@@ -0,0 +1,25 @@
+package com.greentrace.server.dto;
+
+import java.time.Instant;
+
+/**
+ * Aggregated emission readings of one activity type and unit
+ *
+ * @param bucketStart Start of the bucket, or null for a total over the whole range
+ * @param activityType Activity type
+ * @param unit Unit of the quantities
+ * @param sum Sum of the quantities
+ * @param count Number of readings
+ * @param min Smallest quantity
+ * @param max Largest quantity
+ */
+public record EmissionAggregate(
+        Instant bucketStart,
+        String activityType,
+        String unit,
+        double sum,
+        long count,
+        double min,
+        double max
+) {
+}
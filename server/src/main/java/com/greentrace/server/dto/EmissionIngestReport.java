@@ -0,0 +1,36 @@
+package com.greentrace.server.dto;
+
+import java.util.List;
+
+/**
+ * Result of a bulk emission activity upload
+ * Uploads can hold millions of rows, so only the first rejected lines are listed
+ *
+ * @param success Always true; rejected lines do not fail the upload
+ * @param total Data lines processed
+ * @param accepted Records stored
+ * @param rejected Lines rejected by parsing or validation
+ * @param failed Valid records the store failed to write after their rollups had committed; they count
+ *               towards dashboard aggregates but are missing from the readings and can be uploaded again
+ * @param truncated True if the upload exceeded the row limit and the remainder was not read
+ * @param errors First rejected lines, in input order
+ */
+public record EmissionIngestReport(
+        boolean success,
+        long total,
+        long accepted,
+        long rejected,
+        long failed,
+        boolean truncated,
+        List<RowError> errors
+) {
+
+    /**
+     * Rejected input line
+     *
+     * @param line Line number in the upload (1-based, header included)
+     * @param message Reason for the rejection
+     */
+    public record RowError(long line, String message) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.greentrace.server.dto;
+
+import com.greentrace.server.model.EmissionReading;
+
+import java.util.List;
+
+/**
+ * Emission readings of a time range
+ *
+ * @param success Always true
+ * @param readings Earliest readings in the range, oldest first
+ * @param truncated True if the range holds more readings than the requested limit
+ */
+public record EmissionReadingsResponse(boolean success, List<EmissionReading> readings, boolean truncated) {
+}
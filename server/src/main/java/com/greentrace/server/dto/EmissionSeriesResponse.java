@@ -0,0 +1,13 @@
+package com.greentrace.server.dto;
+
+import java.util.List;
+
+/**
+ * Emission aggregates per time bucket
+ *
+ * @param success Always true
+ * @param resolution Bucket size, e.g. hour
+ * @param buckets Non-empty buckets ordered by start, then activity type and unit
+ */
+public record EmissionSeriesResponse(boolean success, String resolution, List<EmissionAggregate> buckets) {
+}
@@ -0,0 +1,15 @@
+package com.greentrace.server.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Emission totals per activity type and unit over a time range
+ *
+ * @param success Always true
+ * @param from Start of the range actually covered (truncated to the minute)
+ * @param to End of the range actually covered (truncated to the minute)
+ * @param totals One total per activity type and unit
+ */
+public record EmissionTotalsResponse(boolean success, Instant from, Instant to, List<EmissionAggregate> totals) {
+}
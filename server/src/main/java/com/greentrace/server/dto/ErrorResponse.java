@@ -0,0 +1,27 @@
+package com.greentrace.server.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+/**
+ * Error response
+ *
+ * @param success Always false
+ * @param message User-facing error message
+ * @param errors Field-level validation messages keyed by field name (omitted when not a validation error)
+ */
+public record ErrorResponse(
+        boolean success,
+        String message,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Map<String, String> errors
+) {
+
+    public ErrorResponse(String message) {
+        this(false, message, null);
+    }
+
+    public ErrorResponse(String message, Map<String, String> errors) {
+        this(false, message, errors);
+    }
+}
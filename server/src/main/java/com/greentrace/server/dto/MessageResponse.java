@@ -0,0 +1,14 @@
+package com.greentrace.server.dto;
+
+/**
+ * Successful response that carries only a message
+ *
+ * @param success Always true
+ * @param message User-facing message
+ */
+public record MessageResponse(boolean success, String message) {
+
+    public MessageResponse(String message) {
+        this(true, message);
+    }
+}
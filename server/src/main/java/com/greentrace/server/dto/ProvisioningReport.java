@@ -0,0 +1,48 @@
+package com.greentrace.server.dto;
+
+import java.util.List;
+
+/**
+ * Result of a bulk user provisioning upload
+ * Contains one entry per data line, in input order
+ *
+ * @param total Data lines processed
+ * @param created Users created
+ * @param duplicates Lines skipped because the email already exists
+ * @param invalid Lines rejected by validation
+ * @param failed Valid lines the database rejected for another reason
+ * @param truncated True if the upload exceeded the row limit and the remainder was not read
+ * @param rows Per-line results
+ */
+public record ProvisioningReport(
+        int total,
+        int created,
+        int duplicates,
+        int invalid,
+        int failed,
+        boolean truncated,
+        List<RowResult> rows
+) {
+
+    /**
+     * Outcome of a single provisioning line
+     */
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        FAILED
+    }
+
+    /**
+     * Result for one input line
+     *
+     * @param line Line number in the upload (1-based, header included)
+     * @param email Email from the line, if it could be read
+     * @param status Outcome
+     * @param userId ID of the created user, or null
+     * @param message Reason for duplicate, invalid and failed lines, or null
+     */
+    public record RowResult(int line, String email, Status status, Long userId, String message) {
+    }
+}
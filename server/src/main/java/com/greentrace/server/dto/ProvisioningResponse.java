@@ -0,0 +1,11 @@
+package com.greentrace.server.dto;
+
+/**
+ * Response of a bulk user provisioning upload
+ *
+ * @param success Always true; rejected lines do not fail the upload
+ * @param message User-facing summary
+ * @param report Per-line provisioning report
+ */
+public record ProvisioningResponse(boolean success, String message, ProvisioningReport report) {
+}
@@ -0,0 +1,15 @@
+package com.greentrace.server.dto;
+
+/**
+ * Forgot-password response
+ *
+ * @param success Always true
+ * @param message User-facing message
+ * @param resetToken Reset token (returned for development; would be emailed in production)
+ */
+public record ResetTokenResponse(boolean success, String message, String resetToken) {
+
+    public ResetTokenResponse(String message, String resetToken) {
+        this(true, message, resetToken);
+    }
+}
@@ -0,0 +1,44 @@
+package com.greentrace.server.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.greentrace.server.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * User profile as returned by the authentication endpoints
+ *
+ * @param id User ID
+ * @param firstName First name
+ * @param lastName Last name
+ * @param email Email address
+ * @param fullName First and last name
+ * @param lastLogin Last login time (only included in login responses)
+ */
+public record UserResponse(
+        Long id,
+        String firstName,
+        String lastName,
+        String email,
+        String fullName,
+        @JsonInclude(JsonInclude.Include.NON_NULL) LocalDateTime lastLogin
+) {
+
+    /**
+     * Build the profile without the last login time
+     * @param user User entity
+     * @return User profile
+     */
+    public static UserResponse from(User user) {
+        return new UserResponse(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail(), user.getFullName(), null);
+    }
+
+    /**
+     * Build the profile including the last login time
+     * @param user User entity
+     * @return User profile
+     */
+    public static UserResponse withLastLogin(User user) {
+        return new UserResponse(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail(), user.getFullName(), user.getLastLogin());
+    }
+}
@@ -0,0 +1,66 @@
+package com.greentrace.server.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * AuditEvent entity representing one entry of the security audit trail
+ * Rows are append-only and written in JDBC batches by AuditTrail
+ */
+@Entity
+@Table(
+    name = "audit_events",
+    indexes = {
+        @Index(name = "idx_audit_events_occurred_at", columnList = "occurred_at"),
+        @Index(name = "idx_audit_events_user_id", columnList = "user_id, occurred_at")
+    }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuditEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Event type (plain VARCHAR rather than a native ENUM, so new types need no schema change)
+     */
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "event_type", nullable = false, length = 32)
+    private AuditEventType eventType;
+
+    /**
+     * Affected user, null if the event could not be tied to an account
+     */
+    @Column(name = "user_id")
+    private Long userId;
+
+    /**
+     * Normalized email the request was made for (failed and throttled logins have no user ID)
+     */
+    @Column(name = "email", length = 100)
+    private String email;
+
+    /**
+     * Client IP address of the request
+     */
+    @Column(name = "client_ip", length = 45)
+    private String clientIp;
+
+    /**
+     * Short reason or detail, e.g. why a login failed
+     */
+    @Column(name = "detail", length = 255)
+    private String detail;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,15 @@
+package com.greentrace.server.model;
+
+/**
+ * Security-relevant account events recorded in the audit trail
+ */
+public enum AuditEventType {
+    SIGNUP,
+    LOGIN_SUCCEEDED,
+    LOGIN_FAILED,
+    LOGIN_THROTTLED,
+    LOGOUT,
+    PASSWORD_RESET_REQUESTED,
+    PASSWORD_RESET,
+    ACCOUNT_DEACTIVATED
+}
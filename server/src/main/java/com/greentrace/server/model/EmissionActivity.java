@@ -0,0 +1,62 @@
+package com.greentrace.server.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * EmissionActivity entity representing one metered activity reading (fuel burned, electricity used, ...)
+ * Rows are written in JDBC batches by EmissionIngestService; the entity maps the table for queries
+ */
+@Entity
+@Table(
+    name = "emission_activities",
+    indexes = @Index(name = "idx_emission_activities_user_time", columnList = "user_id, occurred_at")
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmissionActivity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * User the activity is attributed to
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Meter or source system the reading comes from
+     */
+    @Column(name = "source", nullable = false, length = 100)
+    private String source;
+
+    /**
+     * Activity type, e.g. electricity or diesel
+     */
+    @Column(name = "activity_type", nullable = false, length = 64)
+    private String activityType;
+
+    /**
+     * Activity quantity in the given unit
+     */
+    @Column(name = "quantity", nullable = false)
+    private Double quantity;
+
+    /**
+     * Unit of the quantity, e.g. kWh or L
+     */
+    @Column(name = "unit", nullable = false, length = 16)
+    private String unit;
+
+    /**
+     * Time of the reading
+     */
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+}
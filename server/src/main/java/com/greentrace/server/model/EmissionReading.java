@@ -0,0 +1,23 @@
+package com.greentrace.server.model;
+
+import java.time.Instant;
+
+/**
+ * One validated emission activity reading as passed to and returned by an EmissionStore
+ *
+ * @param userId User the reading is attributed to
+ * @param source Meter or source system ID
+ * @param activityType Activity type, e.g. electricity
+ * @param quantity Activity quantity in the given unit
+ * @param unit Unit of the quantity, e.g. kWh
+ * @param occurredAt Time of the reading
+ */
+public record EmissionReading(
+        Long userId,
+        String source,
+        String activityType,
+        double quantity,
+        String unit,
+        Instant occurredAt
+) {
+}
@@ -0,0 +1,72 @@
+package com.greentrace.server.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+/**
+ * EmissionRollup entity holding the aggregate of one user's readings of one activity type and unit
+ * in one time bucket; rows are created and updated incrementally by EmissionRollupService
+ */
+@Entity
+@Table(
+    name = "emission_rollups",
+    uniqueConstraints = @UniqueConstraint(
+        name = "uk_emission_rollups_bucket",
+        columnNames = {"user_id", "resolution", "bucket_start", "activity_type", "unit"}
+    )
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmissionRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Bucket size (plain VARCHAR rather than a native ENUM)
+     */
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "resolution", nullable = false, length = 8)
+    private RollupResolution resolution;
+
+    /**
+     * Start of the bucket (UTC aligned)
+     */
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart;
+
+    @Column(name = "activity_type", nullable = false, length = 64)
+    private String activityType;
+
+    @Column(name = "unit", nullable = false, length = 16)
+    private String unit;
+
+    /**
+     * Sum of the quantities in the bucket
+     */
+    @Column(name = "sum_quantity", nullable = false)
+    private Double sumQuantity;
+
+    /**
+     * Number of readings in the bucket
+     */
+    @Column(name = "sample_count", nullable = false)
+    private Long sampleCount;
+
+    @Column(name = "min_quantity", nullable = false)
+    private Double minQuantity;
+
+    @Column(name = "max_quantity", nullable = false)
+    private Double maxQuantity;
+}
@@ -0,0 +1,44 @@
+package com.greentrace.server.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * RevokedToken entity representing a logged-out JWT
+ * Rows mirror the in-memory revocation set of every instance and are deleted once the token expires
+ */
+@Entity
+@Table(
+    name = "revoked_tokens",
+    indexes = {
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at"),
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at")
+    }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedToken {
+
+    /**
+     * Token ID (jti claim)
+     */
+    @Id
+    @Column(name = "jti", length = 36)
+    private String tokenId;
+
+    /**
+     * Expiration time of the revoked token
+     */
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    /**
+     * Time the revocation was stored; other instances reload rows newer than the last one they saw
+     */
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+}
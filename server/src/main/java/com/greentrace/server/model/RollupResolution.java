@@ -0,0 +1,71 @@
+package com.greentrace.server.model;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Locale;
+
+/**
+ * Bucket sizes of the emission rollups, finest first
+ * Buckets are aligned in UTC
+ */
+public enum RollupResolution {
+    MINUTE(Duration.ofMinutes(1)),
+    HOUR(Duration.ofHours(1)),
+    DAY(Duration.ofDays(1)),
+    MONTH(Duration.ofDays(30));
+
+    private final Duration nominalLength;
+
+    RollupResolution(Duration nominalLength) {
+        this.nominalLength = nominalLength;
+    }
+
+    /**
+     * Get the bucket length (30 days for MONTH)
+     * @return Nominal bucket length
+     */
+    public Duration getNominalLength() {
+        return nominalLength;
+    }
+
+    /**
+     * Get the start of the bucket holding an instant
+     * @param instant Instant
+     * @return Bucket start
+     */
+    public Instant truncate(Instant instant) {
+        if (this == MONTH) {
+            ZonedDateTime utc = instant.atZone(ZoneOffset.UTC);
+            return utc.toLocalDate().withDayOfMonth(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+        long length = nominalLength.toMillis();
+        return Instant.ofEpochMilli(Math.floorDiv(instant.toEpochMilli(), length) * length);
+    }
+
+    /**
+     * Get the start of the following bucket
+     * @param bucketStart Bucket start
+     * @return Start of the next bucket
+     */
+    public Instant next(Instant bucketStart) {
+        return this == MONTH
+                ? bucketStart.atZone(ZoneOffset.UTC).plusMonths(1).toInstant()
+                : bucketStart.plus(nominalLength);
+    }
+
+    /**
+     * Parse a resolution name, case-insensitive
+     * @param value Name, e.g. hour
+     * @return Resolution
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static RollupResolution parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("resolution must be one of minute, hour, day, month");
+        }
+    }
+}
@@ -3,14 +3,23 @@ package com.greentrace.server.model;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 /**
  * User entity representing application users
  * Contains user information and authentication details
  */
 @Entity
-@Table(name = "users")
+@Table(
+    name = "users",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_users_email", columnNames = "email"),
+        @UniqueConstraint(name = "uk_users_email_normalized", columnNames = "email_normalized")
+    },
+    indexes = @Index(name = "idx_users_security_changed_at", columnList = "security_changed_at")
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,9 +28,11 @@ public class User {
     
     /**
      * Primary key - User ID
+     * Allocated from a pooled sequence (50 IDs per round trip) so inserts can be JDBC-batched
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -39,26 +50,22 @@ public class User {
     /**
      * User's email address (unique identifier)
      */
-    @Column(name = "email", nullable = false, unique = true, length = 100)
+    @Column(name = "email", nullable = false, length = 100)
     private String email;
 
     /**
-     * Encrypted password
+     * Canonical (trimmed, lower-case) email used for all lookups
+     * Maintained automatically from email on insert and update
      */
-    @Column(name = "password", nullable = false)
-    private String password;
+    @Column(name = "email_normalized", nullable = false, length = 100)
+    @Setter(AccessLevel.NONE)
+    private String normalizedEmail;
 
     /**
-     * Password reset token for forgot password functionality
-     */
-    @Column(name = "reset_token")
-    private String resetToken;
-
-    /**
-     * Reset token expiration time
+     * Encrypted password
      */
-    @Column(name = "reset_token_expiry")
-    private LocalDateTime resetTokenExpiry;
+    @Column(name = "password", nullable = false)
+    private String password;
 
     /**
      * Account creation timestamp
@@ -86,12 +93,53 @@ public class User {
     @Builder.Default
     private Boolean emailVerified = false;
 
+    /**
+     * Security epoch, incremented whenever existing tokens must be revoked
+     * (password reset, account deactivation)
+     */
+    @Column(name = "security_epoch", nullable = false)
+    @Builder.Default
+    private Integer securityEpoch = 0;
+
+    /**
+     * Time of the last security epoch change, polled by every instance to pick up
+     * deactivations and password resets made elsewhere
+     */
+    @Column(name = "security_changed_at")
+    private Instant securityChangedAt;
+
+    /**
+     * Optimistic-lock version, incremented on every entity update
+     * Also identifies the profile revision in ETags
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     /**
      * Automatically set creation timestamp
      */
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        normalizedEmail = normalizeEmail(email);
+    }
+
+    /**
+     * Keep the normalized email in sync with email
+     */
+    @PreUpdate
+    protected void onUpdate() {
+        normalizedEmail = normalizeEmail(email);
+    }
+
+    /**
+     * Normalize an email address for storage and lookup
+     * @param email Raw email address
+     * @return Trimmed, lower-case email, or null if email is null
+     */
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
     }
 
     /**
@@ -103,12 +151,10 @@ public class User {
     }
 
     /**
-     * Check if reset token is valid (not expired)
-     * @return True if valid, false otherwise
+     * Invalidate all tokens issued so far by moving to the next security epoch
      */
-    public boolean isResetTokenValid() {
-        return resetToken != null && 
-               resetTokenExpiry != null && 
-               resetTokenExpiry.isAfter(LocalDateTime.now());
+    public void bumpSecurityEpoch() {
+        securityEpoch = securityEpoch + 1;
+        securityChangedAt = Instant.now();
     }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.greentrace.server.repository;
+
+import com.greentrace.server.model.PasswordResetToken;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * PasswordResetTokenRepository interface for database operations on reset tokens
+ */
+@Repository
+public interface PasswordResetTokenRepository extends JpaRepository<PasswordResetToken, Long> {
+
+    /**
+     * Find a reset token by its digest
+     * Uses the unique index on token_hash
+     * @param tokenHash Hex-encoded SHA-256 digest of the token
+     * @return Optional PasswordResetToken entity
+     */
+    Optional<PasswordResetToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Consume a reset token that has not expired
+     * The row lock taken by the delete makes concurrent requests with the same token wait, after
+     * which they delete nothing, so a token can be used only once
+     * @param tokenHash Hex-encoded SHA-256 digest of the token
+     * @param now Current time
+     * @return 1 if the token was consumed, 0 if it did not exist, had expired or was already used
+     */
+    @Modifying
+    @Query("DELETE FROM PasswordResetToken t WHERE t.tokenHash = :tokenHash AND t.expiresAt > :now")
+    int deleteUnexpiredByTokenHash(@Param("tokenHash") String tokenHash, @Param("now") LocalDateTime now);
+
+    /**
+     * Delete all reset tokens of a user
+     * @param userId User ID
+     * @return Number of deleted tokens
+     */
+    @Modifying
+    @Query("DELETE FROM PasswordResetToken t WHERE t.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * Find IDs of expired tokens, oldest first
+     * Uses the index on expires_at; callers page through with a bounded page size
+     * @param now Current time
+     * @param page Page to return (only the size is used by the sweeper)
+     * @return IDs of expired tokens
+     */
+    @Query("SELECT t.id FROM PasswordResetToken t WHERE t.expiresAt <= :now ORDER BY t.expiresAt")
+    List<Long> findExpiredIds(@Param("now") LocalDateTime now, Pageable page);
+}
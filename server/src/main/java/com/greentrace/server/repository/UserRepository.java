@@ -1,11 +1,14 @@
 package com.greentrace.server.repository;
 
 import com.greentrace.server.model.User;
+import com.greentrace.server.security.UserSecurityStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -16,33 +19,28 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
 
     /**
-     * Find user by email address
-     * @param email User email
+     * Find user by normalized email address
+     * Uses the unique index on email_normalized
+     * @param normalizedEmail Email normalized with User.normalizeEmail
      * @return Optional User entity
      */
-    Optional<User> findByEmail(String email);
+    Optional<User> findByNormalizedEmail(String normalizedEmail);
 
     /**
-     * Check if user exists by email
-     * @param email User email
+     * Check if user exists by normalized email address
+     * @param normalizedEmail Email normalized with User.normalizeEmail
      * @return True if exists, false otherwise
      */
-    boolean existsByEmail(String email);
+    boolean existsByNormalizedEmail(String normalizedEmail);
 
     /**
-     * Find user by reset token
-     * @param token Password reset token
-     * @return Optional User entity
-     */
-    Optional<User> findByResetToken(String token);
-
-    /**
-     * Find user by email (case insensitive)
-     * @param email User email
-     * @return Optional User entity
+     * Find security status of users that were deactivated or had their tokens revoked recently
+     * @param since Exclusive lower bound of the change time
+     * @return Statuses changed after since (an index range scan on security_changed_at)
      */
-    @Query("SELECT u FROM User u WHERE LOWER(u.email) = LOWER(:email)")
-    Optional<User> findByEmailIgnoreCase(@Param("email") String email);
+    @Query("SELECT new com.greentrace.server.security.UserSecurityStatus(u.id, u.isActive, u.securityEpoch, u.securityChangedAt) " +
+           "FROM User u WHERE u.securityChangedAt > :since")
+    List<UserSecurityStatus> findSecurityStatusesChangedSince(@Param("since") Instant since);
 
     /**
      * Count total registered users
@@ -52,8 +50,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
     long countTotalUsers();
 
     /**
-     * Delete user by email
-     * @param email User email
+     * Delete user by normalized email address
+     * @param normalizedEmail Email normalized with User.normalizeEmail
      */
-    void deleteByEmail(String email);
+    void deleteByNormalizedEmail(String normalizedEmail);
 }
@@ -0,0 +1,90 @@
+package com.greentrace.server.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Picks the BCrypt cost for the current hardware
+ * Measures hashes at the minimum cost, extrapolates (each cost step doubles the work),
+ * then confirms the chosen cost with a real measurement
+ * Every measurement is the median of several samples so a single GC pause or scheduling hiccup
+ * does not skew the result; results are kept for the life of the JVM, so contexts started again
+ * in the same process (tests, restarts) do not calibrate again
+ */
+public final class BCryptCostCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "Calibrati0n!Sample";
+    private static final int BASE_SAMPLES = 5;
+    private static final int CONFIRM_SAMPLES = 3;
+
+    private static final Map<Target, Integer> CALIBRATED = new ConcurrentHashMap<>();
+
+    private BCryptCostCalibrator() {
+    }
+
+    /**
+     * Find the highest cost whose hash time stays within the target latency
+     * @param targetMillis Target time for a single hash in milliseconds
+     * @param minStrength Lowest acceptable cost (returned even if it exceeds the target)
+     * @param maxStrength Highest allowed cost
+     * @return Calibrated BCrypt cost
+     */
+    public static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        return CALIBRATED.computeIfAbsent(new Target(targetMillis, minStrength, maxStrength),
+                target -> measureCost(targetMillis, minStrength, maxStrength));
+    }
+
+    private static int measureCost(long targetMillis, int minStrength, int maxStrength) {
+        long targetNanos = targetMillis * 1_000_000L;
+
+        // Warm up the BCrypt code path so the first measurement is not dominated by JIT compilation
+        measure(4, 2);
+
+        long baseNanos = Math.max(1, measure(minStrength, BASE_SAMPLES));
+        int strength = minStrength;
+        while (strength < maxStrength && baseNanos << (strength + 1 - minStrength) <= targetNanos) {
+            strength++;
+        }
+
+        // Extrapolation can overshoot on noisy machines; step down once if the real hash is clearly too slow
+        if (strength > minStrength && measure(strength, CONFIRM_SAMPLES) > targetNanos * 3 / 2) {
+            strength--;
+        }
+        return strength;
+    }
+
+    /**
+     * Time hashes at the given cost
+     * @param strength BCrypt cost
+     * @param samples Number of hashes to time
+     * @return Median elapsed time of one hash in nanoseconds
+     */
+    private static long measure(int strength, int samples) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long[] elapsed = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            elapsed[i] = System.nanoTime() - start;
+        }
+        return median(elapsed);
+    }
+
+    /**
+     * Get the median of a set of measurements
+     * @param values Measurements (not modified)
+     * @return Middle value, or the mean of the two middle values for an even count
+     */
+    static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+
+    private record Target(long targetMillis, int minStrength, int maxStrength) {
+    }
+}
@@ -0,0 +1,179 @@
+package com.greentrace.server.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Memory-mapped Bloom filter of compromised password hashes
+ * Answers "has this password appeared in a breach?" locally, without network access
+ * A positive answer may be a false positive (at the rate the file was built for); a negative answer is exact
+ *
+ * File layout (big-endian): magic "GTBF", version (int), hash count (int), bit count (long), bit array
+ * Keys are SHA-1 digests of the UTF-8 password, so the file can be built from public SHA-1 breach lists:
+ *   java -cp server.jar com.greentrace.server.security.BreachedPasswordBloomFilter hashes.txt breached.bloom 0.001
+ */
+@Component
+public class BreachedPasswordBloomFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(BreachedPasswordBloomFilter.class);
+
+    private static final int MAGIC = 0x47544246; // "GTBF"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 20;
+
+    private final MappedByteBuffer bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    public BreachedPasswordBloomFilter(@Value("${app.security.breached-passwords.file:}") String file) throws IOException {
+        if (file == null || file.isBlank()) {
+            log.info("Breached password filter disabled (no file configured)");
+            this.bits = null;
+            this.bitCount = 0;
+            this.hashCount = 0;
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(Path.of(file), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            channel.read(header, 0);
+            header.flip();
+
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IllegalStateException("Not a breached password filter file: " + file);
+            }
+            this.hashCount = header.getInt();
+            this.bitCount = header.getLong();
+
+            // The mapping stays valid after the channel is closed
+            this.bits = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, byteLength(bitCount));
+        }
+        log.info("Loaded breached password filter: {} bits, {} hash functions", bitCount, hashCount);
+    }
+
+    /**
+     * Check if the filter is loaded
+     * @return True if a filter file is in use
+     */
+    public boolean isEnabled() {
+        return bits != null;
+    }
+
+    /**
+     * Check a password against the filter
+     * @param password Candidate password
+     * @return True if the password is (probably) compromised, false if it is definitely not in the list
+     */
+    public boolean mightContain(String password) {
+        if (bits == null) {
+            return false;
+        }
+
+        ByteBuffer digest = ByteBuffer.wrap(sha1().digest(password.getBytes(StandardCharsets.UTF_8)));
+        long h1 = digest.getLong(0);
+        long h2 = digest.getLong(8);
+
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 3)) & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Build a filter file from a list of SHA-1 password hashes
+     * Each input line starts with 40 hex characters; anything after them (e.g. ":count") is ignored
+     * @param hashList Input file with one SHA-1 hash per line
+     * @param output Filter file to create
+     * @param falsePositiveRate Target false positive rate (e.g. 0.001)
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void build(Path hashList, Path output, double falsePositiveRate) throws IOException {
+        long expected;
+        try (var lines = Files.lines(hashList, StandardCharsets.US_ASCII)) {
+            expected = Math.max(1, lines.filter(line -> line.length() >= 40).count());
+        }
+
+        long bitCount = Math.max(64, (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        int hashCount = Math.max(1, (int) Math.round((double) bitCount / expected * Math.log(2)));
+        if (byteLength(bitCount) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Filter would exceed 2 GB; use a higher false positive rate");
+        }
+
+        try (FileChannel channel = FileChannel.open(output,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+             BufferedReader reader = Files.newBufferedReader(hashList, StandardCharsets.US_ASCII)) {
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(hashCount)
+                    .putLong(bitCount)
+                    .flip();
+            channel.write(header, 0);
+
+            MappedByteBuffer bits = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES, byteLength(bitCount));
+            HexFormat hex = HexFormat.of();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() < 40) {
+                    continue;
+                }
+
+                ByteBuffer digest = ByteBuffer.wrap(hex.parseHex(line, 0, 40));
+                long h1 = digest.getLong(0);
+                long h2 = digest.getLong(8);
+                for (int i = 0; i < hashCount; i++) {
+                    long bit = Math.floorMod(h1 + i * h2, bitCount);
+                    int index = (int) (bit >>> 3);
+                    bits.put(index, (byte) (bits.get(index) | (1 << (bit & 7))));
+                }
+            }
+            bits.force();
+        }
+    }
+
+    /**
+     * Command-line entry point for building a filter file
+     * @param args hash-list output [false-positive-rate]
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BreachedPasswordBloomFilter <sha1-hash-list> <output-file> [false-positive-rate]");
+            System.exit(1);
+        }
+        double rate = args.length > 2 ? Double.parseDouble(args[2]) : 0.001;
+        build(Path.of(args[0]), Path.of(args[1]), rate);
+    }
+
+    private static long byteLength(long bitCount) {
+        return (bitCount + 7) >>> 3;
+    }
+
+    private static MessageDigest sha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.greentrace.server.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder that asks for a rehash whenever the stored cost is below its own
+ * Hashes with a higher cost are kept: calibration may pick a lower cost on slower or busier
+ * hardware, and moving hashes down would weaken them for good
+ */
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private final int strength;
+
+    public CalibratedBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    /**
+     * Get the BCrypt cost used for new hashes
+     * @return Log2 rounds
+     */
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * Check if an encoded password was produced with a lower cost
+     * @param encodedPassword Stored BCrypt hash (without algorithm prefix)
+     * @return True if the hash should be re-encoded
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        if (!matcher.find()) {
+            return false;
+        }
+        return Integer.parseInt(matcher.group(1)) < strength;
+    }
+}
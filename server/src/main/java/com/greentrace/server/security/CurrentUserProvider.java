@@ -0,0 +1,44 @@
+package com.greentrace.server.security;
+
+import com.greentrace.server.model.User;
+import com.greentrace.server.repository.UserRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Current User Provider
+ * Loads the authenticated user at most once per request and keeps it on the request for reuse
+ * The JWT filter only sets the "userId" attribute from the token; the database is hit the first
+ * time a controller actually needs the user entity
+ */
+@Component
+public class CurrentUserProvider {
+
+    private static final String CURRENT_USER_ATTRIBUTE = CurrentUserProvider.class.getName() + ".user";
+
+    private final UserRepository userRepository;
+
+    public CurrentUserProvider(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Get the authenticated user for a request
+     * @param request HTTP request processed by the JWT filter
+     * @return User, or empty if the request is unauthenticated or the user no longer exists
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<User> get(HttpServletRequest request) {
+        Object cached = request.getAttribute(CURRENT_USER_ATTRIBUTE);
+        if (cached != null) {
+            return (Optional<User>) cached;
+        }
+
+        Long userId = (Long) request.getAttribute("userId");
+        Optional<User> user = userId != null ? userRepository.findById(userId) : Optional.empty();
+        request.setAttribute(CURRENT_USER_ATTRIBUTE, user);
+        return user;
+    }
+}
@@ -1,35 +1,72 @@
 package com.greentrace.server.security;
 
-import com.greentrace.server.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT Authentication Filter
  * Intercepts requests and validates JWT tokens
+ * Authentication relies on the signed claims and the in-memory user status table, without database access
+ * Users listed in app.security.admin-user-ids are granted ROLE_ADMIN
+ * Records greentrace.auth.filter by outcome and endpoint and greentrace.jwt.verify for signature checks
+ * The endpoint tag is one of a fixed set of API areas, never the raw path, so clients cannot grow its cardinality
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final VerifiedTokenCache tokenCache;
+    private final UserStatusRegistry userStatusRegistry;
+    private final TokenRevocationStore revocationStore;
+    private final Set<Long> adminUserIds;
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserRepository userRepository) {
+    private static final List<GrantedAuthority> ADMIN_AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+    // Timers are registered once so recording costs no registry lookup per request
+    private final Map<Endpoint, FilterTimers> filterTimers = new EnumMap<>(Endpoint.class);
+    private final Timer verifyValidTimer;
+    private final Timer verifyInvalidTimer;
+
+    public JwtAuthenticationFilter(
+            JwtService jwtService,
+            VerifiedTokenCache tokenCache,
+            UserStatusRegistry userStatusRegistry,
+            TokenRevocationStore revocationStore,
+            @Value("${app.security.admin-user-ids:}") Set<Long> adminUserIds,
+            MeterRegistry meterRegistry
+    ) {
         this.jwtService = jwtService;
-        this.userRepository = userRepository;
+        this.tokenCache = tokenCache;
+        this.userStatusRegistry = userStatusRegistry;
+        this.revocationStore = revocationStore;
+        this.adminUserIds = Set.copyOf(adminUserIds);
+
+        for (Endpoint endpoint : Endpoint.values()) {
+            filterTimers.put(endpoint, FilterTimers.register(meterRegistry, endpoint));
+        }
+        this.verifyValidTimer = verifyTimer(meterRegistry, "valid");
+        this.verifyInvalidTimer = verifyTimer(meterRegistry, "invalid");
     }
 
     /**
@@ -57,7 +94,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Extract Authorization header
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
 
         // Check if Authorization header exists and starts with "Bearer "
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -68,60 +104,141 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Extract JWT token from header
         jwt = jwtService.extractTokenFromHeader(authHeader);
         
-        try {
-            // Extract email from JWT token
-            userEmail = jwtService.extractEmail(jwt);
-
-            // If email exists and user is not already authenticated
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                
-                // Find user in database
-                var userOptional = userRepository.findByEmail(userEmail);
-                
-                if (userOptional.isPresent()) {
-                    var user = userOptional.get();
-                    
-                    // Validate JWT token
-                    if (jwtService.isTokenValid(jwt, userEmail)) {
-                        
-                        // Create authentication token
-                        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                                userEmail,
-                                null,
-                                new ArrayList<>() // Empty authorities for now
-                        );
-                        
-                        // Set authentication details
-                        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                        
-                        // Set authentication in security context
-                        SecurityContextHolder.getContext().setAuthentication(authToken);
-                        
-                        // Add user information to request attributes
-                        request.setAttribute("userId", user.getId());
-                        request.setAttribute("userEmail", user.getEmail());
+        // Only verify if user is not already authenticated
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            long startedAt = System.nanoTime();
+            FilterTimers timers = filterTimers.get(Endpoint.of(requestPath));
+            Timer outcome = timers.invalid();
+            try {
+                // Repeat requests with the same token are answered from the cache
+                JwtPrincipal principal = tokenCache.get(jwt);
+
+                if (principal == null) {
+                    // Verify signature and expiration once and read all claims from the result
+                    long verifyStartedAt = System.nanoTime();
+                    try {
+                        principal = jwtService.verifyToken(jwt);
+                    } finally {
+                        (principal != null ? verifyValidTimer : verifyInvalidTimer)
+                                .record(System.nanoTime() - verifyStartedAt, TimeUnit.NANOSECONDS);
                     }
+                    tokenCache.put(jwt, principal);
                 }
+
+                // Reject logged-out tokens, tokens of deactivated users and tokens issued before a password reset
+                if (revocationStore.isRevoked(principal.tokenId())) {
+                    outcome = timers.revoked();
+                } else if (!userStatusRegistry.isTokenCurrent(principal)) {
+                    outcome = timers.stale();
+                } else {
+                    // Create authentication token
+                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                            principal.email(),
+                            null,
+                            adminUserIds.contains(principal.userId()) ? ADMIN_AUTHORITIES : List.of()
+                    );
+                    
+                    // Set authentication details
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    
+                    // Set authentication in security context
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                    
+                    // Add user information to request attributes
+                    request.setAttribute("userId", principal.userId());
+                    request.setAttribute("userEmail", principal.email());
+                    outcome = timers.authenticated();
+                }
+            } catch (Exception e) {
+                // Log the error and continue without authentication
+                logger.error("JWT authentication failed: " + e.getMessage());
+            } finally {
+                outcome.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
             }
-        } catch (Exception e) {
-            // Log the error and continue without authentication
-            logger.error("JWT authentication failed: " + e.getMessage());
         }
 
         // Continue with the filter chain
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Also authenticate async dispatches (completion or timeout of an SSE stream): the security
+     * context of the original request is not kept, and the authorization rules apply to them too
+     * @return False, so async dispatches run through this filter again
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("greentrace.jwt.verify")
+                .description("JWT signature and claims verification on token cache misses")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
     /**
      * Check if the endpoint is public (doesn't require authentication)
      * @param path Request path
      * @return True if public endpoint, false otherwise
      */
     private boolean isPublicEndpoint(String path) {
-        return path.startsWith("/api/auth/") ||
+        // Token verification is public but still needs the caller's token resolved
+        return (path.startsWith("/api/auth/") && !path.equals("/api/auth/verify")) ||
                path.startsWith("/h2-console/") ||
                path.startsWith("/api/public/") ||
                path.equals("/error") ||
                path.equals("/favicon.ico");
     }
-}
\ No newline at end of file
+
+    /**
+     * API area a request belongs to, used as the endpoint tag
+     */
+    enum Endpoint {
+        AUTH("/api/auth/"),
+        DASHBOARD("/api/dashboard/"),
+        EMISSIONS("/api/protected/emissions"),
+        PROVISIONING("/api/protected/provisioning/"),
+        ACTUATOR("/actuator/"),
+        OTHER(null);
+
+        private final String pathPrefix;
+
+        Endpoint(String pathPrefix) {
+            this.pathPrefix = pathPrefix;
+        }
+
+        static Endpoint of(String path) {
+            for (Endpoint endpoint : values()) {
+                if (endpoint.pathPrefix != null && path.startsWith(endpoint.pathPrefix)) {
+                    return endpoint;
+                }
+            }
+            return OTHER;
+        }
+
+        String tagValue() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private record FilterTimers(Timer authenticated, Timer invalid, Timer revoked, Timer stale) {
+
+        static FilterTimers register(MeterRegistry meterRegistry, Endpoint endpoint) {
+            return new FilterTimers(
+                    timer(meterRegistry, endpoint, "authenticated"),
+                    timer(meterRegistry, endpoint, "invalid"),
+                    timer(meterRegistry, endpoint, "revoked"),
+                    timer(meterRegistry, endpoint, "stale"));
+        }
+
+        private static Timer timer(MeterRegistry meterRegistry, Endpoint endpoint, String outcome) {
+            return Timer.builder("greentrace.auth.filter")
+                    .description("Time spent authenticating bearer tokens in the JWT filter")
+                    .tag("outcome", outcome)
+                    .tag("endpoint", endpoint.tagValue())
+                    .register(meterRegistry);
+        }
+    }
+}
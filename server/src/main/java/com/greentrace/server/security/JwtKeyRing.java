@@ -0,0 +1,361 @@
+package com.greentrace.server.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Asymmetric JWT signing keys with rotation
+ * The newest key signs new tokens; retired keys stay available for verification (and in the JWKS)
+ * until every token they signed has expired
+ *
+ * Key IDs are RFC 7638 thumbprints of the public key, so a key keeps its ID across restarts
+ * With a key directory configured, keys are stored there as "kid.ALG.pem" (PKCS#8 + X.509) and
+ * every rotation check re-reads the directory, so instances sharing it converge on the same keys;
+ * a token signed with a key another instance just generated triggers an early (rate-limited) re-read
+ * Without one, keys are generated in memory and tokens do not survive a restart, which is only
+ * allowed when require-key-directory is off (it is on in the prod profile)
+ */
+@Component
+public class JwtKeyRing {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    private static final String KEY_FILE_SUFFIX = ".pem";
+
+    private final SignatureAlgorithm algorithm;
+    private final Path keyDirectory;
+    private final long rotationIntervalMillis;
+    private final long retentionMillis;
+    private final long reloadIntervalMillis;
+
+    private volatile State state;
+    private volatile long lastLoadMillis;
+
+    public JwtKeyRing(
+            @Value("${app.security.jwt.algorithm:ES256}") String algorithm,
+            @Value("${app.security.jwt.key-directory:}") String keyDirectory,
+            @Value("${app.security.jwt.require-key-directory:false}") boolean requireKeyDirectory,
+            @Value("${app.security.jwt.rotation-interval:604800000}") long rotationIntervalMillis,
+            @Value("${app.security.jwt.rotation-check-interval:3600000}") long rotationCheckIntervalMillis,
+            @Value("${app.security.jwt.unknown-key-reload-interval:10000}") long reloadIntervalMillis,
+            @Value("${spring.security.jwt.expiration}") long tokenLifetimeMillis
+    ) {
+        this.algorithm = signatureAlgorithm(algorithm);
+        this.keyDirectory = keyDirectory == null || keyDirectory.isBlank() ? null : Path.of(keyDirectory);
+        if (this.keyDirectory == null && requireKeyDirectory) {
+            throw new IllegalStateException("app.security.jwt.key-directory must be set: without it signing keys"
+                    + " are kept in memory and tokens are rejected after a restart and by other instances");
+        }
+        this.rotationIntervalMillis = rotationIntervalMillis;
+        this.reloadIntervalMillis = reloadIntervalMillis;
+        // A retired key may have signed a token just before the check that retired it
+        this.retentionMillis = tokenLifetimeMillis + rotationCheckIntervalMillis;
+
+        this.state = new State(List.of());
+        rotate();
+    }
+
+    /**
+     * Get the key that signs new tokens
+     * @return Current signing key
+     */
+    public SigningKey current() {
+        return state.current();
+    }
+
+    /**
+     * Find a verification key by ID
+     * An unknown ID re-reads the key directory (at most once per unknown-key-reload-interval), so
+     * tokens signed with a key another instance has just generated are accepted right away
+     * @param keyId Key ID from the token header
+     * @return Public key, or null if the ID is unknown or the key has been pruned
+     */
+    public PublicKey publicKey(String keyId) {
+        SigningKey key = state.byId().get(keyId);
+        if (key == null && keyDirectory != null
+                && System.currentTimeMillis() - lastLoadMillis >= reloadIntervalMillis) {
+            reload();
+            key = state.byId().get(keyId);
+        }
+        return key != null ? key.keyPair().getPublic() : null;
+    }
+
+    /**
+     * Get the public keys as a JSON Web Key Set
+     * @return JWKS document ({"keys": [...]}), rebuilt only when the key set changes
+     */
+    public Map<String, Object> jwks() {
+        return state.jwks();
+    }
+
+    /**
+     * Pick up keys written by other instances, sign with a new key once the current one is due
+     * for rotation, and drop keys whose tokens have all expired
+     */
+    @Scheduled(
+            fixedDelayString = "${app.security.jwt.rotation-check-interval:3600000}",
+            initialDelayString = "${app.security.jwt.rotation-check-interval:3600000}"
+    )
+    public synchronized void rotate() {
+        long now = System.currentTimeMillis();
+
+        List<SigningKey> keys = new ArrayList<>(state.keys());
+        if (keyDirectory != null) {
+            keys = loadKeys();
+            lastLoadMillis = now;
+        }
+        keys.sort(Comparator.comparing(SigningKey::createdAt));
+
+        SigningKey newest = newestFor(keys, algorithm);
+        if (newest == null || newest.createdAt().toEpochMilli() + rotationIntervalMillis <= now) {
+            newest = generate(Instant.ofEpochMilli(now));
+            keys.add(newest);
+            log.info("Generated JWT signing key {} ({})", newest.keyId(), newest.algorithm().getId());
+        }
+
+        // A key is retired when its successor was created; keep it until its tokens have expired
+        List<SigningKey> retained = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            SigningKey key = keys.get(i);
+            Instant retiredAt = i + 1 < keys.size() ? keys.get(i + 1).createdAt() : null;
+            if (key == newest || retiredAt == null || retiredAt.toEpochMilli() + retentionMillis > now) {
+                retained.add(key);
+            } else {
+                delete(key);
+                log.info("Removed expired JWT signing key {}", key.keyId());
+            }
+        }
+
+        state = new State(retained, newest);
+    }
+
+    /**
+     * Add keys found in the key directory for verification, keeping the current signing key
+     * Rotation and pruning are left to rotate()
+     */
+    private synchronized void reload() {
+        long now = System.currentTimeMillis();
+        if (now - lastLoadMillis < reloadIntervalMillis) {
+            // Another thread reloaded while this one waited for the lock
+            return;
+        }
+        lastLoadMillis = now;
+
+        Map<String, SigningKey> byId = new LinkedHashMap<>(state.byId());
+        int known = byId.size();
+        loadKeys().forEach(key -> byId.putIfAbsent(key.keyId(), key));
+        if (byId.size() > known) {
+            List<SigningKey> keys = new ArrayList<>(byId.values());
+            keys.sort(Comparator.comparing(SigningKey::createdAt));
+            state = new State(keys, state.current());
+            log.info("Loaded {} JWT signing key(s) written by another instance", byId.size() - known);
+        }
+    }
+
+    /**
+     * Generate and (if a key directory is configured) store a new signing key
+     * @param createdAt Creation time
+     * @return New signing key
+     */
+    private SigningKey generate(Instant createdAt) {
+        KeyPair keyPair = algorithm.keyPair().build();
+        SigningKey key = new SigningKey(thumbprint(keyPair.getPublic()), algorithm, keyPair, createdAt);
+
+        if (keyDirectory != null) {
+            try {
+                Files.createDirectories(keyDirectory);
+                Path file = keyDirectory.resolve(key.keyId() + "." + algorithm.getId() + KEY_FILE_SUFFIX);
+                Path temp = Files.createTempFile(keyDirectory, key.keyId(), ".tmp");
+                restrictToOwner(temp);
+                Files.writeString(temp, pem("PRIVATE KEY", keyPair.getPrivate().getEncoded())
+                        + pem("PUBLIC KEY", keyPair.getPublic().getEncoded()), StandardCharsets.US_ASCII);
+                Files.move(temp, file);
+                Files.setLastModifiedTime(file, FileTime.from(createdAt));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to store JWT signing key in " + keyDirectory, e);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Read all keys from the key directory
+     * Unreadable files are skipped so one bad file cannot take down token verification
+     * @return Keys found in the directory
+     */
+    private List<SigningKey> loadKeys() {
+        List<SigningKey> keys = new ArrayList<>();
+        if (!Files.isDirectory(keyDirectory)) {
+            return keys;
+        }
+
+        try (Stream<Path> files = Files.list(keyDirectory)) {
+            for (Path file : files.filter(path -> path.toString().endsWith(KEY_FILE_SUFFIX)).toList()) {
+                try {
+                    keys.add(readKey(file));
+                } catch (IOException | GeneralSecurityException | IllegalArgumentException e) {
+                    log.warn("Skipping unreadable JWT signing key {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list JWT signing keys in " + keyDirectory, e);
+        }
+        return keys;
+    }
+
+    private SigningKey readKey(Path file) throws IOException, GeneralSecurityException {
+        String name = file.getFileName().toString();
+        String[] parts = name.substring(0, name.length() - KEY_FILE_SUFFIX.length()).split("\\.");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Expected <kid>.<alg>.pem");
+        }
+        SignatureAlgorithm keyAlgorithm = signatureAlgorithm(parts[1]);
+
+        String content = Files.readString(file, StandardCharsets.US_ASCII);
+        KeyFactory keyFactory = KeyFactory.getInstance(keyFactoryAlgorithm(keyAlgorithm));
+        PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(pemBody(content, "PRIVATE KEY")));
+        PublicKey publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(pemBody(content, "PUBLIC KEY")));
+
+        if (!thumbprint(publicKey).equals(parts[0])) {
+            throw new IllegalArgumentException("Key ID does not match the public key");
+        }
+        return new SigningKey(parts[0], keyAlgorithm, new KeyPair(publicKey, privateKey),
+                Files.getLastModifiedTime(file).toInstant());
+    }
+
+    private void delete(SigningKey key) {
+        if (keyDirectory == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(keyDirectory.resolve(key.keyId() + "." + key.algorithm().getId() + KEY_FILE_SUFFIX));
+        } catch (IOException e) {
+            log.warn("Failed to delete JWT signing key {}: {}", key.keyId(), e.getMessage());
+        }
+    }
+
+    private static SigningKey newestFor(List<SigningKey> keys, SignatureAlgorithm algorithm) {
+        SigningKey newest = null;
+        for (SigningKey key : keys) {
+            if (key.algorithm().equals(algorithm)) {
+                newest = key;
+            }
+        }
+        return newest;
+    }
+
+    private static SignatureAlgorithm signatureAlgorithm(String id) {
+        return switch (id) {
+            case "ES256" -> Jwts.SIG.ES256;
+            case "EdDSA" -> Jwts.SIG.EdDSA;
+            default -> throw new IllegalArgumentException("Unsupported JWT signing algorithm: " + id + " (use ES256 or EdDSA)");
+        };
+    }
+
+    private static String keyFactoryAlgorithm(SignatureAlgorithm algorithm) {
+        return algorithm.equals(Jwts.SIG.EdDSA) ? "EdDSA" : "EC";
+    }
+
+    private static String thumbprint(PublicKey publicKey) {
+        return Jwks.builder().key(publicKey).build().thumbprint().toString();
+    }
+
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder(64, new byte[]{'\n'}).encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+    }
+
+    private static byte[] pemBody(String content, String type) {
+        String begin = "-----BEGIN " + type + "-----";
+        int start = content.indexOf(begin);
+        int end = content.indexOf("-----END " + type + "-----");
+        if (start < 0 || end < start) {
+            throw new IllegalArgumentException("Missing " + type + " block");
+        }
+        return Base64.getMimeDecoder().decode(content.substring(start + begin.length(), end));
+    }
+
+    private static void restrictToOwner(Path file) throws IOException {
+        try {
+            Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) {
+            // Non-POSIX file system; rely on the directory's permissions
+        }
+    }
+
+    /**
+     * Signing key with its ID and creation time
+     *
+     * @param keyId Key ID ("kid" header), the public key's JWK thumbprint
+     * @param algorithm Signature algorithm
+     * @param keyPair Key pair
+     * @param createdAt Creation time, used for rotation and retirement
+     */
+    public record SigningKey(String keyId, SignatureAlgorithm algorithm, KeyPair keyPair, Instant createdAt) {
+    }
+
+    /**
+     * Immutable key set published to readers with a single volatile write
+     */
+    private record State(List<SigningKey> keys, SigningKey current, Map<String, SigningKey> byId, Map<String, Object> jwks) {
+
+        State(List<SigningKey> keys) {
+            this(List.copyOf(keys), null, Map.of(), Map.of("keys", List.of()));
+        }
+
+        State(List<SigningKey> keys, SigningKey current) {
+            this(List.copyOf(keys), current, index(keys), jwks(keys));
+        }
+
+        private static Map<String, SigningKey> index(List<SigningKey> keys) {
+            Map<String, SigningKey> byId = new LinkedHashMap<>();
+            keys.forEach(key -> byId.put(key.keyId(), key));
+            return Map.copyOf(byId);
+        }
+
+        private static Map<String, Object> jwks(List<SigningKey> keys) {
+            List<Map<String, Object>> jwks = new ArrayList<>();
+            for (SigningKey key : keys.reversed()) {
+                PublicJwk<?> jwk = Jwks.builder()
+                        .key(key.keyPair().getPublic())
+                        .id(key.keyId())
+                        .algorithm(key.algorithm().getId())
+                        .publicKeyUse("sig")
+                        .build();
+                jwks.add(new LinkedHashMap<>(jwk));
+            }
+            return Map.of("keys", List.copyOf(jwks));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.greentrace.server.security;
+
+import java.time.Instant;
+
+/**
+ * Immutable principal produced by a successful JWT verification
+ * Holds the claims the application relies on after the signature has been checked once
+ *
+ * @param tokenId Token ID from the "jti" claim (null for tokens issued before IDs were added)
+ * @param subject Token subject (user email)
+ * @param userId User ID from the "userId" claim
+ * @param securityEpoch User security epoch from the "epoch" claim (0 if absent)
+ * @param issuedAt Token issue time
+ * @param expiresAt Token expiration time
+ */
+public record JwtPrincipal(String tokenId, String subject, Long userId, int securityEpoch, Instant issuedAt, Instant expiresAt) {
+
+    /**
+     * Get the user email carried as the token subject
+     * @return User email
+     */
+    public String email() {
+        return subject;
+    }
+
+    /**
+     * Check if the token has expired at the given instant
+     * @param now Instant to compare against
+     * @return True if expired, false otherwise
+     */
+    public boolean isExpiredAt(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -7,33 +7,67 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.security.Key;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 /**
  * JWT Service for token generation, validation, and extraction
  * Handles all JWT operations with proper security measures
+ * Tokens are signed with the key ring's current asymmetric key and carry its ID in the "kid" header,
+ * so other services can verify them against the public JWKS without sharing a secret
+ * Tokens without a key ID were signed with the legacy HMAC secret; they are accepted only if issued before
+ * the configured cutover, so the shared secret stops being trusted once those tokens have expired
  */
 @Service
 public class JwtService {
 
-    @Value("${spring.security.jwt.secret}")
-    private String secretKey;
-
-    @Value("${spring.security.jwt.expiration}")
-    private long jwtExpiration;
+    private final long jwtExpiration;
+    private final JwtKeyRing keyRing;
+    private final Instant legacyHmacCutover;
+    private final JwtParser jwtParser;
+
+    public JwtService(
+            @Value("${spring.security.jwt.secret}") String secretKey,
+            @Value("${spring.security.jwt.expiration}") long jwtExpiration,
+            @Value("${app.security.jwt.legacy-hmac-cutover:}") String legacyHmacCutover,
+            JwtKeyRing keyRing
+    ) {
+        this.jwtExpiration = jwtExpiration;
+        this.keyRing = keyRing;
+        this.legacyHmacCutover = legacyHmacCutover.isBlank() ? null : Instant.parse(legacyHmacCutover.trim());
+        SecretKey legacyKey = this.legacyHmacCutover != null ? Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey)) : null;
+
+        // JwtParser is immutable and thread-safe, so one instance serves every request
+        this.jwtParser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        Key key = header.getKeyId() != null ? keyRing.publicKey(header.getKeyId()) : legacyKey;
+                        if (key == null) {
+                            throw new MalformedJwtException("Unknown signing key");
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
 
     /**
      * Generate JWT token for user
      * @param email User email
      * @param userId User ID
+     * @param securityEpoch User's current security epoch
      * @return JWT token string
      */
-    public String generateToken(String email, Long userId) {
+    public String generateToken(String email, Long userId, int securityEpoch) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
+        claims.put("epoch", securityEpoch);
         return createToken(claims, email);
     }
 
@@ -44,15 +78,45 @@ public class JwtService {
      * @return JWT token string
      */
     private String createToken(Map<String, Object> claims, String subject) {
+        long now = System.currentTimeMillis();
+        JwtKeyRing.SigningKey signingKey = keyRing.current();
         return Jwts.builder()
+                .header().keyId(signingKey.keyId()).and()
                 .claims(claims)
+                .id(UUID.randomUUID().toString())
                 .subject(subject)
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + jwtExpiration))
+                .signWith(signingKey.keyPair().getPrivate(), signingKey.algorithm())
                 .compact();
     }
 
+    /**
+     * Verify JWT token and extract its principal
+     * Performs exactly one parse and signature check; expiration is enforced by the parser
+     * @param token JWT token
+     * @return Verified principal
+     * @throws IllegalArgumentException if the token is malformed, tampered with, or expired
+     */
+    public JwtPrincipal verifyToken(String token) {
+        final Claims claims = extractAllClaims(token);
+
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            throw new IllegalArgumentException("Invalid JWT token");
+        }
+
+        Date issuedAt = claims.getIssuedAt();
+        Integer securityEpoch = claims.get("epoch", Integer.class);
+        return new JwtPrincipal(
+                claims.getId(),
+                claims.getSubject(),
+                claims.get("userId", Long.class),
+                securityEpoch != null ? securityEpoch : 0,
+                issuedAt != null ? issuedAt.toInstant() : null,
+                claims.getExpiration().toInstant()
+        );
+    }
+
     /**
      * Extract email from JWT token
      * @param token JWT token
@@ -97,24 +161,19 @@ public class JwtService {
      * @return All claims
      */
     private Claims extractAllClaims(String token) {
+        Jws<Claims> jws;
         try {
-            return Jwts.parser()
-                    .verifyWith(getSignInKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-        } catch (JwtException e) {
+            jws = jwtParser.parseSignedClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
             throw new IllegalArgumentException("Invalid JWT token", e);
         }
-    }
 
-    /**
-     * Check if JWT token is expired
-     * @param token JWT token
-     * @return True if expired, false otherwise
-     */
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        Claims claims = jws.getPayload();
+        if (jws.getHeader().getKeyId() == null
+                && (claims.getIssuedAt() == null || claims.getIssuedAt().toInstant().isAfter(legacyHmacCutover))) {
+            throw new IllegalArgumentException("Invalid JWT token: HMAC token issued after the cutover");
+        }
+        return claims;
     }
 
     /**
@@ -125,22 +184,12 @@ public class JwtService {
      */
     public boolean isTokenValid(String token, String email) {
         try {
-            final String tokenEmail = extractEmail(token);
-            return (tokenEmail.equals(email)) && !isTokenExpired(token);
+            return verifyToken(token).subject().equals(email);
         } catch (Exception e) {
             return false;
         }
     }
 
-    /**
-     * Get signing key from secret
-     * @return Secret key for JWT signing
-     */
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
     /**
      * Extract token from Authorization header
      * @param authHeader Authorization header value
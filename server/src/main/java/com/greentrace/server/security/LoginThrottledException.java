@@ -0,0 +1,23 @@
+package com.greentrace.server.security;
+
+/**
+ * Thrown when a login attempt exceeds the per-account or per-IP rate limit
+ * Callers should answer with 429 Too Many Requests and a Retry-After header
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(long retryAfterSeconds) {
+        super("Too many login attempts");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Get the suggested delay before the client retries
+     * @return Delay in seconds
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
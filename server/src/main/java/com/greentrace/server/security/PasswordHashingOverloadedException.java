@@ -0,0 +1,23 @@
+package com.greentrace.server.security;
+
+/**
+ * Thrown when the password hashing pool is saturated and cannot accept more work
+ * Callers should answer with 503 Service Unavailable and a Retry-After header
+ */
+public class PasswordHashingOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingOverloadedException(long retryAfterSeconds) {
+        super("Password hashing capacity exceeded");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Get the suggested delay before the client retries
+     * @return Delay in seconds
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,307 @@
+package com.greentrace.server.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Password Hashing Service
+ * Runs password encoding and matching on a dedicated, bounded worker pool sized to the CPU count
+ * Keeps CPU-heavy hashing from occupying the web request threads; when the queue is full,
+ * work is rejected immediately with PasswordHashingOverloadedException
+ * Bulk work (encodeAll) shares a fixed number of slots across all callers, so concurrent bulk
+ * uploads cannot fill the pool and queue and push interactive logins into rejection
+ */
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final Semaphore bulkSlots;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Timer queueWaitTimer;
+
+    public PasswordHashingService(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${app.security.password-hashing.threads:0}") int threads,
+            @Value("${app.security.password-hashing.queue-capacity:32}") int queueCapacity,
+            @Value("${app.security.password-hashing.retry-after:2}") long retryAfterSeconds,
+            @Value("${app.security.password-hashing.bulk-threads:0}") int bulkThreads
+    ) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        this.passwordEncoder = passwordEncoder;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.bulkSlots = new Semaphore(bulkThreads > 0 ? Math.min(bulkThreads, poolSize) : Math.max(1, poolSize / 2));
+        this.executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchTimer = hashTimer(meterRegistry, "matches");
+        this.queueWaitTimer = Timer.builder("greentrace.password.queue.wait")
+                .description("Time password hashing work waited for a worker")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Encode a raw password on the hashing pool
+     * @param rawPassword Raw password
+     * @return Encoded password
+     * @throws PasswordHashingOverloadedException if the hashing queue is full
+     */
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> passwordEncoder.encode(rawPassword), encodeTimer);
+    }
+
+    /**
+     * Check a raw password against an encoded one on the hashing pool
+     * @param rawPassword Raw password
+     * @param encodedPassword Stored encoded password
+     * @return True if the password matches, false otherwise
+     * @throws PasswordHashingOverloadedException if the hashing queue is full
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> passwordEncoder.matches(rawPassword, encodedPassword), matchTimer);
+    }
+
+    /**
+     * Check if a stored hash was produced with a different algorithm or cost than the current one
+     * Only inspects the hash, so it runs on the calling thread
+     * @param encodedPassword Stored encoded password
+     * @return True if the password should be re-encoded
+     */
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Get a snapshot of the pool counters
+     * @return Hashing statistics
+     */
+    public Stats stats() {
+        return new Stats(
+                completed.sum(),
+                rejected.sum(),
+                queueWaitNanos.sum(),
+                maxQueueWaitNanos.get(),
+                hashNanos.sum(),
+                maxHashNanos.get(),
+                executor.getQueue().size(),
+                executor.getActiveCount()
+        );
+    }
+
+    /**
+     * Encode many passwords in parallel for bulk operations
+     * Each task holds one of the bulk slots (bulk-threads) from submission until it finishes, so all
+     * bulk callers together never have more than that many tasks running or queued; the rest of the
+     * workers and the queue stay available for interactive hashing. Waits for a slot instead of failing
+     * @param rawPasswords Raw passwords
+     * @return Encoded passwords in the same order
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+        for (CharSequence rawPassword : rawPasswords) {
+            futures.add(submitBulk(rawPassword));
+        }
+
+        List<String> encoded = new ArrayList<>(rawPasswords.size());
+        for (Future<String> future : futures) {
+            encoded.add(await(future));
+        }
+        return encoded;
+    }
+
+    /**
+     * Queue one bulk encode once a bulk slot is free; the slot is released when the task finishes
+     */
+    private Future<String> submitBulk(CharSequence rawPassword) {
+        try {
+            bulkSlots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        }
+
+        Future<String> future = null;
+        try {
+            while (future == null) {
+                try {
+                    future = submit(() -> {
+                        try {
+                            return passwordEncoder.encode(rawPassword);
+                        } finally {
+                            bulkSlots.release();
+                        }
+                    }, encodeTimer);
+                } catch (RejectedExecutionException e) {
+                    // Interactive work filled the queue; it has priority, so back off and retry
+                    pause();
+                }
+            }
+            return future;
+        } finally {
+            if (future == null) {
+                bulkSlots.release();
+            }
+        }
+    }
+
+    /**
+     * Submit hashing work and wait for its result
+     * The calling thread blocks without consuming CPU while the work runs
+     * @param work Hashing work
+     * @param timer Timer for the hashing operation
+     * @return Work result
+     */
+    private <T> T execute(Supplier<T> work, Timer timer) {
+        Future<T> future;
+        try {
+            future = submit(work, timer);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingOverloadedException(retryAfterSeconds);
+        }
+        return await(future);
+    }
+
+    /**
+     * Queue hashing work with timing instrumentation
+     * @param work Hashing work
+     * @param timer Timer for the hashing operation
+     * @return Future for the result
+     * @throws RejectedExecutionException if the queue is full
+     */
+    private <T> Future<T> submit(Supplier<T> work, Timer timer) {
+        final long enqueuedAt = System.nanoTime();
+        return executor.submit(() -> {
+            long startedAt = System.nanoTime();
+            recordQueueWait(startedAt - enqueuedAt);
+            try {
+                return work.get();
+            } finally {
+                long nanos = System.nanoTime() - startedAt;
+                recordHash(nanos);
+                timer.record(nanos, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    /**
+     * Wait for queued hashing work
+     * @param future Future returned by submit
+     * @return Work result
+     */
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    /**
+     * Back off briefly when the queue is full
+     */
+    private static void pause() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        }
+    }
+
+    private void recordQueueWait(long nanos) {
+        queueWaitTimer.record(nanos, TimeUnit.NANOSECONDS);
+        queueWaitNanos.add(nanos);
+        maxQueueWaitNanos.accumulate(nanos);
+    }
+
+    private void recordHash(long nanos) {
+        completed.increment();
+        hashNanos.add(nanos);
+        maxHashNanos.accumulate(nanos);
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("greentrace.password.hash")
+                .description("Time spent hashing passwords on the worker pool")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stop the hashing pool on shutdown
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Point-in-time hashing pool counters
+     *
+     * @param completed Hash operations finished
+     * @param rejected Hash operations rejected because the queue was full
+     * @param queueWaitNanos Total time spent waiting in the queue
+     * @param maxQueueWaitNanos Longest single queue wait
+     * @param hashNanos Total time spent hashing
+     * @param maxHashNanos Longest single hash operation
+     * @param queueDepth Operations currently waiting
+     * @param active Operations currently running
+     */
+    public record Stats(
+            long completed,
+            long rejected,
+            long queueWaitNanos,
+            long maxQueueWaitNanos,
+            long hashNanos,
+            long maxHashNanos,
+            int queueDepth,
+            int active
+    ) {
+    }
+}
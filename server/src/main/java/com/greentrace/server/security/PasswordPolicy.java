@@ -0,0 +1,69 @@
+package com.greentrace.server.security;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Password policy for signup, password reset and provisioning
+ * Checks length and character classes in a single pass, then rejects known compromised passwords
+ */
+@Component
+public class PasswordPolicy {
+
+    private static final int MIN_LENGTH = 8;
+    private static final String SPECIAL_CHARACTERS = "!@#$%^&*()_+-=[]{};':\"\\|,.<>/?";
+
+    private final BreachedPasswordBloomFilter breachedPasswords;
+
+    public PasswordPolicy(BreachedPasswordBloomFilter breachedPasswords) {
+        this.breachedPasswords = breachedPasswords;
+    }
+
+    /**
+     * Validate password strength
+     * @param password Password to validate
+     * @throws IllegalArgumentException if password is weak or known to be compromised
+     */
+    public void validate(String password) {
+        if (password.length() < MIN_LENGTH) {
+            throw new IllegalArgumentException("Password must be at least 8 characters long");
+        }
+
+        boolean lower = false;
+        boolean upper = false;
+        boolean digit = false;
+        boolean special = false;
+
+        for (int i = 0; i < password.length(); i++) {
+            char c = password.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                lower = true;
+            } else if (c >= 'A' && c <= 'Z') {
+                upper = true;
+            } else if (c >= '0' && c <= '9') {
+                digit = true;
+            } else if (SPECIAL_CHARACTERS.indexOf(c) >= 0) {
+                special = true;
+            }
+        }
+
+        if (!lower) {
+            throw new IllegalArgumentException("Password must contain at least one lowercase letter");
+        }
+
+        if (!upper) {
+            throw new IllegalArgumentException("Password must contain at least one uppercase letter");
+        }
+
+        if (!digit) {
+            throw new IllegalArgumentException("Password must contain at least one number");
+        }
+
+        if (!special) {
+            throw new IllegalArgumentException("Password must contain at least one special character");
+        }
+
+        if (breachedPasswords.mightContain(password)) {
+            throw new IllegalArgumentException("This password has appeared in a data breach. Please choose a different password.");
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.greentrace.server.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Striped, lock-free token-bucket rate limiter keyed by string
+ * Each bucket is a single AtomicLong holding its theoretical arrival time (GCRA), updated by CAS,
+ * which behaves like a token bucket of the given burst size refilled at the given rate
+ *
+ * Memory is bounded: each stripe holds at most maxEntries / stripes keys. Full buckets are idle and
+ * can be evicted; when a stripe is still full, new keys are let through untracked (fail open), since
+ * sharing one bucket would let a flood of distinct keys lock out everyone else
+ */
+public class TokenBucketLimiter {
+
+    private static final int STRIPES = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final int maxEntriesPerStripe;
+    private final LongAdder untracked = new LongAdder();
+
+    /**
+     * Create a limiter
+     * @param burst Requests allowed back-to-back from a full bucket
+     * @param ratePerMinute Sustained requests per minute
+     * @param maxEntries Maximum number of tracked keys
+     */
+    public TokenBucketLimiter(int burst, int ratePerMinute, int maxEntries) {
+        this.intervalNanos = 60_000_000_000L / Math.max(1, ratePerMinute);
+        this.toleranceNanos = intervalNanos * (Math.max(1, burst) - 1);
+        this.maxEntriesPerStripe = Math.max(1, maxEntries / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Try to take one token for a key
+     * @param key Bucket key
+     * @param nowNanos Current System.nanoTime()
+     * @return 0 if allowed (including keys that could not be tracked), otherwise nanoseconds until
+     * the next token is available
+     */
+    public long tryAcquire(String key, long nowNanos) {
+        AtomicLong bucket = bucketFor(key, nowNanos);
+        if (bucket == null) {
+            untracked.increment();
+            return 0;
+        }
+
+        while (true) {
+            long tat = bucket.get();
+            // A new (0) or refilled bucket starts from now; nanoTime values are only compared by difference
+            long base = tat == 0 || tat - nowNanos < 0 ? nowNanos : tat;
+
+            if (base - nowNanos > toleranceNanos) {
+                return base - nowNanos - toleranceNanos;
+            }
+            if (bucket.compareAndSet(tat, base + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Remove buckets that have refilled completely
+     * @param nowNanos Current System.nanoTime()
+     * @return Number of evicted keys
+     */
+    public int evictIdle(long nowNanos) {
+        int evicted = 0;
+        for (Stripe stripe : stripes) {
+            evicted += stripe.evictIdle(nowNanos);
+        }
+        return evicted;
+    }
+
+    /**
+     * Get the number of tracked keys
+     * @return Tracked keys across all stripes
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.buckets.size();
+        }
+        return size;
+    }
+
+    /**
+     * Get the number of requests let through because their stripe was full
+     * @return Untracked requests
+     */
+    public long untracked() {
+        return untracked.sum();
+    }
+
+    /**
+     * Get or create the bucket of a key
+     * @return Bucket, or null if the key's stripe is full of active buckets
+     */
+    private AtomicLong bucketFor(String key, long nowNanos) {
+        Stripe stripe = stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+
+        AtomicLong bucket = stripe.buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+
+        if (stripe.buckets.size() >= maxEntriesPerStripe) {
+            stripe.evictIdle(nowNanos);
+            if (stripe.buckets.size() >= maxEntriesPerStripe) {
+                return null;
+            }
+        }
+        return stripe.buckets.computeIfAbsent(key, k -> new AtomicLong());
+    }
+
+    private static final class Stripe {
+
+        private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicBoolean evicting = new AtomicBoolean(false);
+
+        private int evictIdle(long nowNanos) {
+            if (!evicting.compareAndSet(false, true)) {
+                return 0;
+            }
+            try {
+                int before = buckets.size();
+                buckets.values().removeIf(bucket -> bucket.get() - nowNanos <= 0);
+                return before - buckets.size();
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+}
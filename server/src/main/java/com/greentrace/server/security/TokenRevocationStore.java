@@ -0,0 +1,217 @@
+package com.greentrace.server.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Token Revocation Store
+ * In-memory set of revoked token IDs (jti) with O(1) lookups on the request path
+ * Each entry is kept only until its token expires, since expired tokens are rejected anyway
+ * Revocations are written to the revoked_tokens table before revoke returns; rows that could not be
+ * written are retried in batches on the snapshot schedule. Every instance loads the table at startup
+ * and then re-reads the rows added since its last read on the same schedule, so a logout handled by
+ * one instance is rejected by the others within one snapshot interval
+ */
+@Component
+public class TokenRevocationStore {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationStore.class);
+
+    private static final String INSERT_SQL = "INSERT INTO revoked_tokens (jti, expires_at, revoked_at) VALUES (?, ?, ?)";
+    private static final String DELETE_EXPIRED_SQL = "DELETE FROM revoked_tokens WHERE expires_at < ?";
+    private static final String SELECT_ACTIVE_SQL = "SELECT jti, expires_at, revoked_at FROM revoked_tokens WHERE expires_at >= ?";
+    private static final String SELECT_RECENT_SQL = SELECT_ACTIVE_SQL + " AND revoked_at > ?";
+
+    /**
+     * How far back each reload looks before the newest revoked_at already seen, to pick up rows
+     * committed late (retried snapshots, slow transactions) or stamped by instances with a lagging clock
+     */
+    private static final long RELOAD_OVERLAP_MILLIS = 60_000;
+
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Map.Entry<String, Long>> unsaved = new ConcurrentLinkedQueue<>();
+    private final JdbcTemplate jdbcTemplate;
+
+    // Newest revoked_at read from the table, in epoch milliseconds
+    private volatile long lastSeenRevokedAt;
+
+    public TokenRevocationStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Load revocations that have not expired yet
+     */
+    @PostConstruct
+    public void load() {
+        read(SELECT_ACTIVE_SQL, Timestamp.from(Instant.now()));
+        log.info("Loaded {} revoked tokens", revoked.size());
+    }
+
+    /**
+     * Pick up revocations other instances stored since the last load or reload
+     */
+    public void reload() {
+        try {
+            int count = read(SELECT_RECENT_SQL, Timestamp.from(Instant.now()),
+                    Timestamp.from(Instant.ofEpochMilli(lastSeenRevokedAt - RELOAD_OVERLAP_MILLIS)));
+            log.debug("Reloaded {} recent revoked tokens", count);
+        } catch (DataAccessException e) {
+            log.warn("Failed to reload revoked tokens: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Revoke a token until it expires
+     * @param principal Verified token principal
+     * @return True if the token was newly revoked, false if it has no ID or was already revoked
+     */
+    public boolean revoke(JwtPrincipal principal) {
+        if (principal.tokenId() == null) {
+            return false;
+        }
+
+        long expiresAt = principal.expiresAt().toEpochMilli();
+        if (revoked.putIfAbsent(principal.tokenId(), expiresAt) != null) {
+            return false;
+        }
+
+        // Write through, so the revocation survives a crash and reaches the other instances
+        try {
+            jdbcTemplate.update(INSERT_SQL, principal.tokenId(), Timestamp.from(principal.expiresAt()), Timestamp.from(Instant.now()));
+        } catch (DuplicateKeyException e) {
+            // Already stored by another instance
+        } catch (DataAccessException e) {
+            log.warn("Failed to store revoked token, retrying with the next snapshot: {}", e.getMessage());
+            unsaved.add(Map.entry(principal.tokenId(), expiresAt));
+        }
+        return true;
+    }
+
+    /**
+     * Check if a token has been revoked
+     * @param tokenId Token ID (jti claim), may be null
+     * @return True if revoked, false otherwise
+     */
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && revoked.containsKey(tokenId);
+    }
+
+    /**
+     * Get the number of revoked tokens held in memory
+     * @return Revocation count
+     */
+    public int size() {
+        return revoked.size();
+    }
+
+    /**
+     * Drop expired revocations from memory, persist unsaved ones and reload those of other instances
+     */
+    @Scheduled(
+            fixedDelayString = "${app.security.revocation.snapshot-interval:10000}",
+            initialDelayString = "${app.security.revocation.snapshot-interval:10000}"
+    )
+    public void prune() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt < now);
+        snapshot(now);
+        reload();
+    }
+
+    /**
+     * Persist pending revocations before the application stops
+     */
+    @PreDestroy
+    public void shutdown() {
+        snapshot(System.currentTimeMillis());
+    }
+
+    /**
+     * Insert revocations as one batch, falling back to row-by-row inserts if the batch fails
+     * (e.g. partly written, or a jti already stored by another instance); a row that already
+     * exists counts as written
+     * @return Revocations that could not be written
+     */
+    private List<Map.Entry<String, Long>> insert(List<Map.Entry<String, Long>> batch) {
+        Timestamp revokedAt = Timestamp.from(Instant.now());
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, revocation) -> {
+                ps.setString(1, revocation.getKey());
+                ps.setTimestamp(2, Timestamp.from(Instant.ofEpochMilli(revocation.getValue())));
+                ps.setTimestamp(3, revokedAt);
+            });
+            return List.of();
+        } catch (DataAccessException e) {
+            log.debug("Batch snapshot of {} revoked tokens failed, inserting one by one: {}", batch.size(), e.getMessage());
+        }
+
+        List<Map.Entry<String, Long>> failed = new ArrayList<>();
+        for (Map.Entry<String, Long> revocation : batch) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, revocation.getKey(),
+                        Timestamp.from(Instant.ofEpochMilli(revocation.getValue())), revokedAt);
+            } catch (DuplicateKeyException e) {
+                // Already stored
+            } catch (DataAccessException e) {
+                failed.add(revocation);
+            }
+        }
+        if (!failed.isEmpty()) {
+            // Keep the revocations in memory and retry them next time
+            log.warn("Failed to snapshot {} of {} revoked tokens", failed.size(), batch.size());
+        }
+        return failed;
+    }
+
+    /**
+     * Add stored revocations to the in-memory set and advance the revoked_at watermark
+     * @return Rows read
+     */
+    private int read(String sql, Object... args) {
+        int[] count = {0};
+        jdbcTemplate.query(sql, rs -> {
+            revoked.putIfAbsent(rs.getString("jti"), rs.getTimestamp("expires_at").toInstant().toEpochMilli());
+            lastSeenRevokedAt = Math.max(lastSeenRevokedAt, rs.getTimestamp("revoked_at").toInstant().toEpochMilli());
+            count[0]++;
+        }, args);
+        return count[0];
+    }
+
+    private synchronized void snapshot(long now) {
+        List<Map.Entry<String, Long>> batch = new ArrayList<>();
+        Map.Entry<String, Long> entry;
+        while ((entry = unsaved.poll()) != null) {
+            if (entry.getValue() >= now) {
+                batch.add(entry);
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            List<Map.Entry<String, Long>> failed = insert(batch);
+            // Only rows that were not written are retried, so a stored jti is never inserted twice
+            unsaved.addAll(failed);
+        }
+
+        try {
+            jdbcTemplate.update(DELETE_EXPIRED_SQL, Timestamp.from(Instant.ofEpochMilli(now)));
+        } catch (DataAccessException e) {
+            log.warn("Failed to delete expired revoked tokens: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.greentrace.server.security;
+
+import java.time.Instant;
+
+/**
+ * Revocation-relevant state of a user account
+ *
+ * @param userId User ID
+ * @param active Whether the account is active
+ * @param securityEpoch Current security epoch; tokens from earlier epochs are rejected
+ * @param changedAt Time of the last deactivation or epoch change, or null if there was none
+ */
+public record UserSecurityStatus(Long userId, boolean active, int securityEpoch, Instant changedAt) {
+
+    /**
+     * Check if this status matches what every newly created account starts with
+     * @return True if active and at epoch 0
+     */
+    public boolean isDefault() {
+        return active && securityEpoch == 0;
+    }
+}
@@ -0,0 +1,137 @@
+package com.greentrace.server.security;
+
+import com.greentrace.server.model.User;
+import com.greentrace.server.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory user status table used to authenticate requests without a database lookup
+ * Only users that differ from the default (active, epoch 0) are stored, which keeps the table small
+ * Tokens are rejected when the account is inactive or the token's epoch is older than the user's
+ *
+ * The table is loaded at startup and updated by UserService on the instance that handles the change,
+ * once the change has committed; every instance also polls users for security changes made elsewhere.
+ * An entry is dropped once the token lifetime has passed since its change: every token it could reject
+ * was issued before the change and has expired by then
+ */
+@Component
+public class UserStatusRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStatusRegistry.class);
+
+    /**
+     * How far back each poll looks before the newest change already seen, to pick up changes committed
+     * late or stamped by instances with a lagging clock
+     */
+    private static final long POLL_OVERLAP_MILLIS = 60_000;
+
+    private final ConcurrentHashMap<Long, UserSecurityStatus> statuses = new ConcurrentHashMap<>();
+    private final UserRepository userRepository;
+    private final long tokenLifetimeMillis;
+
+    // Newest change time read from the database, in epoch milliseconds
+    private volatile long lastSeenChangeMillis;
+
+    public UserStatusRegistry(
+            UserRepository userRepository,
+            @Value("${spring.security.jwt.expiration}") long tokenLifetimeMillis
+    ) {
+        this.userRepository = userRepository;
+        this.tokenLifetimeMillis = tokenLifetimeMillis;
+    }
+
+    /**
+     * Load the statuses of users whose security changed within the token lifetime
+     */
+    @PostConstruct
+    public void load() {
+        read(Instant.now().minusMillis(tokenLifetimeMillis));
+        log.info("Loaded {} non-default user security statuses", statuses.size());
+    }
+
+    /**
+     * Pick up deactivations and epoch changes made by other instances and drop entries
+     * whose tokens have all expired
+     */
+    @Scheduled(
+            fixedDelayString = "${app.security.user-status.poll-interval:10000}",
+            initialDelayString = "${app.security.user-status.poll-interval:10000}"
+    )
+    public void poll() {
+        Instant now = Instant.now();
+        Instant oldestRelevant = now.minusMillis(tokenLifetimeMillis);
+        try {
+            Instant since = Instant.ofEpochMilli(lastSeenChangeMillis - POLL_OVERLAP_MILLIS);
+            read(since.isAfter(oldestRelevant) ? since : oldestRelevant);
+        } catch (DataAccessException e) {
+            log.warn("Failed to poll user security statuses: {}", e.getMessage());
+        }
+        statuses.values().removeIf(status -> status.changedAt() != null && status.changedAt().isBefore(oldestRelevant));
+    }
+
+    /**
+     * Check if a verified token is still acceptable for its user
+     * @param principal Verified token principal
+     * @return True if the account is active and the token epoch is current
+     */
+    public boolean isTokenCurrent(JwtPrincipal principal) {
+        if (principal.userId() == null) {
+            return false;
+        }
+
+        UserSecurityStatus status = statuses.get(principal.userId());
+        if (status == null) {
+            return true;
+        }
+        return status.active() && principal.securityEpoch() >= status.securityEpoch();
+    }
+
+    /**
+     * Record the current security state of a user
+     * @param user User entity after the change has been applied
+     */
+    public void update(User user) {
+        update(new UserSecurityStatus(
+                user.getId(), Boolean.TRUE.equals(user.getIsActive()), user.getSecurityEpoch(), user.getSecurityChangedAt()));
+    }
+
+    /**
+     * Record the current security state of a user
+     * An older epoch never overwrites a newer one
+     * @param status User security status
+     */
+    public void update(UserSecurityStatus status) {
+        statuses.compute(status.userId(), (id, current) -> {
+            if (current != null && current.securityEpoch() > status.securityEpoch()) {
+                return current;
+            }
+            return status.isDefault() ? null : status;
+        });
+    }
+
+    /**
+     * Get the number of users with non-default status
+     * @return Table size
+     */
+    public int size() {
+        return statuses.size();
+    }
+
+    private void read(Instant since) {
+        List<UserSecurityStatus> changed = userRepository.findSecurityStatusesChangedSince(since);
+        for (UserSecurityStatus status : changed) {
+            update(status);
+            lastSeenChangeMillis = Math.max(lastSeenChangeMillis, status.changedAt().toEpochMilli());
+        }
+    }
+}
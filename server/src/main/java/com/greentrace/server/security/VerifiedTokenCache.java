@@ -0,0 +1,169 @@
+package com.greentrace.server.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of already-verified JWT tokens
+ * Lets repeat requests with the same bearer token skip signature verification
+ * Revocation is checked separately on every request, so cached entries never bypass it
+ * Entries are keyed by the SHA-256 digest of the token and never outlive the token's own expiration
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final ConcurrentHashMap<ByteBuffer, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean purging = new AtomicBoolean(false);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    private final int maxEntries;
+    private final long maxTtlMillis;
+
+    public VerifiedTokenCache(
+            @Value("${app.security.token-cache.max-entries:10000}") int maxEntries,
+            @Value("${app.security.token-cache.max-ttl:300000}") long maxTtlMillis
+    ) {
+        this.maxEntries = maxEntries;
+        this.maxTtlMillis = maxTtlMillis;
+    }
+
+    /**
+     * Look up a previously verified token
+     * @param token JWT token
+     * @return Cached principal, or null if the token is not cached or its entry has expired
+     */
+    public JwtPrincipal get(String token) {
+        ByteBuffer key = digest(token);
+        Entry entry = entries.get(key);
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        if (entry.expiresAtMillis() <= System.currentTimeMillis()) {
+            // Lazily drop expired entries on access
+            if (entries.remove(key, entry)) {
+                expirations.increment();
+            }
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return entry.principal();
+    }
+
+    /**
+     * Cache a verified token
+     * The entry expires at the token's expiration or after the configured max TTL, whichever comes first
+     * A max-entries setting of zero disables caching
+     * @param token JWT token
+     * @param principal Principal produced by verifying the token
+     */
+    public void put(String token, JwtPrincipal principal) {
+        if (maxEntries <= 0) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long expiresAt = Math.min(principal.expiresAt().toEpochMilli(), now + maxTtlMillis);
+        if (expiresAt <= now) {
+            return;
+        }
+
+        if (entries.size() >= maxEntries) {
+            makeRoom(now);
+        }
+        entries.put(digest(token), new Entry(principal, expiresAt));
+    }
+
+    /**
+     * Remove all cached tokens
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * Get a snapshot of the cache counters
+     * @return Cache statistics
+     */
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), entries.size());
+    }
+
+    /**
+     * Bring the cache back under its capacity
+     * Drops expired entries first, then evicts arbitrary entries down to 90% of capacity
+     * Only one thread purges at a time; concurrent writers may briefly overshoot the bound
+     * @param now Current time in milliseconds
+     */
+    private void makeRoom(long now) {
+        if (!purging.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            entries.values().removeIf(entry -> {
+                if (entry.expiresAtMillis() <= now) {
+                    expirations.increment();
+                    return true;
+                }
+                return false;
+            });
+
+            int target = maxEntries - Math.max(1, maxEntries / 10);
+            Iterator<Map.Entry<ByteBuffer, Entry>> iterator = entries.entrySet().iterator();
+            while (entries.size() > target && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                evictions.increment();
+            }
+        } finally {
+            purging.set(false);
+        }
+    }
+
+    /**
+     * Compute the cache key for a token
+     * @param token JWT token
+     * @return SHA-256 digest wrapped for content-based equality
+     */
+    private static ByteBuffer digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record Entry(JwtPrincipal principal, long expiresAtMillis) {
+    }
+
+    /**
+     * Point-in-time cache counters
+     *
+     * @param hits Lookups answered from the cache
+     * @param misses Lookups that required full verification
+     * @param evictions Entries removed to stay within capacity
+     * @param expirations Entries removed because they expired
+     * @param size Current number of entries
+     */
+    public record Stats(long hits, long misses, long evictions, long expirations, int size) {
+    }
+}
@@ -0,0 +1,237 @@
+package com.greentrace.server.services;
+
+import com.greentrace.server.model.AuditEventType;
+import com.greentrace.server.model.User;
+import com.greentrace.server.util.MpmcRingBuffer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Security audit trail
+ * Request threads hand events to a bounded lock-free ring buffer and return immediately;
+ * a single background writer drains it and inserts the events as JDBC batches
+ *
+ * When the buffer is full (database down or too slow) events are dropped rather than blocking
+ * the request, either the new event (drop-newest) or the oldest buffered one (drop-oldest);
+ * drops are counted and exposed through stats(). A batch that keeps failing is dropped after
+ * max-retries attempts so one bad row cannot stall the trail
+ */
+@Component
+public class AuditTrail {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditTrail.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO audit_events (event_type, user_id, email, client_ip, detail, occurred_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final int MAX_EMAIL_LENGTH = 100;
+    private static final int MAX_DETAIL_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MpmcRingBuffer<PendingEvent> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final int maxRetries;
+    private final OverflowPolicy overflowPolicy;
+
+    private final AtomicBoolean wakeRequested = new AtomicBoolean();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failedWrites = new LongAdder();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public AuditTrail(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.audit.capacity:8192}") int capacity,
+            @Value("${app.audit.batch-size:500}") int batchSize,
+            @Value("${app.audit.flush-interval:1000}") long flushIntervalMillis,
+            @Value("${app.audit.max-retries:3}") int maxRetries,
+            @Value("${app.audit.overflow-policy:drop-newest}") String overflowPolicy
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.buffer = new MpmcRingBuffer<>(capacity);
+        this.batchSize = Math.max(1, Math.min(batchSize, buffer.capacity()));
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.maxRetries = Math.max(1, maxRetries);
+        this.overflowPolicy = OverflowPolicy.parse(overflowPolicy);
+    }
+
+    /**
+     * Start the background writer
+     */
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = Thread.ofPlatform().name("audit-writer").daemon().start(this::runWriter);
+    }
+
+    /**
+     * Stop the writer after it has written everything buffered so far
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Record an event for the current request
+     * Never blocks; the client IP is taken from the current request, if any
+     * @param type Event type
+     * @param userId User ID, or null if unknown
+     * @param email Email the request was made for, or null
+     * @param detail Short reason or detail, or null
+     */
+    public void record(AuditEventType type, Long userId, String email, String detail) {
+        PendingEvent event = new PendingEvent(
+                type, userId, truncate(User.normalizeEmail(email), MAX_EMAIL_LENGTH),
+                currentClientIp(), truncate(detail, MAX_DETAIL_LENGTH), LocalDateTime.now());
+
+        if (!buffer.offer(event) && !(overflowPolicy == OverflowPolicy.DROP_OLDEST && replaceOldest(event))) {
+            dropped.increment();
+            return;
+        }
+        accepted.increment();
+
+        // Wake the writer early once a full batch is waiting
+        if (buffer.size() >= batchSize && wakeRequested.compareAndSet(false, true)) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Get a snapshot of the audit pipeline counters
+     * @return Audit statistics
+     */
+    public Stats stats() {
+        return new Stats(accepted.sum(), dropped.sum(), written.sum(), failedWrites.sum(), buffer.size(),
+                overflowPolicy.name().toLowerCase(Locale.ROOT).replace('_', '-'));
+    }
+
+    private boolean replaceOldest(PendingEvent event) {
+        if (buffer.poll() != null) {
+            dropped.increment();
+        }
+        return buffer.offer(event);
+    }
+
+    private void runWriter() {
+        List<PendingEvent> batch = new ArrayList<>(batchSize);
+        int attempts = 0;
+        while (true) {
+            buffer.drainTo(batch, batchSize - batch.size());
+            if (!batch.isEmpty()) {
+                if (write(batch)) {
+                    batch.clear();
+                    attempts = 0;
+                } else if (++attempts >= maxRetries || !running) {
+                    log.error("Dropping {} audit events after {} failed attempts", batch.size(), attempts);
+                    dropped.add(batch.size());
+                    batch.clear();
+                    attempts = 0;
+                }
+            }
+
+            if (!running) {
+                if (batch.isEmpty() && buffer.size() == 0) {
+                    return;
+                }
+                continue;
+            }
+            // Sleep until the next interval unless a full batch is already waiting (or a write is being retried)
+            if (buffer.size() < batchSize || attempts > 0) {
+                wakeRequested.set(false);
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+        }
+    }
+
+    private boolean write(List<PendingEvent> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batchSize, (ps, event) -> {
+                ps.setString(1, event.type().name());
+                if (event.userId() != null) {
+                    ps.setLong(2, event.userId());
+                } else {
+                    ps.setNull(2, Types.BIGINT);
+                }
+                ps.setString(3, event.email());
+                ps.setString(4, event.clientIp());
+                ps.setString(5, event.detail());
+                ps.setTimestamp(6, Timestamp.valueOf(event.occurredAt()));
+            });
+            written.add(batch.size());
+            return true;
+        } catch (DataAccessException e) {
+            failedWrites.increment();
+            log.warn("Failed to write {} audit events: {}", batch.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    private static String currentClientIp() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return attributes.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    private record PendingEvent(
+            AuditEventType type, Long userId, String email, String clientIp, String detail, LocalDateTime occurredAt) {
+    }
+
+    private enum OverflowPolicy {
+        DROP_NEWEST,
+        DROP_OLDEST;
+
+        static OverflowPolicy parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported audit overflow policy: " + value);
+            }
+        }
+    }
+
+    /**
+     * Point-in-time audit pipeline counters
+     *
+     * @param accepted Events added to the buffer
+     * @param dropped Events lost to a full buffer (new or evicted) or to a batch that kept failing
+     * @param written Events inserted into audit_events
+     * @param failedWrites Batch inserts that failed (each is retried up to max-retries times)
+     * @param backlog Events waiting in the buffer
+     * @param overflowPolicy Policy applied when the buffer is full
+     */
+    public record Stats(long accepted, long dropped, long written, long failedWrites, int backlog, String overflowPolicy) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.greentrace.server.services;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Thrown when signing up with an email that is already registered
+ */
+public class DuplicateEmailException extends IllegalArgumentException {
+
+    /**
+     * Unique keys on users that mean "this email is already registered"
+     */
+    private static final List<String> EMAIL_CONSTRAINTS = List.of("uk_users_email_normalized", "uk_users_email");
+
+    public DuplicateEmailException(String message) {
+        super(message);
+    }
+
+    /**
+     * Check if an insert failed on one of the unique email keys, as opposed to e.g. a NOT NULL
+     * or column length violation
+     * @param e Exception from inserting a user
+     * @return True if the email is already registered
+     */
+    public static boolean isCausedBy(DataIntegrityViolationException e) {
+        if (!(e.getCause() instanceof ConstraintViolationException violation)
+                || violation.getKind() != ConstraintViolationException.ConstraintKind.UNIQUE
+                || violation.getConstraintName() == null) {
+            return false;
+        }
+        String constraint = violation.getConstraintName().toLowerCase(Locale.ROOT);
+        return EMAIL_CONSTRAINTS.stream().anyMatch(constraint::contains);
+    }
+}
@@ -0,0 +1,299 @@
+package com.greentrace.server.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.greentrace.server.dto.EmissionActivityRecord;
+import com.greentrace.server.dto.EmissionIngestReport;
+import com.greentrace.server.dto.EmissionIngestReport.RowError;
+import com.greentrace.server.model.EmissionReading;
+import com.greentrace.server.util.CsvLineParser;
+import com.greentrace.server.util.RecordFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * EmissionIngestService for bulk emission activity uploads
+ * Streams CSV or NDJSON line by line, validates each record and hands valid ones to the EmissionStore
+ * in batches of batch-size readings; memory use is bounded by one batch regardless of the upload size.
+ * Each batch is folded into the dashboard rollups in the same transaction as the store write; stores that
+ * cannot take part in the transaction are written only once the rollups have committed, and a batch they
+ * then fail to write is reported as failed while its rollups stay applied.
+ * Invalid lines are reported and skipped, they do not fail the upload
+ */
+@Service
+public class EmissionIngestService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmissionIngestService.class);
+
+    private static final List<String> CSV_COLUMNS = List.of("source", "timestamp", "activitytype", "quantity", "unit");
+
+    private static final int MAX_SOURCE_LENGTH = 100;
+    private static final int MAX_ACTIVITY_TYPE_LENGTH = 64;
+    private static final int MAX_UNIT_LENGTH = 16;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_BATCH_ATTEMPTS = 3;
+
+    private final EmissionStore emissionStore;
+    private final EmissionRollupService emissionRollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final EmissionStreamHub emissionStreamHub;
+    private final ObjectReader recordReader;
+    private final int batchSize;
+    private final long maxRows;
+    private final int maxReportedErrors;
+
+    public EmissionIngestService(
+            EmissionStore emissionStore,
+            EmissionRollupService emissionRollupService,
+            TransactionTemplate transactionTemplate,
+            EmissionStreamHub emissionStreamHub,
+            ObjectMapper objectMapper,
+            @Value("${app.emissions.batch-size:5000}") int batchSize,
+            @Value("${app.emissions.max-rows:10000000}") long maxRows,
+            @Value("${app.emissions.max-reported-errors:100}") int maxReportedErrors
+    ) {
+        this.emissionStore = emissionStore;
+        this.emissionRollupService = emissionRollupService;
+        this.transactionTemplate = transactionTemplate;
+        this.emissionStreamHub = emissionStreamHub;
+        this.recordReader = objectMapper.readerFor(EmissionActivityRecord.class);
+        this.batchSize = batchSize;
+        this.maxRows = maxRows;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Ingest emission activity records from a streamed upload
+     * Each batch is stored independently, so earlier batches stay stored if a later one fails
+     * @param userId User the records are attributed to
+     * @param body Upload body
+     * @param format Upload format
+     * @return Upload summary with the first rejected lines
+     * @throws IOException if the body cannot be read
+     * @throws IllegalArgumentException if the CSV header is missing required columns
+     */
+    public EmissionIngestReport ingest(Long userId, InputStream body, RecordFormat format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+        List<EmissionReading> batch = new ArrayList<>(batchSize);
+        List<RowError> errors = new ArrayList<>();
+
+        long lineNumber = 0;
+        long rows = 0;
+        long accepted = 0;
+        long rejected = 0;
+        boolean truncated = false;
+
+        int[] csvColumns = null;
+        if (format == RecordFormat.CSV) {
+            csvColumns = readCsvHeader(reader.readLine());
+            lineNumber++;
+        }
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (rows++ >= maxRows) {
+                truncated = true;
+                break;
+            }
+
+            EmissionReading reading;
+            try {
+                EmissionActivityRecord record = format == RecordFormat.CSV
+                        ? parseCsv(line, csvColumns)
+                        : recordReader.readValue(line);
+                reading = validate(userId, record);
+            } catch (IllegalArgumentException e) {
+                rejected++;
+                addError(errors, lineNumber, e.getMessage());
+                continue;
+            } catch (IOException e) {
+                rejected++;
+                addError(errors, lineNumber, "Malformed record");
+                continue;
+            }
+
+            batch.add(reading);
+            if (batch.size() >= batchSize) {
+                accepted += storeBatch(batch);
+            }
+        }
+        accepted += storeBatch(batch);
+
+        log.debug("Ingested {} emission records for user {} ({} rejected)", accepted, userId, rejected);
+        long total = rows - (truncated ? 1 : 0);
+        long failed = total - accepted - rejected;
+        if (failed > 0) {
+            log.warn("Emission store failed to write {} readings for user {}; their rollups were kept", failed, userId);
+        }
+        return new EmissionIngestReport(true, total, accepted, rejected, failed, truncated, errors);
+    }
+
+    /**
+     * Store one batch, update the rollups, publish it to live feeds and clear the batch
+     * Rollups are written first, so a conflict with a concurrent upload on a new rollup bucket
+     * rolls the attempt back before anything reached the store and the batch can be retried.
+     * A non-transactional store is appended to after commit, so a rolled back attempt never leaves
+     * readings behind that the retry would store again. Rollups cannot be compensated exactly (min and max
+     * are not reversible), so if that append fails the batch is counted as not stored and not published
+     * @return Number of stored readings
+     */
+    private int storeBatch(List<EmissionReading> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        AtomicBoolean appendFailed = new AtomicBoolean();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    emissionRollupService.apply(batch);
+                    if (emissionStore.isTransactional()) {
+                        emissionStore.append(batch);
+                    } else {
+                        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                            @Override
+                            public void afterCommit() {
+                                try {
+                                    emissionStore.append(batch);
+                                } catch (RuntimeException e) {
+                                    log.error("Failed to append {} emission readings after their rollups committed",
+                                            batch.size(), e);
+                                    appendFailed.set(true);
+                                }
+                            }
+                        });
+                    }
+                });
+                break;
+            } catch (DuplicateKeyException | PessimisticLockingFailureException e) {
+                if (attempt >= MAX_BATCH_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Retrying emission batch after conflict with a concurrent upload: {}", e.getMessage());
+            }
+        }
+        if (appendFailed.get()) {
+            batch.clear();
+            return 0;
+        }
+        emissionStreamHub.publish(batch.get(0).userId(), batch);
+        int stored = batch.size();
+        batch.clear();
+        return stored;
+    }
+
+    /**
+     * Check a parsed record and convert it for storage
+     * @throws IllegalArgumentException with the reason if the record is invalid
+     */
+    private static EmissionReading validate(Long userId, EmissionActivityRecord record) {
+        String source = required(record.source(), "source", MAX_SOURCE_LENGTH);
+        String activityType = required(record.activityType(), "activityType", MAX_ACTIVITY_TYPE_LENGTH);
+        String unit = required(record.unit(), "unit", MAX_UNIT_LENGTH);
+
+        if (record.quantity() == null) {
+            throw new IllegalArgumentException("quantity is required");
+        }
+        double quantity = record.quantity();
+        if (!Double.isFinite(quantity) || quantity < 0) {
+            throw new IllegalArgumentException("quantity must be a non-negative number");
+        }
+
+        if (record.timestamp() == null || record.timestamp().isBlank()) {
+            throw new IllegalArgumentException("timestamp is required");
+        }
+        Instant occurredAt;
+        try {
+            occurredAt = Instant.parse(record.timestamp().trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("timestamp must be ISO-8601 with an offset, e.g. 2025-01-31T12:00:00Z");
+        }
+
+        return new EmissionReading(userId, source, activityType, quantity, unit, occurredAt);
+    }
+
+    private static String required(String value, String field, int maxLength) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        String trimmed = value.trim();
+        if (trimmed.length() > maxLength) {
+            throw new IllegalArgumentException(field + " must not exceed " + maxLength + " characters");
+        }
+        return trimmed;
+    }
+
+    private void addError(List<RowError> errors, long line, String message) {
+        if (errors.size() < maxReportedErrors) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    /**
+     * Map the CSV header (case-insensitive; "meter" may name the source column) to column positions
+     * @return Position of each of CSV_COLUMNS in a row
+     */
+    private static int[] readCsvHeader(String header) {
+        if (header == null) {
+            throw new IllegalArgumentException("CSV upload is empty");
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = CsvLineParser.split(header);
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim().toLowerCase(Locale.ROOT);
+            columns.put(name.equals("meter") ? "source" : name, i);
+        }
+
+        if (!columns.keySet().containsAll(CSV_COLUMNS)) {
+            throw new IllegalArgumentException("CSV header must contain columns: source, timestamp, activityType, quantity, unit");
+        }
+        return CSV_COLUMNS.stream().mapToInt(columns::get).toArray();
+    }
+
+    private static EmissionActivityRecord parseCsv(String line, int[] columns) {
+        List<String> fields = CsvLineParser.split(line);
+        String quantity = field(fields, columns[3]);
+        Double parsedQuantity;
+        try {
+            parsedQuantity = quantity == null || quantity.isBlank() ? null : Double.valueOf(quantity.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("quantity must be a non-negative number");
+        }
+        return new EmissionActivityRecord(
+                field(fields, columns[0]),
+                field(fields, columns[1]),
+                field(fields, columns[2]),
+                parsedQuantity,
+                field(fields, columns[4]));
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index) : null;
+    }
+}
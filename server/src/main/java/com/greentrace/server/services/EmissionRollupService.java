@@ -0,0 +1,290 @@
+package com.greentrace.server.services;
+
+import com.greentrace.server.dto.EmissionAggregate;
+import com.greentrace.server.model.EmissionReading;
+import com.greentrace.server.model.RollupResolution;
+import com.greentrace.server.util.UtcDateTime;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * EmissionRollupService for dashboard aggregates
+ * Keeps sum, count, min and max of the readings per user, activity type and unit in minute, hour,
+ * day and month buckets (emission_rollups). Each ingested batch is folded in as deltas: existing
+ * buckets are updated in place and missing ones inserted, so late readings simply land in their
+ * (old) buckets. Range queries are answered from the coarsest buckets that fit inside the range.
+ * Bucket starts are stored as UTC wall-clock times, matching the V10 backfill
+ */
+@Service
+public class EmissionRollupService {
+
+    private static final String UPDATE_SQL =
+            "UPDATE emission_rollups SET sum_quantity = sum_quantity + ?, sample_count = sample_count + ?,"
+                    + " min_quantity = LEAST(min_quantity, ?), max_quantity = GREATEST(max_quantity, ?)"
+                    + " WHERE user_id = ? AND resolution = ? AND bucket_start = ? AND activity_type = ? AND unit = ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO emission_rollups (sum_quantity, sample_count, min_quantity, max_quantity,"
+                    + " user_id, resolution, bucket_start, activity_type, unit) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String TOTALS_SQL =
+            "SELECT activity_type, unit, SUM(sum_quantity), SUM(sample_count), MIN(min_quantity), MAX(max_quantity)"
+                    + " FROM emission_rollups WHERE user_id = ?";
+
+    private static final String SERIES_SQL =
+            "SELECT bucket_start, activity_type, unit, sum_quantity, sample_count, min_quantity, max_quantity"
+                    + " FROM emission_rollups WHERE user_id = ? AND resolution = ? AND bucket_start >= ? AND bucket_start < ?";
+
+    /**
+     * Lock order for bucket updates, so concurrent uploads cannot deadlock on each other's rows
+     */
+    private static final Comparator<BucketKey> BUCKET_ORDER = Comparator
+            .comparing(BucketKey::userId)
+            .thenComparing(BucketKey::resolution)
+            .thenComparing(BucketKey::bucketStart)
+            .thenComparing(BucketKey::activityType)
+            .thenComparing(BucketKey::unit);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxPoints;
+
+    public EmissionRollupService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.dashboard.max-points:1000}") int maxPoints
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxPoints = maxPoints;
+    }
+
+    /**
+     * Fold a batch of readings into the rollups
+     * Must run inside the caller's transaction; a concurrent upload creating the same bucket first
+     * surfaces as DuplicateKeyException, after which the transaction can be retried
+     * @param readings Stored readings
+     */
+    public void apply(List<EmissionReading> readings) {
+        Map<BucketKey, Aggregate> buckets = new HashMap<>();
+        Instant day = null;
+        Instant month = null;
+        for (EmissionReading reading : readings) {
+            Instant at = reading.occurredAt();
+            Instant readingDay = RollupResolution.DAY.truncate(at);
+            if (!readingDay.equals(day)) {
+                day = readingDay;
+                month = RollupResolution.MONTH.truncate(readingDay);
+            }
+            add(buckets, reading, RollupResolution.MINUTE, RollupResolution.MINUTE.truncate(at));
+            add(buckets, reading, RollupResolution.HOUR, RollupResolution.HOUR.truncate(at));
+            add(buckets, reading, RollupResolution.DAY, day);
+            add(buckets, reading, RollupResolution.MONTH, month);
+        }
+        if (buckets.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<BucketKey, Aggregate>> entries = new ArrayList<>(buckets.entrySet());
+        entries.sort(Map.Entry.comparingByKey(BUCKET_ORDER));
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, new BucketSetter(entries));
+
+        List<Map.Entry<BucketKey, Aggregate>> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(entries.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BucketSetter(missing));
+        }
+    }
+
+    /**
+     * Get a user's totals per activity type and unit over a range
+     * The range is truncated to whole minutes and covered with the coarsest buckets that fit
+     * @param userId User ID
+     * @param activityType Activity type to restrict to, or null for all
+     * @param from Start of the range (inclusive)
+     * @param to End of the range (exclusive)
+     * @return Totals ordered by activity type and unit, without bucket starts
+     */
+    public List<EmissionAggregate> totals(Long userId, String activityType, Instant from, Instant to) {
+        List<RollupRange> ranges = cover(from.truncatedTo(ChronoUnit.MINUTES), to.truncatedTo(ChronoUnit.MINUTES));
+        if (ranges.isEmpty()) {
+            return List.of();
+        }
+
+        StringBuilder sql = new StringBuilder(TOTALS_SQL);
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+        if (activityType != null) {
+            sql.append(" AND activity_type = ?");
+            args.add(activityType);
+        }
+        sql.append(" AND (");
+        for (int i = 0; i < ranges.size(); i++) {
+            RollupRange range = ranges.get(i);
+            sql.append(i > 0 ? " OR " : "").append("(resolution = ? AND bucket_start >= ? AND bucket_start < ?)");
+            args.add(range.resolution().name());
+            args.add(UtcDateTime.of(range.from()));
+            args.add(UtcDateTime.of(range.to()));
+        }
+        sql.append(") GROUP BY activity_type, unit ORDER BY activity_type, unit");
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new EmissionAggregate(
+                null, rs.getString(1), rs.getString(2), rs.getDouble(3), rs.getLong(4), rs.getDouble(5), rs.getDouble(6)),
+                args.toArray());
+    }
+
+    /**
+     * Get a user's aggregates per bucket over a range
+     * @param userId User ID
+     * @param activityType Activity type to restrict to, or null for all
+     * @param resolution Bucket size, from resolutionFor(from, to) if not chosen by the client
+     * @param from Start of the range; the bucket holding it is included
+     * @param to End of the range (exclusive)
+     * @return Non-empty buckets ordered by start, activity type and unit
+     * @throws IllegalArgumentException if the range spans more than max-points buckets
+     */
+    public List<EmissionAggregate> series(
+            Long userId, String activityType, RollupResolution resolution, Instant from, Instant to) {
+        if (bucketCount(resolution, from, to) > maxPoints) {
+            throw new IllegalArgumentException(
+                    "Range spans more than " + maxPoints + " buckets at " + resolution.name().toLowerCase(Locale.ROOT) + " resolution");
+        }
+
+        String sql = SERIES_SQL;
+        List<Object> args = new ArrayList<>(List.of(
+                userId, resolution.name(), UtcDateTime.of(resolution.truncate(from)), UtcDateTime.of(to)));
+        if (activityType != null) {
+            sql += " AND activity_type = ?";
+            args.add(activityType);
+        }
+        sql += " ORDER BY bucket_start, activity_type, unit";
+
+        RowMapper<EmissionAggregate> mapper = (rs, rowNum) -> new EmissionAggregate(
+                UtcDateTime.toInstant(rs.getObject(1, LocalDateTime.class)), rs.getString(2), rs.getString(3),
+                rs.getDouble(4), rs.getLong(5), rs.getDouble(6), rs.getDouble(7));
+        return jdbcTemplate.query(sql, mapper, args.toArray());
+    }
+
+    /**
+     * Pick the finest resolution that keeps a range within max-points buckets
+     * @return Resolution, MONTH if none fits
+     */
+    public RollupResolution resolutionFor(Instant from, Instant to) {
+        for (RollupResolution resolution : RollupResolution.values()) {
+            if (bucketCount(resolution, from, to) <= maxPoints) {
+                return resolution;
+            }
+        }
+        return RollupResolution.MONTH;
+    }
+
+    /**
+     * Split a minute-aligned range into the coarsest aligned buckets that fit inside it, e.g.
+     * 10:30 on Jan 30 to Mar 2 becomes minutes/hours/days up to Feb 1, February as one month bucket,
+     * then the day of Mar 1; consecutive buckets of one resolution are merged into one range
+     * @param from Start (inclusive), minute-aligned
+     * @param to End (exclusive), minute-aligned
+     * @return Ranges in time order
+     */
+    static List<RollupRange> cover(Instant from, Instant to) {
+        List<RollupRange> ranges = new ArrayList<>();
+        RollupResolution[] resolutions = RollupResolution.values();
+        Instant cursor = from;
+        while (cursor.isBefore(to)) {
+            RollupResolution chosen = RollupResolution.MINUTE;
+            for (int i = resolutions.length - 1; i > 0; i--) {
+                RollupResolution resolution = resolutions[i];
+                if (resolution.truncate(cursor).equals(cursor) && !resolution.next(cursor).isAfter(to)) {
+                    chosen = resolution;
+                    break;
+                }
+            }
+
+            Instant end = chosen.next(cursor);
+            RollupRange last = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+            if (last != null && last.resolution() == chosen && last.to().equals(cursor)) {
+                ranges.set(ranges.size() - 1, new RollupRange(chosen, last.from(), end));
+            } else {
+                ranges.add(new RollupRange(chosen, cursor, end));
+            }
+            cursor = end;
+        }
+        return ranges;
+    }
+
+    private static long bucketCount(RollupResolution resolution, Instant from, Instant to) {
+        return (to.toEpochMilli() - resolution.truncate(from).toEpochMilli()) / resolution.getNominalLength().toMillis() + 1;
+    }
+
+    private static void add(Map<BucketKey, Aggregate> buckets, EmissionReading reading,
+                            RollupResolution resolution, Instant bucketStart) {
+        BucketKey key = new BucketKey(reading.userId(), resolution, bucketStart, reading.activityType(), reading.unit());
+        buckets.computeIfAbsent(key, k -> new Aggregate()).add(reading.quantity());
+    }
+
+    /**
+     * Buckets of one resolution covering [from, to)
+     */
+    record RollupRange(RollupResolution resolution, Instant from, Instant to) {
+    }
+
+    private record BucketKey(Long userId, RollupResolution resolution, Instant bucketStart, String activityType, String unit) {
+    }
+
+    private static final class Aggregate {
+
+        private double sum;
+        private long count;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        private void add(double quantity) {
+            sum += quantity;
+            count++;
+            min = Math.min(min, quantity);
+            max = Math.max(max, quantity);
+        }
+    }
+
+    /**
+     * Binds the delta and key of each bucket; UPDATE_SQL and INSERT_SQL share the parameter order
+     */
+    private record BucketSetter(List<Map.Entry<BucketKey, Aggregate>> entries) implements BatchPreparedStatementSetter {
+
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+            BucketKey key = entries.get(i).getKey();
+            Aggregate aggregate = entries.get(i).getValue();
+            ps.setDouble(1, aggregate.sum);
+            ps.setLong(2, aggregate.count);
+            ps.setDouble(3, aggregate.min);
+            ps.setDouble(4, aggregate.max);
+            ps.setLong(5, key.userId());
+            ps.setString(6, key.resolution().name());
+            ps.setObject(7, UtcDateTime.of(key.bucketStart()));
+            ps.setString(8, key.activityType());
+            ps.setString(9, key.unit());
+        }
+
+        @Override
+        public int getBatchSize() {
+            return entries.size();
+        }
+    }
+}
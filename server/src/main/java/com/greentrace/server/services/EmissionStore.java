@@ -0,0 +1,40 @@
+package com.greentrace.server.services;
+
+import com.greentrace.server.model.EmissionReading;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Storage engine for emission activity readings
+ * Selected with app.emissions.store: "jdbc" (default) stores one relational row per reading in
+ * emission_activities, "timeseries" stores compressed per-series chunks on disk
+ * Both return scanned readings oldest first and never hold more than the requested number in memory
+ */
+public interface EmissionStore {
+
+    /**
+     * Store a batch of readings
+     * @param readings Validated readings, in any order
+     */
+    void append(List<EmissionReading> readings);
+
+    /**
+     * Check if appends join the caller's transaction and are rolled back with it
+     * @return True if append takes part in the surrounding transaction
+     */
+    default boolean isTransactional() {
+        return false;
+    }
+
+    /**
+     * Read the earliest of a user's readings in a time range
+     * @param userId User ID
+     * @param source Source to restrict to, or null for all sources
+     * @param from Start of the range (inclusive)
+     * @param to End of the range (exclusive)
+     * @param limit Maximum number of readings to return
+     * @return Up to limit readings ordered by occurredAt; readings with the same time come in no particular order
+     */
+    List<EmissionReading> scan(Long userId, String source, Instant from, Instant to, int limit);
+}
@@ -0,0 +1,308 @@
+package com.greentrace.server.services;
+
+import com.greentrace.server.dto.EmissionAggregate;
+import com.greentrace.server.model.EmissionReading;
+import com.greentrace.server.model.RollupResolution;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fan-out hub for the live dashboard feed (Server-Sent Events)
+ * Ingested batches are published as deltas per day, activity type and unit. Each subscriber keeps
+ * at most one pending delta per key: new deltas are merged into it until the subscriber's next
+ * send, so a slow client receives fewer, larger updates instead of an unbounded backlog. If a
+ * subscriber falls so far behind that more than max-pending-keys keys are waiting, its deltas are
+ * dropped and it is sent a "resync" event telling it to reload the totals.
+ *
+ * Connections are held by the servlet container in async mode; a virtual thread exists for a
+ * subscriber only while something is being sent to it, so idle connections cost no thread.
+ * A heartbeat comment is sent periodically to keep proxies from closing idle streams and to
+ * detect clients that went away
+ */
+@Component
+public class EmissionStreamHub {
+
+    private static final Logger log = LoggerFactory.getLogger(EmissionStreamHub.class);
+
+    private final long timeoutMillis;
+    private final int maxPendingKeys;
+    private final Map<Long, Set<Subscriber>> subscribersByUser = new ConcurrentHashMap<>();
+    private final ExecutorService sender = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("emission-stream-", 0).factory());
+
+    private final LongAdder subscriberCount = new LongAdder();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder resyncs = new LongAdder();
+
+    public EmissionStreamHub(
+            @Value("${app.dashboard.stream.timeout:1800000}") long timeoutMillis,
+            @Value("${app.dashboard.stream.max-pending-keys:256}") int maxPendingKeys
+    ) {
+        this.timeoutMillis = timeoutMillis;
+        this.maxPendingKeys = Math.max(1, maxPendingKeys);
+    }
+
+    /**
+     * Open a live feed for a user
+     * @param userId User ID
+     * @return Emitter to return from the controller; clients reconnect after the timeout
+     */
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        register(userId, emitter);
+        return emitter;
+    }
+
+    /**
+     * Attach an emitter to a user's feed
+     */
+    void register(Long userId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        subscribersByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        subscriberCount.increment();
+
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(() -> {
+            // Complete normally so the client just reconnects, instead of an error on a committed stream
+            subscriber.close();
+            emitter.complete();
+        });
+        emitter.onError(error -> subscriber.close());
+    }
+
+    /**
+     * Publish a stored batch to the user's subscribers
+     * Call after the batch is committed; returns without waiting for any client
+     * @param userId User the readings belong to
+     * @param readings Stored readings
+     */
+    public void publish(Long userId, List<EmissionReading> readings) {
+        Set<Subscriber> subscribers = subscribersByUser.get(userId);
+        if (subscribers == null || subscribers.isEmpty() || readings.isEmpty()) {
+            return;
+        }
+
+        Map<DeltaKey, Delta> deltas = new HashMap<>();
+        for (EmissionReading reading : readings) {
+            DeltaKey key = new DeltaKey(
+                    RollupResolution.DAY.truncate(reading.occurredAt()), reading.activityType(), reading.unit());
+            deltas.computeIfAbsent(key, k -> new Delta()).add(reading.quantity());
+        }
+        published.increment();
+        subscribers.forEach(subscriber -> subscriber.offer(deltas));
+    }
+
+    /**
+     * Send a heartbeat comment to every subscriber
+     */
+    @Scheduled(fixedDelayString = "${app.dashboard.stream.heartbeat-interval:15000}",
+            initialDelayString = "${app.dashboard.stream.heartbeat-interval:15000}")
+    public void heartbeat() {
+        subscribersByUser.values().forEach(subscribers -> subscribers.forEach(Subscriber::requestHeartbeat));
+    }
+
+    /**
+     * Close all feeds; clients reconnect to another instance or after the restart
+     */
+    @PreDestroy
+    public void shutdown() {
+        subscribersByUser.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        sender.shutdown();
+    }
+
+    /**
+     * Get a snapshot of the feed counters
+     * @return Stream statistics
+     */
+    public Stats stats() {
+        return new Stats(subscriberCount.sum(), published.sum(), sent.sum(), coalesced.sum(), resyncs.sum());
+    }
+
+    /**
+     * One open feed; pending state is guarded by its monitor, sends happen on one sender task at a time
+     */
+    private final class Subscriber {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+
+        private final Map<DeltaKey, Delta> pending = new HashMap<>();
+        private boolean resync;
+        private boolean heartbeat;
+        private boolean scheduled;
+        private boolean closed;
+
+        private Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private synchronized void offer(Map<DeltaKey, Delta> deltas) {
+            if (closed) {
+                return;
+            }
+            if (!resync) {
+                for (Map.Entry<DeltaKey, Delta> entry : deltas.entrySet()) {
+                    Delta delta = pending.get(entry.getKey());
+                    if (delta != null) {
+                        delta.merge(entry.getValue());
+                        coalesced.increment();
+                    } else if (pending.size() < maxPendingKeys) {
+                        pending.put(entry.getKey(), entry.getValue().copy());
+                    } else {
+                        // Too far behind: drop the deltas and have the client reload instead
+                        pending.clear();
+                        resync = true;
+                        resyncs.increment();
+                        break;
+                    }
+                }
+            }
+            schedule();
+        }
+
+        private synchronized void requestHeartbeat() {
+            if (!closed) {
+                heartbeat = true;
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            if (!scheduled) {
+                scheduled = true;
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    scheduled = false;
+                }
+            }
+        }
+
+        /**
+         * Send until nothing is pending; new deltas arriving meanwhile are merged and sent next round
+         */
+        private void drain() {
+            while (true) {
+                List<EmissionAggregate> updates;
+                boolean sendResync;
+                boolean sendHeartbeat;
+                synchronized (this) {
+                    if (closed || (pending.isEmpty() && !resync && !heartbeat)) {
+                        scheduled = false;
+                        return;
+                    }
+                    updates = new ArrayList<>(pending.size());
+                    pending.forEach((key, delta) -> updates.add(delta.toAggregate(key)));
+                    pending.clear();
+                    sendResync = resync;
+                    sendHeartbeat = heartbeat && updates.isEmpty() && !resync;
+                    resync = false;
+                    heartbeat = false;
+                }
+
+                try {
+                    if (sendResync) {
+                        emitter.send(SseEmitter.event().name("resync").data("reload"));
+                    }
+                    if (!updates.isEmpty()) {
+                        emitter.send(SseEmitter.event().name("emissions").data(updates));
+                        sent.increment();
+                    }
+                    if (sendHeartbeat) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // The client went away or the stream already ended; the container completes the request
+                    log.debug("Closing emission stream of user {}: {}", userId, e.getMessage());
+                    close();
+                }
+            }
+        }
+
+        private void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                pending.clear();
+            }
+            subscribersByUser.computeIfPresent(userId, (id, subscribers) -> {
+                subscribers.remove(this);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+            subscriberCount.decrement();
+        }
+    }
+
+    private record DeltaKey(Instant day, String activityType, String unit) {
+    }
+
+    /**
+     * Change of one day's aggregate since the last update sent
+     */
+    private static final class Delta {
+
+        private double sum;
+        private long count;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        private void add(double quantity) {
+            sum += quantity;
+            count++;
+            min = Math.min(min, quantity);
+            max = Math.max(max, quantity);
+        }
+
+        private void merge(Delta other) {
+            sum += other.sum;
+            count += other.count;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+
+        private Delta copy() {
+            Delta copy = new Delta();
+            copy.merge(this);
+            return copy;
+        }
+
+        private EmissionAggregate toAggregate(DeltaKey key) {
+            return new EmissionAggregate(key.day(), key.activityType(), key.unit(), sum, count, min, max);
+        }
+    }
+
+    /**
+     * Point-in-time feed counters
+     *
+     * @param subscribers Open feeds
+     * @param published Batches published to at least one subscriber
+     * @param sent Update events sent
+     * @param coalesced Deltas merged into one still waiting to be sent
+     * @param resyncs Times a subscriber fell too far behind and was told to reload
+     */
+    public record Stats(long subscribers, long published, long sent, long coalesced, long resyncs) {
+    }
+}
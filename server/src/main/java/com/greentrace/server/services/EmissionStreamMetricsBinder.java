@@ -0,0 +1,41 @@
+package com.greentrace.server.services;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * Emission Stream Metrics Binder
+ * Publishes the live dashboard feed counters kept by EmissionStreamHub as Micrometer meters;
+ * values are read at scrape time
+ */
+@Component
+public class EmissionStreamMetricsBinder implements MeterBinder {
+
+    private final EmissionStreamHub emissionStreamHub;
+
+    public EmissionStreamMetricsBinder(EmissionStreamHub emissionStreamHub) {
+        this.emissionStreamHub = emissionStreamHub;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("greentrace.dashboard.stream.subscribers", emissionStreamHub, hub -> hub.stats().subscribers())
+                .description("Open dashboard event streams")
+                .register(registry);
+        FunctionCounter.builder("greentrace.dashboard.stream.updates", emissionStreamHub, hub -> hub.stats().sent())
+                .description("Dashboard stream deltas by outcome")
+                .tag("outcome", "sent")
+                .register(registry);
+        FunctionCounter.builder("greentrace.dashboard.stream.updates", emissionStreamHub, hub -> hub.stats().coalesced())
+                .description("Dashboard stream deltas by outcome")
+                .tag("outcome", "coalesced")
+                .register(registry);
+        FunctionCounter.builder("greentrace.dashboard.stream.resyncs", emissionStreamHub, hub -> hub.stats().resyncs())
+                .description("Subscribers told to reload after falling behind")
+                .register(registry);
+    }
+}
@@ -0,0 +1,12 @@
+package com.greentrace.server.services;
+
+/**
+ * Thrown when login credentials are wrong or the account may not log in
+ * Responses never reveal which check failed
+ */
+public class InvalidCredentialsException extends IllegalArgumentException {
+
+    public InvalidCredentialsException(String message) {
+        super(message);
+    }
+}
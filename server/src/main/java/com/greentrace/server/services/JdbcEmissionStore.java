@@ -0,0 +1,78 @@
+package com.greentrace.server.services;
+
+import com.greentrace.server.model.EmissionReading;
+import com.greentrace.server.util.UtcDateTime;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * EmissionStore keeping one emission_activities row per reading
+ * Each append is one JDBC batch insert, joining the caller's transaction or running in its own
+ * occurred_at holds UTC wall-clock times, which the rollup backfill (V10) relies on
+ */
+@Component
+@ConditionalOnProperty(name = "app.emissions.store", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcEmissionStore implements EmissionStore {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO emission_activities (user_id, source, activity_type, quantity, unit, occurred_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_SQL =
+            "SELECT user_id, source, activity_type, quantity, unit, occurred_at FROM emission_activities"
+                    + " WHERE user_id = ? AND occurred_at >= ? AND occurred_at < ?";
+
+    // Served from the (user_id, occurred_at) index, so the database stops after limit rows
+    private static final String ORDER_SQL = " ORDER BY occurred_at LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public JdbcEmissionStore(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void append(List<EmissionReading> readings) {
+        if (readings.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_SQL, readings, readings.size(), (ps, reading) -> {
+                    ps.setLong(1, reading.userId());
+                    ps.setString(2, reading.source());
+                    ps.setString(3, reading.activityType());
+                    ps.setDouble(4, reading.quantity());
+                    ps.setString(5, reading.unit());
+                    ps.setObject(6, UtcDateTime.of(reading.occurredAt()));
+                }));
+    }
+
+    @Override
+    public boolean isTransactional() {
+        return true;
+    }
+
+    @Override
+    public List<EmissionReading> scan(Long userId, String source, Instant from, Instant to, int limit) {
+        List<Object> args = new ArrayList<>(List.of(userId, UtcDateTime.of(from), UtcDateTime.of(to)));
+        String sql = SELECT_SQL;
+        if (source != null) {
+            sql += " AND source = ?";
+            args.add(source);
+        }
+        args.add(limit);
+
+        return jdbcTemplate.query(sql + ORDER_SQL, (rs, row) -> new EmissionReading(
+                rs.getLong(1), rs.getString(2), rs.getString(3), rs.getDouble(4), rs.getString(5),
+                UtcDateTime.toInstant(rs.getObject(6, LocalDateTime.class))), args.toArray());
+    }
+}
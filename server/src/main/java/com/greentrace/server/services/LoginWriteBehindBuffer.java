@@ -0,0 +1,155 @@
+package com.greentrace.server.services;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for state changed by a successful login
+ * Coalesces last-login timestamps per user (latest wins) and pending password re-encodings,
+ * then writes them periodically as JDBC batch updates so login itself stays read-only
+ * Pending writes are flushed on shutdown; a crash loses at most one flush interval of timestamps
+ */
+@Component
+public class LoginWriteBehindBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginWriteBehindBuffer.class);
+
+    private static final String UPDATE_LAST_LOGIN_SQL =
+            "UPDATE users SET last_login = ? WHERE id = ? AND (last_login IS NULL OR last_login < ?)";
+
+    private static final String UPDATE_PASSWORD_SQL =
+            "UPDATE users SET password = ? WHERE id = ? AND password = ?";
+
+    private final ConcurrentHashMap<Long, LocalDateTime> pendingLogins = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, PasswordUpgrade> pendingPasswordUpgrades = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public LoginWriteBehindBuffer(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.login-write-behind.batch-size:500}") int batchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Record a successful login
+     * @param userId User ID
+     * @param loginTime Login timestamp
+     */
+    public void recordLogin(Long userId, LocalDateTime loginTime) {
+        pendingLogins.merge(userId, loginTime, (current, next) -> next.isAfter(current) ? next : current);
+    }
+
+    /**
+     * Record a password re-encoding (algorithm or cost change) to apply in the background
+     * The update only applies if the stored hash is still the one that was replaced
+     * @param userId User ID
+     * @param previousHash Hash that was verified during login
+     * @param newHash Re-encoded hash
+     */
+    public void recordPasswordUpgrade(Long userId, String previousHash, String newHash) {
+        pendingPasswordUpgrades.put(userId, new PasswordUpgrade(previousHash, newHash));
+    }
+
+    /**
+     * Get the number of users with unflushed changes
+     * @return Pending entries
+     */
+    public int pendingCount() {
+        return pendingLogins.size() + pendingPasswordUpgrades.size();
+    }
+
+    /**
+     * Write all pending changes as JDBC batches
+     * Runs periodically and on shutdown; only one flush runs at a time
+     */
+    @Scheduled(
+            fixedDelayString = "${app.login-write-behind.flush-interval:5000}",
+            initialDelayString = "${app.login-write-behind.flush-interval:5000}"
+    )
+    public synchronized void flush() {
+        flushLogins();
+        flushPasswordUpgrades();
+    }
+
+    /**
+     * Flush pending writes before the application stops
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void flushLogins() {
+        List<Map.Entry<Long, LocalDateTime>> batch = drain(pendingLogins);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN_SQL, batch, batchSize, (ps, entry) -> {
+                Timestamp loginTime = Timestamp.valueOf(entry.getValue());
+                ps.setTimestamp(1, loginTime);
+                ps.setLong(2, entry.getKey());
+                ps.setTimestamp(3, loginTime);
+            });
+            log.debug("Flushed {} last-login updates", batch.size());
+        } catch (DataAccessException e) {
+            // Keep the timestamps for the next attempt unless newer logins have replaced them
+            log.warn("Failed to flush {} last-login updates: {}", batch.size(), e.getMessage());
+            batch.forEach(entry -> recordLogin(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private void flushPasswordUpgrades() {
+        List<Map.Entry<Long, PasswordUpgrade>> batch = drain(pendingPasswordUpgrades);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_PASSWORD_SQL, batch, batchSize, (ps, entry) -> {
+                ps.setString(1, entry.getValue().newHash());
+                ps.setLong(2, entry.getKey());
+                ps.setString(3, entry.getValue().previousHash());
+            });
+        } catch (DataAccessException e) {
+            // Re-encoding is opportunistic; the next login will try again
+            log.warn("Failed to flush {} password re-encodings: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Remove and return all current entries of a pending map
+     * Entries added concurrently stay in the map for the next flush
+     */
+    private static <V> List<Map.Entry<Long, V>> drain(ConcurrentHashMap<Long, V> pending) {
+        List<Map.Entry<Long, V>> batch = new ArrayList<>(pending.size());
+        for (Long userId : pending.keySet()) {
+            V value = pending.remove(userId);
+            if (value != null) {
+                batch.add(Map.entry(userId, value));
+            }
+        }
+        return batch;
+    }
+
+    private record PasswordUpgrade(String previousHash, String newHash) {
+    }
+}
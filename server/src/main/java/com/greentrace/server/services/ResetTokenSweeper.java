@@ -0,0 +1,70 @@
+package com.greentrace.server.services;
+
+import com.greentrace.server.repository.PasswordResetTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reset Token Sweeper
+ * Periodically deletes expired password reset tokens in bounded chunks
+ * Each chunk is an ID lookup on the expires_at index followed by one batched delete in its own
+ * transaction, so a large backlog never holds locks on the whole table
+ */
+@Component
+public class ResetTokenSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(ResetTokenSweeper.class);
+
+    private final PasswordResetTokenRepository resetTokenRepository;
+    private final int chunkSize;
+    private final int maxChunks;
+
+    public ResetTokenSweeper(
+            PasswordResetTokenRepository resetTokenRepository,
+            @Value("${app.security.reset-tokens.sweep-chunk-size:1000}") int chunkSize,
+            @Value("${app.security.reset-tokens.sweep-max-chunks:100}") int maxChunks
+    ) {
+        this.resetTokenRepository = resetTokenRepository;
+        this.chunkSize = chunkSize;
+        this.maxChunks = maxChunks;
+    }
+
+    /**
+     * Delete expired reset tokens
+     * Stops after sweep-max-chunks chunks; anything left is picked up by the next run
+     * @return Number of deleted tokens
+     */
+    @Scheduled(
+            fixedDelayString = "${app.security.reset-tokens.sweep-interval:600000}",
+            initialDelayString = "${app.security.reset-tokens.sweep-interval:600000}"
+    )
+    public int sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        PageRequest chunk = PageRequest.ofSize(chunkSize);
+        int deleted = 0;
+
+        for (int i = 0; i < maxChunks; i++) {
+            List<Long> expiredIds = resetTokenRepository.findExpiredIds(now, chunk);
+            if (expiredIds.isEmpty()) {
+                break;
+            }
+            resetTokenRepository.deleteAllByIdInBatch(expiredIds);
+            deleted += expiredIds.size();
+            if (expiredIds.size() < chunkSize) {
+                break;
+            }
+        }
+
+        if (deleted > 0) {
+            log.debug("Deleted {} expired password reset tokens", deleted);
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,439 @@
+package com.greentrace.server.services;
+
+import com.greentrace.server.model.EmissionReading;
+import com.greentrace.server.util.GorillaDecoder;
+import com.greentrace.server.util.GorillaEncoder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * EmissionStore keeping compressed time series on disk
+ * Readings are grouped into series (user, source, activity type, unit) and each series into chunks
+ * covering one chunk-window of time, compressed with GorillaEncoder. Open chunks live in pooled
+ * direct buffers, at most max-open-chunks per series so out-of-order uploads do not produce a
+ * chunk per reading; a chunk is sealed when its buffer is full, when it has been idle for
+ * seal-after, when the series needs room for another window, and on shutdown.
+ *
+ * Sealed chunks are appended to one file per series, which is read through a single memory
+ * mapping (remapped when the file has grown). Scans skip chunks outside the requested range using
+ * the min/max timestamp kept for every chunk.
+ *
+ * Timestamps are stored with millisecond precision. Readings in open chunks are only in memory,
+ * so they are lost if the process dies before the chunk is sealed; sealed chunks are left to the
+ * OS to flush rather than forced to disk one by one
+ */
+@Component
+@ConditionalOnProperty(name = "app.emissions.store", havingValue = "timeseries")
+public class TimeSeriesEmissionStore implements EmissionStore {
+
+    private static final Logger log = LoggerFactory.getLogger(TimeSeriesEmissionStore.class);
+
+    private static final int FILE_MAGIC = 0x47545331;
+    private static final int CHUNK_MAGIC = 0x43484b31;
+    private static final String FILE_SUFFIX = ".series";
+
+    /**
+     * Magic, point count, min and max timestamp and data length written before each chunk
+     */
+    private static final int CHUNK_HEADER_BYTES = 4 + 4 + 8 + 8 + 4;
+    private static final int MIN_CHUNK_CAPACITY = 64;
+
+    private static final Comparator<EmissionReading> OLDEST_FIRST = Comparator.comparing(EmissionReading::occurredAt);
+
+    private final Path directory;
+    private final long windowMillis;
+    private final int chunkCapacity;
+    private final int maxOpenChunks;
+    private final long sealAfterNanos;
+    private final BlockingQueue<ByteBuffer> bufferPool;
+    private final Map<Long, Map<SeriesKey, Series>> seriesByUser = new ConcurrentHashMap<>();
+
+    public TimeSeriesEmissionStore(
+            @Value("${app.emissions.timeseries.directory:data/emission-series}") String directory,
+            @Value("${app.emissions.timeseries.chunk-window:86400000}") long windowMillis,
+            @Value("${app.emissions.timeseries.chunk-capacity:16384}") int chunkCapacity,
+            @Value("${app.emissions.timeseries.max-open-chunks:8}") int maxOpenChunks,
+            @Value("${app.emissions.timeseries.seal-after:60000}") long sealAfterMillis,
+            @Value("${app.emissions.timeseries.buffer-pool-size:256}") int bufferPoolSize
+    ) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("app.emissions.timeseries.chunk-window must be positive");
+        }
+        if (chunkCapacity < MIN_CHUNK_CAPACITY) {
+            throw new IllegalArgumentException(
+                    "app.emissions.timeseries.chunk-capacity must be at least " + MIN_CHUNK_CAPACITY + " bytes");
+        }
+        this.directory = Path.of(directory);
+        this.windowMillis = windowMillis;
+        this.chunkCapacity = chunkCapacity;
+        this.maxOpenChunks = Math.max(1, maxOpenChunks);
+        this.sealAfterNanos = TimeUnit.MILLISECONDS.toNanos(sealAfterMillis);
+        this.bufferPool = new ArrayBlockingQueue<>(Math.max(1, bufferPoolSize));
+    }
+
+    /**
+     * Load the chunk index of every series file under the directory
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        int chunks = 0;
+        try (Stream<Path> files = Files.walk(directory, 2)) {
+            for (Path file : files.filter(file -> file.getFileName().toString().endsWith(FILE_SUFFIX)).toList()) {
+                Series series = load(file);
+                seriesByUser.computeIfAbsent(series.key.userId(), id -> new ConcurrentHashMap<>()).put(series.key, series);
+                chunks += series.sealed.size();
+            }
+        }
+        log.info("Opened emission time series store in {} ({} chunks)", directory.toAbsolutePath(), chunks);
+    }
+
+    /**
+     * Seal all open chunks so they survive the restart
+     */
+    @PreDestroy
+    public void close() {
+        seriesByUser.values().forEach(userSeries -> userSeries.values().forEach(series -> {
+            synchronized (series) {
+                sealQuietly(series, series.windows());
+            }
+        }));
+    }
+
+    @Override
+    public void append(List<EmissionReading> readings) {
+        try {
+            for (EmissionReading reading : readings) {
+                SeriesKey key = new SeriesKey(reading.userId(), reading.source(), reading.activityType(), reading.unit());
+                Series series = seriesByUser
+                        .computeIfAbsent(key.userId(), id -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(key, this::newSeries);
+                synchronized (series) {
+                    series.append(reading.occurredAt().toEpochMilli(), reading.quantity());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to seal emission chunk", e);
+        }
+    }
+
+    /**
+     * Chunks are decoded in order of their first timestamp while a bounded heap keeps the earliest
+     * limit readings; once the heap is full, chunks starting after its latest reading are skipped
+     */
+    @Override
+    public List<EmissionReading> scan(Long userId, String source, Instant from, Instant to, int limit) {
+        Map<SeriesKey, Series> userSeries = seriesByUser.get(userId);
+        if (userSeries == null || limit <= 0) {
+            return List.of();
+        }
+
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        List<ChunkData> chunks = new ArrayList<>();
+        for (Series series : userSeries.values()) {
+            if (source == null || source.equals(series.key.source())) {
+                chunks.addAll(series.snapshot(fromMillis, toMillis));
+            }
+        }
+        chunks.sort(Comparator.comparingLong(ChunkData::minTimestamp));
+
+        PriorityQueue<EmissionReading> earliest = new PriorityQueue<>(OLDEST_FIRST.reversed());
+        for (ChunkData chunk : chunks) {
+            if (earliest.size() == limit && chunk.minTimestamp() > latestMillis(earliest)) {
+                break;
+            }
+            SeriesKey key = chunk.key();
+            GorillaDecoder decoder = new GorillaDecoder(chunk.data(), chunk.count());
+            while (decoder.next()) {
+                long timestamp = decoder.timestamp();
+                if (timestamp < fromMillis || timestamp >= toMillis) {
+                    continue;
+                }
+                if (earliest.size() == limit) {
+                    if (timestamp >= latestMillis(earliest)) {
+                        continue;
+                    }
+                    earliest.poll();
+                }
+                earliest.add(new EmissionReading(userId, key.source(), key.activityType(), decoder.value(), key.unit(),
+                        Instant.ofEpochMilli(timestamp)));
+            }
+        }
+
+        List<EmissionReading> readings = new ArrayList<>(earliest);
+        readings.sort(OLDEST_FIRST);
+        return readings;
+    }
+
+    private static long latestMillis(PriorityQueue<EmissionReading> earliest) {
+        return earliest.peek().occurredAt().toEpochMilli();
+    }
+
+    /**
+     * Seal open chunks that received no readings for seal-after
+     */
+    @Scheduled(fixedDelayString = "${app.emissions.timeseries.seal-after:60000}",
+            initialDelayString = "${app.emissions.timeseries.seal-after:60000}")
+    public void sealIdle() {
+        long now = System.nanoTime();
+        seriesByUser.values().forEach(userSeries -> userSeries.values().forEach(series -> {
+            synchronized (series) {
+                List<Long> idle = series.open.entrySet().stream()
+                        .filter(entry -> now - entry.getValue().lastAppendNanos >= sealAfterNanos)
+                        .map(Map.Entry::getKey)
+                        .toList();
+                sealQuietly(series, idle);
+            }
+        }));
+    }
+
+    private void sealQuietly(Series series, List<Long> windows) {
+        for (Long window : windows) {
+            try {
+                series.seal(window);
+            } catch (IOException e) {
+                log.warn("Failed to seal emission chunk of {}: {}", series.file, e.getMessage());
+            }
+        }
+    }
+
+    private Series newSeries(SeriesKey key) {
+        String name = UUID.nameUUIDFromBytes(
+                (key.source() + '\0' + key.activityType() + '\0' + key.unit()).getBytes(StandardCharsets.UTF_8)) + FILE_SUFFIX;
+        return new Series(key, directory.resolve(String.valueOf(key.userId())).resolve(name));
+    }
+
+    /**
+     * Read the chunk index of a series file; a torn chunk at the end (crash while sealing) is cut off
+     */
+    private Series load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.remaining() < 4 || mapped.getInt() != FILE_MAGIC) {
+                throw new IOException("Not an emission series file: " + file);
+            }
+            SeriesKey key = new SeriesKey(mapped.getLong(), readString(mapped), readString(mapped), readString(mapped));
+            Series series = new Series(key, file);
+
+            while (mapped.remaining() >= CHUNK_HEADER_BYTES) {
+                int start = mapped.position();
+                if (mapped.getInt() != CHUNK_MAGIC) {
+                    mapped.position(start);
+                    break;
+                }
+                int count = mapped.getInt();
+                long minTimestamp = mapped.getLong();
+                long maxTimestamp = mapped.getLong();
+                int length = mapped.getInt();
+                if (length < 0 || mapped.remaining() < length) {
+                    mapped.position(start);
+                    break;
+                }
+                series.sealed.add(new Chunk(count, minTimestamp, maxTimestamp, mapped.position(), length));
+                mapped.position(mapped.position() + length);
+            }
+
+            if (mapped.hasRemaining()) {
+                log.warn("Truncating {} bytes of incomplete chunk data in {}", mapped.remaining(), file);
+                channel.truncate(mapped.position());
+            }
+            series.fileSize = mapped.position();
+            series.mapped = mapped;
+            series.mappedSize = mapped.position();
+            return series;
+        }
+    }
+
+    private static void writeString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xffff];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * One series: the index of its sealed chunks and its open chunks by window; guarded by its own monitor
+     */
+    private final class Series {
+
+        private final SeriesKey key;
+        private final Path file;
+        private final List<Chunk> sealed = new ArrayList<>();
+        private final Map<Long, OpenChunk> open = new HashMap<>();
+
+        private long fileSize;
+        private MappedByteBuffer mapped;
+        private long mappedSize;
+
+        private Series(SeriesKey key, Path file) {
+            this.key = key;
+            this.file = file;
+        }
+
+        private void append(long timestamp, double value) throws IOException {
+            long window = Math.floorDiv(timestamp, windowMillis);
+            OpenChunk chunk = open.get(window);
+            if (chunk != null && !chunk.encoder.append(timestamp, value)) {
+                seal(window);
+                chunk = null;
+            }
+            if (chunk == null) {
+                if (open.size() >= maxOpenChunks) {
+                    seal(leastRecentlyAppended());
+                }
+                chunk = new OpenChunk(bufferPool.poll());
+                open.put(window, chunk);
+                chunk.encoder.append(timestamp, value);
+            }
+            chunk.lastAppendNanos = System.nanoTime();
+        }
+
+        private long leastRecentlyAppended() {
+            return open.entrySet().stream()
+                    .min(Comparator.comparingLong(entry -> entry.getValue().lastAppendNanos))
+                    .orElseThrow()
+                    .getKey();
+        }
+
+        private List<Long> windows() {
+            return List.copyOf(open.keySet());
+        }
+
+        /**
+         * Get the chunks that may hold readings in [fromMillis, toMillis); open chunks are copied so
+         * they can be read without holding the lock
+         */
+        private synchronized List<ChunkData> snapshot(long fromMillis, long toMillis) {
+            List<ChunkData> chunks = new ArrayList<>();
+            for (Chunk chunk : sealed) {
+                if (chunk.maxTimestamp() >= fromMillis && chunk.minTimestamp() < toMillis) {
+                    chunks.add(new ChunkData(key, chunk.count(), chunk.minTimestamp(),
+                            mapped().slice((int) chunk.offset(), chunk.length())));
+                }
+            }
+            for (OpenChunk chunk : open.values()) {
+                GorillaEncoder encoder = chunk.encoder;
+                if (encoder.maxTimestamp() >= fromMillis && encoder.minTimestamp() < toMillis) {
+                    ByteBuffer copy = ByteBuffer.allocate(encoder.sizeInBytes());
+                    copy.put(0, chunk.buffer, 0, copy.capacity());
+                    chunks.add(new ChunkData(key, encoder.count(), encoder.minTimestamp(), copy));
+                }
+            }
+            return chunks;
+        }
+
+        /**
+         * Get a mapping of the whole file, remapping it if chunks were sealed since the last one
+         */
+        private MappedByteBuffer mapped() {
+            if (mappedSize < fileSize) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+                    mappedSize = fileSize;
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to map " + file, e);
+                }
+            }
+            return mapped;
+        }
+
+        /**
+         * Append an open chunk to the series file; its buffer goes back to the pool
+         */
+        private void seal(long window) throws IOException {
+            OpenChunk chunk = open.get(window);
+            if (chunk == null) {
+                return;
+            }
+
+            GorillaEncoder encoder = chunk.encoder;
+            int length = encoder.sizeInBytes();
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(1024);
+                if (fileSize == 0) {
+                    header.putInt(FILE_MAGIC).putLong(key.userId());
+                    writeString(header, key.source());
+                    writeString(header, key.activityType());
+                    writeString(header, key.unit());
+                }
+                header.putInt(CHUNK_MAGIC).putInt(encoder.count())
+                        .putLong(encoder.minTimestamp()).putLong(encoder.maxTimestamp()).putInt(length)
+                        .flip();
+                long offset = fileSize + header.remaining();
+                ByteBuffer data = chunk.buffer.duplicate().position(0).limit(length);
+
+                channel.position(fileSize);
+                while (header.hasRemaining() || data.hasRemaining()) {
+                    channel.write(new ByteBuffer[] {header, data});
+                }
+                sealed.add(new Chunk(encoder.count(), encoder.minTimestamp(), encoder.maxTimestamp(), offset, length));
+                fileSize = offset + length;
+            }
+
+            open.remove(window);
+            bufferPool.offer(chunk.buffer);
+        }
+    }
+
+    /**
+     * Chunk being written, in a direct buffer taken from the pool when possible
+     */
+    private final class OpenChunk {
+
+        private final ByteBuffer buffer;
+        private final GorillaEncoder encoder;
+        private long lastAppendNanos;
+
+        private OpenChunk(ByteBuffer pooled) {
+            this.buffer = pooled != null ? pooled : ByteBuffer.allocateDirect(chunkCapacity);
+            this.encoder = new GorillaEncoder(buffer);
+        }
+    }
+
+    private record SeriesKey(Long userId, String source, String activityType, String unit) {
+    }
+
+    /**
+     * Sealed chunk: position of its data in the series file
+     */
+    private record Chunk(int count, long minTimestamp, long maxTimestamp, long offset, int length) {
+    }
+
+    private record ChunkData(SeriesKey key, int count, long minTimestamp, ByteBuffer data) {
+    }
+}
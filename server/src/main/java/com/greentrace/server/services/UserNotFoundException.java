@@ -0,0 +1,11 @@
+package com.greentrace.server.services;
+
+/**
+ * Thrown when a user looked up by email or ID does not exist
+ */
+public class UserNotFoundException extends IllegalArgumentException {
+
+    public UserNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,265 @@
+package com.greentrace.server.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.greentrace.server.dto.ProvisioningReport;
+import com.greentrace.server.dto.ProvisioningReport.RowResult;
+import com.greentrace.server.dto.ProvisioningReport.Status;
+import com.greentrace.server.dto.SignUpRequest;
+import com.greentrace.server.model.User;
+import com.greentrace.server.repository.UserRepository;
+import com.greentrace.server.security.PasswordHashingService;
+import com.greentrace.server.security.PasswordPolicy;
+import com.greentrace.server.util.CsvLineParser;
+import com.greentrace.server.util.RecordFormat;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * UserProvisioningService for bulk user onboarding
+ * Streams CSV or NDJSON uploads line by line, hashes passwords in parallel per chunk,
+ * and inserts each chunk in one transaction using Hibernate JDBC batching
+ * Existing emails are detected by the unique constraint, not by per-row existence checks
+ */
+@Service
+public class UserProvisioningService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserProvisioningService.class);
+
+    private static final List<String> CSV_COLUMNS = List.of("firstname", "lastname", "email", "password");
+
+    private final UserRepository userRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final PasswordPolicy passwordPolicy;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxRows;
+
+    public UserProvisioningService(
+            UserRepository userRepository,
+            PasswordHashingService passwordHashingService,
+            PasswordPolicy passwordPolicy,
+            TransactionTemplate transactionTemplate,
+            Validator validator,
+            ObjectMapper objectMapper,
+            @Value("${app.provisioning.chunk-size:500}") int chunkSize,
+            @Value("${app.provisioning.max-rows:100000}") int maxRows
+    ) {
+        this.userRepository = userRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.passwordPolicy = passwordPolicy;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Provision users from a streamed upload
+     * Each chunk is committed independently, so earlier chunks stay created if a later one fails
+     * @param body Upload body
+     * @param format Upload format
+     * @return Per-line provisioning report
+     * @throws IOException if the body cannot be read
+     * @throws IllegalArgumentException if the CSV header is missing required columns
+     */
+    public ProvisioningReport provision(InputStream body, RecordFormat format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        List<RowResult> results = new ArrayList<>();
+        List<PendingUser> chunk = new ArrayList<>(chunkSize);
+        Set<String> seenInChunk = new HashSet<>();
+
+        int lineNumber = 0;
+        int rows = 0;
+        boolean truncated = false;
+
+        Map<String, Integer> csvColumns = null;
+        if (format == RecordFormat.CSV) {
+            csvColumns = readCsvHeader(reader.readLine());
+            lineNumber++;
+        }
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (rows++ >= maxRows) {
+                truncated = true;
+                break;
+            }
+
+            SignUpRequest request;
+            try {
+                request = format == RecordFormat.CSV
+                        ? parseCsv(line, csvColumns)
+                        : objectMapper.readValue(line, SignUpRequest.class);
+            } catch (Exception e) {
+                results.add(new RowResult(lineNumber, null, Status.INVALID, null, "Malformed record"));
+                continue;
+            }
+
+            Set<ConstraintViolation<SignUpRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                results.add(new RowResult(lineNumber, request.getEmail(), Status.INVALID, null, message));
+                continue;
+            }
+
+            try {
+                passwordPolicy.validate(request.getPassword());
+            } catch (IllegalArgumentException e) {
+                results.add(new RowResult(lineNumber, request.getEmail(), Status.INVALID, null, e.getMessage()));
+                continue;
+            }
+
+            String normalizedEmail = User.normalizeEmail(request.getEmail());
+            if (!seenInChunk.add(normalizedEmail)) {
+                results.add(new RowResult(lineNumber, normalizedEmail, Status.DUPLICATE, null, "Email appears more than once in the upload"));
+                continue;
+            }
+
+            chunk.add(new PendingUser(lineNumber, request));
+            if (chunk.size() >= chunkSize) {
+                insertChunk(chunk, results);
+                chunk.clear();
+                seenInChunk.clear();
+            }
+        }
+        insertChunk(chunk, results);
+
+        results.sort((a, b) -> Integer.compare(a.line(), b.line()));
+        ProvisioningReport report = summarize(results, truncated);
+        log.info("Provisioned {} users ({} duplicates, {} invalid, {} failed)",
+                report.created(), report.duplicates(), report.invalid(), report.failed());
+        return report;
+    }
+
+    /**
+     * Hash and insert one chunk of validated users
+     * Falls back to row-by-row inserts when the batch hits the unique constraint
+     */
+    private void insertChunk(List<PendingUser> chunk, List<RowResult> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        List<String> hashes = passwordHashingService.encodeAll(
+                chunk.stream().map(pending -> pending.request().getPassword()).toList());
+
+        List<User> users = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            users.add(toUser(chunk.get(i).request(), hashes.get(i)));
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> userRepository.saveAllAndFlush(users));
+            for (int i = 0; i < chunk.size(); i++) {
+                results.add(new RowResult(chunk.get(i).line(), users.get(i).getEmail(), Status.CREATED, users.get(i).getId(), null));
+            }
+            return;
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Batch insert hit a unique constraint, retrying {} rows individually", chunk.size());
+        }
+
+        for (int i = 0; i < chunk.size(); i++) {
+            User user = toUser(chunk.get(i).request(), hashes.get(i));
+            try {
+                transactionTemplate.executeWithoutResult(status -> userRepository.saveAndFlush(user));
+                results.add(new RowResult(chunk.get(i).line(), user.getEmail(), Status.CREATED, user.getId(), null));
+            } catch (DataIntegrityViolationException e) {
+                if (DuplicateEmailException.isCausedBy(e)) {
+                    results.add(new RowResult(chunk.get(i).line(), user.getEmail(), Status.DUPLICATE, null, "User with this email already exists"));
+                } else {
+                    log.warn("Failed to provision line {}: {}", chunk.get(i).line(), e.getMostSpecificCause().getMessage());
+                    results.add(new RowResult(chunk.get(i).line(), user.getEmail(), Status.FAILED, null,
+                            "Could not be stored: " + e.getMostSpecificCause().getMessage()));
+                }
+            }
+        }
+    }
+
+    private static User toUser(SignUpRequest request, String passwordHash) {
+        return User.builder()
+                .firstName(request.getFirstName().trim())
+                .lastName(request.getLastName().trim())
+                .email(User.normalizeEmail(request.getEmail()))
+                .password(passwordHash)
+                .isActive(true)
+                .emailVerified(false)
+                .build();
+    }
+
+    /**
+     * Map CSV header names (case-insensitive) to column positions
+     */
+    private static Map<String, Integer> readCsvHeader(String header) {
+        if (header == null) {
+            throw new IllegalArgumentException("CSV upload is empty");
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = CsvLineParser.split(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+
+        if (!columns.keySet().containsAll(CSV_COLUMNS)) {
+            throw new IllegalArgumentException("CSV header must contain columns: firstName, lastName, email, password");
+        }
+        return columns;
+    }
+
+    private static SignUpRequest parseCsv(String line, Map<String, Integer> columns) {
+        List<String> fields = CsvLineParser.split(line);
+        String[] values = new String[CSV_COLUMNS.size()];
+        for (int i = 0; i < values.length; i++) {
+            int index = columns.get(CSV_COLUMNS.get(i));
+            values[i] = index < fields.size() ? fields.get(index) : null;
+        }
+        return new SignUpRequest(values[0], values[1], values[2], values[3]);
+    }
+
+    private static ProvisioningReport summarize(List<RowResult> results, boolean truncated) {
+        int[] counts = new int[Status.values().length];
+        results.forEach(result -> counts[result.status().ordinal()]++);
+        return new ProvisioningReport(
+                results.size(),
+                counts[Status.CREATED.ordinal()],
+                counts[Status.DUPLICATE.ordinal()],
+                counts[Status.INVALID.ordinal()],
+                counts[Status.FAILED.ordinal()],
+                truncated,
+                results
+        );
+    }
+
+    private record PendingUser(int line, SignUpRequest request) {
+    }
+}
@@ -1,94 +1,176 @@
 package com.greentrace.server.services;
 
+import com.greentrace.server.model.AuditEventType;
+import com.greentrace.server.model.PasswordResetToken;
 import com.greentrace.server.model.User;
+import com.greentrace.server.repository.PasswordResetTokenRepository;
 import com.greentrace.server.repository.UserRepository;
 import com.greentrace.server.dto.SignUpRequest;
+import com.greentrace.server.security.JwtPrincipal;
 import com.greentrace.server.security.JwtService;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import com.greentrace.server.security.PasswordHashingService;
+import com.greentrace.server.security.PasswordPolicy;
+import com.greentrace.server.security.TokenRevocationStore;
+import com.greentrace.server.security.UserStatusRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.HexFormat;
 import java.util.Optional;
 import java.util.UUID;
 
 /**
  * UserService for handling user operations
  * Manages user registration, authentication, and profile operations
+ * Signup, login and password reset hash passwords outside any transaction: the user is read in the
+ * repository's own short transaction and the write runs in a separate one, so no database connection
+ * is held while waiting for the hashing pool
  */
 @Service
 @Transactional
 public class UserService {
 
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtService jwtService;
-
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService) {
+    private final UserStatusRegistry userStatusRegistry;
+    private final LoginWriteBehindBuffer loginWriteBehindBuffer;
+    private final PasswordPolicy passwordPolicy;
+    private final TokenRevocationStore tokenRevocationStore;
+    private final AuditTrail auditTrail;
+    private final PasswordResetTokenRepository resetTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration resetTokenTtl;
+
+    public UserService(
+            UserRepository userRepository,
+            PasswordHashingService passwordHashingService,
+            JwtService jwtService,
+            UserStatusRegistry userStatusRegistry,
+            LoginWriteBehindBuffer loginWriteBehindBuffer,
+            PasswordPolicy passwordPolicy,
+            TokenRevocationStore tokenRevocationStore,
+            AuditTrail auditTrail,
+            PasswordResetTokenRepository resetTokenRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.security.reset-tokens.ttl:86400000}") long resetTokenTtlMillis
+    ) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
         this.jwtService = jwtService;
+        this.userStatusRegistry = userStatusRegistry;
+        this.loginWriteBehindBuffer = loginWriteBehindBuffer;
+        this.passwordPolicy = passwordPolicy;
+        this.tokenRevocationStore = tokenRevocationStore;
+        this.auditTrail = auditTrail;
+        this.resetTokenRepository = resetTokenRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.resetTokenTtl = Duration.ofMillis(resetTokenTtlMillis);
     }
 
     /**
      * Register a new user
      * @param request SignUp request with user details
      * @return Created User entity
+     * @throws DuplicateEmailException if the email is already registered
      * @throws IllegalArgumentException if validation fails
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public User signUp(SignUpRequest request) {
         // Validate input
         validateSignUpRequest(request);
         
         // Check if user already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new IllegalArgumentException("User with email " + request.getEmail() + " already exists.");
+        if (userRepository.existsByNormalizedEmail(User.normalizeEmail(request.getEmail()))) {
+            throw new DuplicateEmailException("User with email " + request.getEmail() + " already exists.");
         }
 
         // Create User Entity
         User user = User.builder()
                 .firstName(request.getFirstName().trim())
                 .lastName(request.getLastName().trim())
-                .email(request.getEmail().toLowerCase().trim())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .email(User.normalizeEmail(request.getEmail()))
+                .password(passwordHashingService.encode(request.getPassword()))
                 .isActive(true)
                 .emailVerified(false)
                 .build();
 
-        // Save User to Database
-        User savedUser = userRepository.save(user);
+        // Save User to Database; flushed here so a concurrent signup with the same email
+        // surfaces as a duplicate instead of failing at commit
+        User savedUser;
+        try {
+            savedUser = transactionTemplate.execute(status -> {
+                User saved = userRepository.saveAndFlush(user);
+                afterCommit(() -> auditTrail.record(AuditEventType.SIGNUP, saved.getId(), saved.getEmail(), null));
+                return saved;
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (DuplicateEmailException.isCausedBy(e)) {
+                throw new DuplicateEmailException("User with email " + request.getEmail() + " already exists.");
+            }
+            throw e;
+        }
         
-        // Log successful registration
-        System.out.println("New user registered: " + savedUser.getEmail());
+        // Log successful registration (by ID, to keep email addresses out of the logs)
+        log.info("New user registered: id={}", savedUser.getId());
         
         return savedUser;
     }
 
     /**
      * Authenticate user and generate JWT token
+     * Runs without a transaction; the last-login timestamp and any password re-encoding are written behind
      * @param email User email
      * @param password User password
      * @return Authenticated User entity
-     * @throws IllegalArgumentException if authentication fails
+     * @throws InvalidCredentialsException if authentication fails
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public User login(String email, String password) {
-        // Find user by email (case insensitive)
-        User user = userRepository.findByEmailIgnoreCase(email.toLowerCase().trim())
-                .orElseThrow(() -> new IllegalArgumentException("Invalid email or password"));
+        // Find user by normalized email (index lookup)
+        User user = userRepository.findByNormalizedEmail(User.normalizeEmail(email)).orElse(null);
+        if (user == null) {
+            auditTrail.record(AuditEventType.LOGIN_FAILED, null, email, "unknown account");
+            throw new InvalidCredentialsException("Invalid email or password");
+        }
 
         // Check if account is active
         if (!user.getIsActive()) {
-            throw new IllegalArgumentException("Account is deactivated. Please contact support.");
+            auditTrail.record(AuditEventType.LOGIN_FAILED, user.getId(), user.getEmail(), "account deactivated");
+            throw new InvalidCredentialsException("Account is deactivated. Please contact support.");
         }
 
         // Verify password
-        if (!passwordEncoder.matches(password, user.getPassword())) {
-            throw new IllegalArgumentException("Invalid email or password");
+        if (!passwordHashingService.matches(password, user.getPassword())) {
+            auditTrail.record(AuditEventType.LOGIN_FAILED, user.getId(), user.getEmail(), "wrong password");
+            throw new InvalidCredentialsException("Invalid email or password");
+        }
+
+        // Re-encode the password if it was hashed with another algorithm or cost
+        if (passwordHashingService.upgradeEncoding(user.getPassword())) {
+            loginWriteBehindBuffer.recordPasswordUpgrade(
+                    user.getId(), user.getPassword(), passwordHashingService.encode(password));
         }
 
-        // Update last login timestamp
+        // Update last login timestamp (the entity is detached here, so this only affects the response)
         user.setLastLogin(LocalDateTime.now());
-        userRepository.save(user);
+        loginWriteBehindBuffer.recordLogin(user.getId(), user.getLastLogin());
+        auditTrail.record(AuditEventType.LOGIN_SUCCEEDED, user.getId(), user.getEmail(), null);
 
         return user;
     }
@@ -99,7 +181,27 @@ public class UserService {
      * @return JWT token string
      */
     public String generateToken(User user) {
-        return jwtService.generateToken(user.getEmail(), user.getId());
+        return jwtService.generateToken(user.getEmail(), user.getId(), user.getSecurityEpoch());
+    }
+
+    /**
+     * Log out by revoking a token until it expires
+     * Invalid or expired tokens are ignored, so logout is idempotent
+     * @param token JWT token
+     * @return Email of the token owner, or null if the token was not valid
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String logout(String token) {
+        JwtPrincipal principal;
+        try {
+            principal = jwtService.verifyToken(token);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        tokenRevocationStore.revoke(principal);
+        auditTrail.record(AuditEventType.LOGOUT, principal.userId(), principal.email(), null);
+        return principal.email();
     }
 
     /**
@@ -108,7 +210,7 @@ public class UserService {
      * @return Optional User entity
      */
     public Optional<User> findByEmail(String email) {
-        return userRepository.findByEmailIgnoreCase(email.toLowerCase().trim());
+        return userRepository.findByNormalizedEmail(User.normalizeEmail(email));
     }
 
     /**
@@ -122,50 +224,78 @@ public class UserService {
 
     /**
      * Generate password reset token
+     * Replaces any outstanding token of the user; only the token's digest is stored
      * @param email User email
      * @return Reset token string
-     * @throws IllegalArgumentException if user not found
+     * @throws UserNotFoundException if user not found
      */
     public String generateResetToken(String email) {
-        User user = userRepository.findByEmailIgnoreCase(email.toLowerCase().trim())
-                .orElseThrow(() -> new IllegalArgumentException("User not found with email: " + email));
+        User user = userRepository.findByNormalizedEmail(User.normalizeEmail(email))
+                .orElseThrow(() -> new UserNotFoundException("User not found with email: " + email));
 
         // Generate unique reset token
         String resetToken = UUID.randomUUID().toString();
         
-        // Set token and expiry (24 hours from now)
-        user.setResetToken(resetToken);
-        user.setResetTokenExpiry(LocalDateTime.now().plusHours(24));
-        
-        userRepository.save(user);
+        // Store its digest with the expiry (24 hours from now by default)
+        LocalDateTime now = LocalDateTime.now();
+        resetTokenRepository.deleteByUserId(user.getId());
+        resetTokenRepository.save(PasswordResetToken.builder()
+                .tokenHash(hashResetToken(resetToken))
+                .userId(user.getId())
+                .expiresAt(now.plus(resetTokenTtl))
+                .createdAt(now)
+                .build());
+        afterCommit(() -> auditTrail.record(AuditEventType.PASSWORD_RESET_REQUESTED, user.getId(), user.getEmail(), null));
         
         return resetToken;
     }
 
     /**
      * Reset password using reset token
+     * The token is consumed with a conditional delete, so concurrent requests with the same
+     * token cannot both succeed; the new password is hashed before the consuming transaction starts
      * @param token Reset token
      * @param newPassword New password
-     * @throws IllegalArgumentException if token is invalid or expired
+     * @throws IllegalArgumentException if token is invalid, expired or already used
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void resetPassword(String token, String newPassword) {
-        User user = userRepository.findByResetToken(token)
+        String tokenHash = hashResetToken(token);
+
+        // Point lookup on the unique digest index
+        PasswordResetToken resetToken = resetTokenRepository.findByTokenHash(tokenHash)
                 .orElseThrow(() -> new IllegalArgumentException("Invalid reset token"));
 
-        // Check if token is expired
-        if (!user.isResetTokenValid()) {
+        // Check if token is expired (the sweeper deletes it later)
+        if (resetToken.isExpired()) {
             throw new IllegalArgumentException("Reset token has expired");
         }
 
-        // Validate new password
-        validatePassword(newPassword);
+        // Validate and hash the new password before locking the token row
+        passwordPolicy.validate(newPassword);
+        String passwordHash = passwordHashingService.encode(newPassword);
 
-        // Update password and clear reset token
-        user.setPassword(passwordEncoder.encode(newPassword));
-        user.setResetToken(null);
-        user.setResetTokenExpiry(null);
-        
-        userRepository.save(user);
+        transactionTemplate.executeWithoutResult(status -> {
+            // Consume the reset token; a concurrent request that got here first leaves nothing to delete
+            if (resetTokenRepository.deleteUnexpiredByTokenHash(tokenHash, LocalDateTime.now()) != 1) {
+                throw new IllegalArgumentException("Invalid reset token");
+            }
+
+            User user = userRepository.findById(resetToken.getUserId())
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid reset token"));
+
+            // Update password
+            user.setPassword(passwordHash);
+
+            // Revoke all tokens issued with the old password
+            user.bumpSecurityEpoch();
+
+            userRepository.save(user);
+            afterCommit(() -> {
+                userStatusRegistry.update(user);
+                auditTrail.record(AuditEventType.PASSWORD_RESET, user.getId(), user.getEmail(), null);
+            });
+        });
     }
 
     /**
@@ -174,11 +304,11 @@ public class UserService {
      * @param firstName New first name
      * @param lastName New last name
      * @return Updated User entity
-     * @throws IllegalArgumentException if user not found
+     * @throws UserNotFoundException if user not found
      */
     public User updateProfile(Long userId, String firstName, String lastName) {
         User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
 
         // Validate and update names
         if (firstName != null && !firstName.trim().isEmpty()) {
@@ -194,14 +324,55 @@ public class UserService {
     /**
      * Deactivate user account
      * @param userId User ID
-     * @throws IllegalArgumentException if user not found
+     * @throws UserNotFoundException if user not found
      */
     public void deactivateAccount(Long userId) {
         User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
 
         user.setIsActive(false);
+
+        // Revoke all tokens issued to this account
+        user.bumpSecurityEpoch();
+
         userRepository.save(user);
+        afterCommit(() -> {
+            userStatusRegistry.update(user);
+            auditTrail.record(AuditEventType.ACCOUNT_DEACTIVATED, user.getId(), user.getEmail(), null);
+        });
+    }
+
+    /**
+     * Run an action once the current transaction has committed, or right away without one
+     * Used for in-memory state and audit events that must not reflect changes that are rolled back
+     * @param action Action to run
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Hash a reset token for storage and lookup
+     * Tokens are random UUIDs, so an unsalted digest is enough to make stored values useless
+     * @param token Reset token
+     * @return Hex-encoded SHA-256 digest
+     */
+    private static String hashResetToken(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
     /**
@@ -226,33 +397,6 @@ public class UserService {
             throw new IllegalArgumentException("Last name is required");
         }
 
-        validatePassword(request.getPassword());
-    }
-
-    /**
-     * Validate password strength
-     * @param password Password to validate
-     * @throws IllegalArgumentException if password is weak
-     */
-    private void validatePassword(String password) {
-        if (password.length() < 8) {
-            throw new IllegalArgumentException("Password must be at least 8 characters long");
-        }
-        
-        if (!password.matches(".*[a-z].*")) {
-            throw new IllegalArgumentException("Password must contain at least one lowercase letter");
-        }
-        
-        if (!password.matches(".*[A-Z].*")) {
-            throw new IllegalArgumentException("Password must contain at least one uppercase letter");
-        }
-        
-        if (!password.matches(".*\\d.*")) {
-            throw new IllegalArgumentException("Password must contain at least one number");
-        }
-        
-        if (!password.matches(".*[!@#$%^&*()_+\\-=\\[\\]{};':\"\\\\|,.<>\\/?].*")) {
-            throw new IllegalArgumentException("Password must contain at least one special character");
-        }
+        passwordPolicy.validate(request.getPassword());
     }
 }
@@ -0,0 +1,118 @@
+package com.greentrace.server.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads back the points of a chunk written by GorillaEncoder, in append order
+ * Reads with absolute indexes from index 0, so the buffer can be shared (e.g. a memory-mapped chunk).
+ * Not thread-safe
+ *
+ *   GorillaDecoder decoder = new GorillaDecoder(buffer, count);
+ *   while (decoder.next()) { use(decoder.timestamp(), decoder.value()); }
+ */
+public final class GorillaDecoder {
+
+    private final ByteBuffer buffer;
+    private final int count;
+
+    private long bitPosition;
+    private int read;
+    private long timestamp;
+    private long delta;
+    private long valueBits;
+    private int leading;
+    private int trailing;
+
+    /**
+     * Create a decoder
+     * @param buffer Encoded chunk starting at index 0
+     * @param count Number of points in the chunk
+     */
+    public GorillaDecoder(ByteBuffer buffer, int count) {
+        this.buffer = buffer;
+        this.count = count;
+    }
+
+    /**
+     * Advance to the next point
+     * @return False when all points have been read
+     */
+    public boolean next() {
+        if (read >= count) {
+            return false;
+        }
+
+        if (read == 0) {
+            timestamp = readBits(64);
+            valueBits = readBits(64);
+        } else {
+            delta += readDeltaOfDelta();
+            timestamp += delta;
+            valueBits ^= readXor();
+        }
+        read++;
+        return true;
+    }
+
+    /**
+     * Get the timestamp of the current point
+     * @return Timestamp
+     */
+    public long timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Get the value of the current point
+     * @return Value
+     */
+    public double value() {
+        return Double.longBitsToDouble(valueBits);
+    }
+
+    private long readDeltaOfDelta() {
+        int bits;
+        if (readBits(1) == 0) {
+            return 0;
+        } else if (readBits(1) == 0) {
+            bits = 7;
+        } else if (readBits(1) == 0) {
+            bits = 9;
+        } else if (readBits(1) == 0) {
+            bits = 12;
+        } else {
+            bits = 64;
+        }
+        long zigzag = readBits(bits);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private long readXor() {
+        if (readBits(1) == 0) {
+            return 0;
+        }
+        if (readBits(1) == 1) {
+            leading = (int) readBits(5);
+            int significant = (int) readBits(6) + 1;
+            trailing = 64 - leading - significant;
+        }
+        return readBits(64 - leading - trailing) << trailing;
+    }
+
+    /**
+     * Read bits, most significant first
+     */
+    private long readBits(int bits) {
+        long value = 0;
+        while (bits > 0) {
+            int index = (int) (bitPosition >>> 3);
+            int available = 8 - (int) (bitPosition & 7);
+            int n = Math.min(available, bits);
+            int chunk = (buffer.get(index) >>> (available - n)) & ((1 << n) - 1);
+            value = value << n | chunk;
+            bits -= n;
+            bitPosition += n;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,174 @@
+package com.greentrace.server.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Gorilla-style compressor for one chunk of (timestamp, value) points
+ * Timestamps are stored as delta-of-delta, so a regular reading interval costs one bit per point;
+ * values are XORed with the previous value and only the meaningful bits of the XOR are written,
+ * so repeated or slowly changing values cost one or a few bits. The first point is stored raw.
+ *
+ * Bits are written MSB first straight into the given buffer (typically a direct buffer), which
+ * always holds every appended point, so a chunk can be read with GorillaDecoder while still open.
+ * Timestamps need not be increasing: negative deltas are encoded too, they just compress worse.
+ * Not thread-safe
+ */
+public final class GorillaEncoder {
+
+    /**
+     * Largest encoding of one point: 64 + 64 bits for the first point, then at most
+     * 4 + 64 bits of timestamp and 2 + 5 + 6 + 64 bits of value
+     */
+    static final int MAX_POINT_BITS = 145;
+
+    private final ByteBuffer buffer;
+    private final long capacityBits;
+
+    private long bitPosition;
+    private int count;
+    private long minTimestamp;
+    private long maxTimestamp;
+
+    private long previousTimestamp;
+    private long previousDelta;
+    private long previousValueBits;
+    private int previousLeading = -1;
+    private int previousTrailing;
+
+    /**
+     * Create an encoder writing from index 0 of the buffer
+     * @param buffer Buffer to write into; its position and limit are ignored, previous content is overwritten
+     */
+    public GorillaEncoder(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.capacityBits = (long) buffer.capacity() * 8;
+    }
+
+    /**
+     * Append a point
+     * @param timestamp Timestamp, e.g. epoch milliseconds
+     * @param value Value
+     * @return False if the buffer may not have room for the point, which then was not appended
+     */
+    public boolean append(long timestamp, double value) {
+        if (capacityBits - bitPosition < MAX_POINT_BITS) {
+            return false;
+        }
+
+        long valueBits = Double.doubleToLongBits(value);
+        if (count == 0) {
+            writeBits(timestamp, 64);
+            writeBits(valueBits, 64);
+            minTimestamp = timestamp;
+            maxTimestamp = timestamp;
+        } else {
+            long delta = timestamp - previousTimestamp;
+            writeDeltaOfDelta(delta - previousDelta);
+            writeXor(valueBits ^ previousValueBits);
+            previousDelta = delta;
+            minTimestamp = Math.min(minTimestamp, timestamp);
+            maxTimestamp = Math.max(maxTimestamp, timestamp);
+        }
+
+        previousTimestamp = timestamp;
+        previousValueBits = valueBits;
+        count++;
+        return true;
+    }
+
+    /**
+     * Get the number of appended points
+     * @return Point count
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Get the smallest appended timestamp
+     * @return Timestamp, undefined while the chunk is empty
+     */
+    public long minTimestamp() {
+        return minTimestamp;
+    }
+
+    /**
+     * Get the largest appended timestamp
+     * @return Timestamp, undefined while the chunk is empty
+     */
+    public long maxTimestamp() {
+        return maxTimestamp;
+    }
+
+    /**
+     * Get the encoded size
+     * @return Number of bytes from index 0 holding the encoded points
+     */
+    public int sizeInBytes() {
+        return (int) ((bitPosition + 7) >>> 3);
+    }
+
+    /**
+     * Zigzag-encoded delta-of-delta: '0' for zero, else a 2-4 bit prefix selecting 7, 9, 12 or 64 bits
+     */
+    private void writeDeltaOfDelta(long deltaOfDelta) {
+        long zigzag = (deltaOfDelta << 1) ^ (deltaOfDelta >> 63);
+        if (zigzag == 0) {
+            writeBits(0b0, 1);
+        } else if (zigzag < 1L << 7) {
+            writeBits(0b10, 2);
+            writeBits(zigzag, 7);
+        } else if (zigzag < 1L << 9) {
+            writeBits(0b110, 3);
+            writeBits(zigzag, 9);
+        } else if (zigzag < 1L << 12) {
+            writeBits(0b1110, 4);
+            writeBits(zigzag, 12);
+        } else {
+            writeBits(0b1111, 4);
+            writeBits(zigzag, 64);
+        }
+    }
+
+    /**
+     * XOR with the previous value: '0' if equal, '10' + bits if the meaningful bits fit the previous
+     * window, else '11' + 5 bits leading zeros + 6 bits length - 1 + the meaningful bits
+     */
+    private void writeXor(long xor) {
+        if (xor == 0) {
+            writeBits(0b0, 1);
+            return;
+        }
+
+        int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        int trailing = Long.numberOfTrailingZeros(xor);
+        if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+            writeBits(0b10, 2);
+            writeBits(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+        } else {
+            int significant = 64 - leading - trailing;
+            writeBits(0b11, 2);
+            writeBits(leading, 5);
+            writeBits(significant - 1, 6);
+            writeBits(xor >>> trailing, significant);
+            previousLeading = leading;
+            previousTrailing = trailing;
+        }
+    }
+
+    /**
+     * Write the low bits of a value, most significant first
+     */
+    private void writeBits(long value, int bits) {
+        while (bits > 0) {
+            int index = (int) (bitPosition >>> 3);
+            int free = 8 - (int) (bitPosition & 7);
+            int n = Math.min(free, bits);
+            int chunk = (int) (value >>> (bits - n)) & ((1 << n) - 1);
+            int current = free == 8 ? 0 : buffer.get(index);
+            buffer.put(index, (byte) (current | chunk << (free - n)));
+            bits -= n;
+            bitPosition += n;
+        }
+    }
+}
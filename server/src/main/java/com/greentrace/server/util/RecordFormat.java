@@ -0,0 +1,51 @@
+package com.greentrace.server.util;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Line-oriented record formats accepted by bulk upload endpoints
+ */
+public enum RecordFormat {
+
+    /**
+     * Comma-separated values with a header line
+     */
+    CSV("text/csv"),
+
+    /**
+     * Newline-delimited JSON, one object per line
+     */
+    NDJSON("application/x-ndjson");
+
+    private final String mediaType;
+
+    RecordFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Get the media type for this format
+     * @return Media type string
+     */
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Resolve the format from a request Content-Type header
+     * @param contentType Content-Type header value (parameters such as charset are ignored)
+     * @return Matching format
+     * @throws IllegalArgumentException if the content type is missing or unsupported
+     */
+    public static RecordFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            for (RecordFormat format : values()) {
+                if (mediaType.isCompatibleWith(MediaType.parseMediaType(format.mediaType))) {
+                    return format;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Content-Type must be text/csv or application/x-ndjson");
+    }
+}
@@ -0,0 +1,36 @@
+package com.greentrace.server.util;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Half-open time range [from, to) taken from request parameters
+ *
+ * @param from Start (inclusive)
+ * @param to End (exclusive)
+ */
+public record TimeRange(Instant from, Instant to) {
+
+    /**
+     * Parse ISO-8601 range bounds
+     * @param from Start, e.g. 2025-01-01T00:00:00Z
+     * @param to End, after the start
+     * @return Range
+     * @throws IllegalArgumentException if a bound is malformed or the range is empty
+     */
+    public static TimeRange parse(String from, String to) {
+        TimeRange range = new TimeRange(parseInstant(from, "from"), parseInstant(to, "to"));
+        if (!range.from().isBefore(range.to())) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        return range;
+    }
+
+    private static Instant parseInstant(String value, String name) {
+        try {
+            return Instant.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be ISO-8601 with an offset, e.g. 2025-01-31T12:00:00Z");
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.greentrace.server.util;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Conversions for DATETIME columns, which hold UTC wall-clock times
+ * Binding LocalDateTime keeps stored values independent of the JVM and session time zones;
+ * java.sql.Timestamp is rendered in the JVM (or connection) zone by the driver
+ */
+public final class UtcDateTime {
+
+    private UtcDateTime() {
+    }
+
+    /**
+     * Convert an instant for binding to a DATETIME parameter
+     * @param instant Instant
+     * @return UTC wall-clock time
+     */
+    public static LocalDateTime of(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    /**
+     * Convert a DATETIME value read with getObject(column, LocalDateTime.class)
+     * @param dateTime UTC wall-clock time
+     * @return Instant
+     */
+    public static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC);
+    }
+}
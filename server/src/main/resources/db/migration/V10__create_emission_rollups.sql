@@ -0,0 +1,28 @@
+-- Incrementally maintained per-bucket aggregates of emission_activities, at four resolutions (UTC buckets)
+CREATE TABLE emission_rollups (
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id       BIGINT       NOT NULL,
+    resolution    VARCHAR(8)   NOT NULL,
+    bucket_start  DATETIME(6)  NOT NULL,
+    activity_type VARCHAR(64)  NOT NULL,
+    unit          VARCHAR(16)  NOT NULL,
+    sum_quantity  DOUBLE       NOT NULL,
+    sample_count  BIGINT       NOT NULL,
+    min_quantity  DOUBLE       NOT NULL,
+    max_quantity  DOUBLE       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_emission_rollups_bucket UNIQUE (user_id, resolution, bucket_start, activity_type, unit)
+) ENGINE = InnoDB;
+
+-- Backfill from readings stored before rollups existed
+INSERT INTO emission_rollups (user_id, resolution, bucket_start, activity_type, unit, sum_quantity, sample_count, min_quantity, max_quantity)
+SELECT user_id, r.resolution, DATE_FORMAT(occurred_at, r.bucket_format), activity_type, unit,
+       SUM(quantity), COUNT(*), MIN(quantity), MAX(quantity)
+FROM emission_activities
+CROSS JOIN (
+    SELECT 'MINUTE' AS resolution, '%Y-%m-%d %H:%i:00' AS bucket_format
+    UNION ALL SELECT 'HOUR', '%Y-%m-%d %H:00:00'
+    UNION ALL SELECT 'DAY', '%Y-%m-%d 00:00:00'
+    UNION ALL SELECT 'MONTH', '%Y-%m-01 00:00:00'
+) r
+GROUP BY user_id, r.resolution, DATE_FORMAT(occurred_at, r.bucket_format), activity_type, unit;
@@ -0,0 +1,4 @@
+-- Time each revocation was stored, so instances can reload the revocations of other instances incrementally
+ALTER TABLE revoked_tokens ADD COLUMN revoked_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+
+CREATE INDEX idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
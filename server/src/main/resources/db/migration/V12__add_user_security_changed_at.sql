@@ -0,0 +1,7 @@
+-- Time of the last security epoch change; instances poll it to pick up deactivations and password resets
+ALTER TABLE users ADD COLUMN security_changed_at DATETIME(6) NULL;
+
+-- Treat existing non-default accounts as changed now, so they stay tracked for one more token lifetime
+UPDATE users SET security_changed_at = UTC_TIMESTAMP(6) WHERE security_epoch > 0 OR is_active = FALSE;
+
+CREATE INDEX idx_users_security_changed_at ON users (security_changed_at);
@@ -0,0 +1,16 @@
+-- Baseline schema (matches the users table created before migrations were introduced)
+CREATE TABLE users (
+    id                 BIGINT       NOT NULL AUTO_INCREMENT,
+    first_name         VARCHAR(50)  NOT NULL,
+    last_name          VARCHAR(50)  NOT NULL,
+    email              VARCHAR(100) NOT NULL,
+    password           VARCHAR(255) NOT NULL,
+    reset_token        VARCHAR(255),
+    reset_token_expiry DATETIME(6),
+    created_at         DATETIME(6),
+    last_login         DATETIME(6),
+    is_active          BIT,
+    email_verified     BIT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
@@ -0,0 +1,2 @@
+-- Security epoch used to revoke existing tokens on password reset and deactivation
+ALTER TABLE users ADD COLUMN security_epoch INT NOT NULL DEFAULT 0;
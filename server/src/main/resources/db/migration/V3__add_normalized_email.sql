@@ -0,0 +1,8 @@
+-- Canonical lower-case email with a unique index, replacing LOWER(email) lookups
+ALTER TABLE users ADD COLUMN email_normalized VARCHAR(100) NULL;
+
+UPDATE users SET email_normalized = LOWER(TRIM(email));
+
+ALTER TABLE users MODIFY email_normalized VARCHAR(100) NOT NULL;
+
+CREATE UNIQUE INDEX uk_users_email_normalized ON users (email_normalized);
@@ -0,0 +1,9 @@
+-- Pooled sequence for user IDs (MySQL has no native sequences; Hibernate uses a single-row table)
+-- Hibernate's pooled optimizer hands out (next_val - 49 .. next_val], so start one block past the current maximum
+CREATE TABLE users_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO users_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM users;
+
+ALTER TABLE users MODIFY id BIGINT NOT NULL;
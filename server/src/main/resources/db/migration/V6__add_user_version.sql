@@ -0,0 +1,2 @@
+-- Optimistic-lock version, also used as the profile revision in ETags
+ALTER TABLE users ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
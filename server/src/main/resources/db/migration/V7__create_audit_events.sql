@@ -0,0 +1,14 @@
+-- Append-only security audit trail, written in batches by a background writer
+CREATE TABLE audit_events (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    event_type  VARCHAR(32)  NOT NULL,
+    user_id     BIGINT       NULL,
+    email       VARCHAR(100) NULL,
+    client_ip   VARCHAR(45)  NULL,
+    detail      VARCHAR(255) NULL,
+    occurred_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_audit_events_occurred_at ON audit_events (occurred_at);
+CREATE INDEX idx_audit_events_user_id ON audit_events (user_id, occurred_at);
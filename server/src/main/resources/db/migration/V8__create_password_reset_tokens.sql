@@ -0,0 +1,23 @@
+-- Reset tokens move out of users into their own table and are stored as SHA-256 digests
+CREATE TABLE password_reset_tokens (
+    id         BIGINT      NOT NULL AUTO_INCREMENT,
+    token_hash VARCHAR(64) NOT NULL,
+    user_id    BIGINT      NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_password_reset_tokens_hash UNIQUE (token_hash)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_password_reset_tokens_user_id ON password_reset_tokens (user_id);
+CREATE INDEX idx_password_reset_tokens_expires_at ON password_reset_tokens (expires_at);
+
+-- Carry over tokens that are still valid so outstanding reset emails keep working
+INSERT INTO password_reset_tokens (token_hash, user_id, expires_at, created_at)
+SELECT SHA2(reset_token, 256), id, reset_token_expiry, NOW(6)
+FROM users
+WHERE reset_token IS NOT NULL AND reset_token_expiry > NOW(6);
+
+ALTER TABLE users
+    DROP COLUMN reset_token,
+    DROP COLUMN reset_token_expiry;
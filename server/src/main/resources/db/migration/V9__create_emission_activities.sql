@@ -0,0 +1,13 @@
+-- Metered emission activity readings, written in JDBC batches by the bulk ingestion endpoint
+CREATE TABLE emission_activities (
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id       BIGINT       NOT NULL,
+    source        VARCHAR(100) NOT NULL,
+    activity_type VARCHAR(64)  NOT NULL,
+    quantity      DOUBLE       NOT NULL,
+    unit          VARCHAR(16)  NOT NULL,
+    occurred_at   DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_emission_activities_user_time ON emission_activities (user_id, occurred_at);
@@ -0,0 +1,108 @@
+package com.greentrace.server.controller;
+
+import com.greentrace.server.security.LoginThrottledException;
+import com.greentrace.server.security.PasswordHashingOverloadedException;
+import com.greentrace.server.services.DuplicateEmailException;
+import com.greentrace.server.services.InvalidCredentialsException;
+import com.greentrace.server.services.UserNotFoundException;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ApiExceptionHandlerTests {
+
+	private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ThrowingController())
+			.setControllerAdvice(new ApiExceptionHandler())
+			.build();
+
+	@Test
+	void mapsServiceExceptionsToTheirStatusCodes() throws Exception {
+		fail("credentials").andExpect(status().isUnauthorized())
+				.andExpect(jsonPath("$.message").value("Invalid email or password. Please check your credentials and try again."));
+		fail("duplicate").andExpect(status().isConflict())
+				.andExpect(jsonPath("$.message").value("Email already registered"));
+		fail("not-found").andExpect(status().isNotFound());
+		fail("invalid").andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value("Password must contain at least one number"));
+	}
+
+	@Test
+	void tellsThrottledAndOverloadedClientsWhenToRetry() throws Exception {
+		fail("throttled").andExpect(status().isTooManyRequests())
+				.andExpect(header().string("Retry-After", "30"));
+		fail("busy").andExpect(status().isServiceUnavailable())
+				.andExpect(header().string("Retry-After", "2"));
+	}
+
+	@Test
+	void hidesTheDetailsOfUnexpectedExceptions() throws Exception {
+		fail("unexpected").andExpect(status().isInternalServerError())
+				.andExpect(jsonPath("$.success").value(false))
+				.andExpect(jsonPath("$.message").value("An unexpected error occurred. Please try again."));
+	}
+
+	@Test
+	void reportsEachInvalidFieldOfARequestBody() throws Exception {
+		mockMvc.perform(post("/test/validated").contentType(MediaType.APPLICATION_JSON).content("{\"email\":\"not-an-email\"}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value("Validation failed"))
+				.andExpect(jsonPath("$.errors.email").value("Email must be valid"))
+				.andExpect(jsonPath("$.errors.name").value("Name is required"));
+	}
+
+	@Test
+	void keepsTheStatusOfStandardMvcExceptions() throws Exception {
+		mockMvc.perform(post("/test/validated").contentType(MediaType.APPLICATION_JSON).content("{"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.success").value(false));
+		mockMvc.perform(put("/test/validated"))
+				.andExpect(status().isMethodNotAllowed())
+				.andExpect(jsonPath("$.message").exists());
+	}
+
+	private ResultActions fail(String kind) throws Exception {
+		return mockMvc.perform(get("/test/fail/" + kind));
+	}
+
+	@RestController
+	static class ThrowingController {
+
+		@GetMapping("/test/fail/{kind}")
+		String fail(@PathVariable String kind) {
+			throw switch (kind) {
+				case "credentials" -> new InvalidCredentialsException("Wrong password for ada@example.com");
+				case "duplicate" -> new DuplicateEmailException("Email already registered");
+				case "not-found" -> new UserNotFoundException("ada@example.com");
+				case "invalid" -> new IllegalArgumentException("Password must contain at least one number");
+				case "throttled" -> new LoginThrottledException(30);
+				case "busy" -> new PasswordHashingOverloadedException(2);
+				default -> new IllegalStateException("Connection pool exhausted");
+			};
+		}
+
+		@PostMapping("/test/validated")
+		String validated(@Valid @RequestBody Signup signup) {
+			return signup.email();
+		}
+	}
+
+	record Signup(@NotBlank(message = "Name is required") String name, @Email(message = "Email must be valid") String email) {
+	}
+}
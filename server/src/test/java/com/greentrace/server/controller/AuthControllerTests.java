@@ -0,0 +1,70 @@
+package com.greentrace.server.controller;
+
+import com.greentrace.server.dto.SignUpRequest;
+import com.greentrace.server.model.User;
+import com.greentrace.server.repository.UserRepository;
+import com.greentrace.server.services.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void answersRepeatVerifyRequestsWithNotModifiedUntilTheProfileChanges() throws Exception {
+		User user = userService.signUp(new SignUpRequest("Ada", "Lovelace", "user-" + UUID.randomUUID() + "@example.com", "Str0ng!Pass"));
+		String authorization = "Bearer " + userService.generateToken(user);
+		String eTag = "W/\"" + user.getId() + "-" + user.getVersion() + "\"";
+
+		mockMvc.perform(get("/api/auth/verify").header(HttpHeaders.AUTHORIZATION, authorization))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, eTag))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+				.andExpect(jsonPath("$.user.firstName").value("Ada"));
+
+		mockMvc.perform(get("/api/auth/verify").header(HttpHeaders.AUTHORIZATION, authorization)
+						.header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, eTag))
+				.andExpect(content().string(""));
+
+		User stored = userRepository.findById(user.getId()).orElseThrow();
+		stored.setFirstName("Augusta");
+		User updated = userRepository.saveAndFlush(stored);
+		String updatedETag = "W/\"" + user.getId() + "-" + updated.getVersion() + "\"";
+
+		mockMvc.perform(get("/api/auth/verify").header(HttpHeaders.AUTHORIZATION, authorization)
+						.header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, updatedETag))
+				.andExpect(jsonPath("$.user.firstName").value("Augusta"));
+	}
+
+	@Test
+	void rejectsVerifyRequestsWithoutAValidToken() throws Exception {
+		mockMvc.perform(get("/api/auth/verify").header(HttpHeaders.AUTHORIZATION, "Bearer not-a-token"))
+				.andExpect(status().isUnauthorized());
+	}
+}
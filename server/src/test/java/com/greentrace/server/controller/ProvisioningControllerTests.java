@@ -0,0 +1,53 @@
+package com.greentrace.server.controller;
+
+import com.greentrace.server.security.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.security.admin-user-ids=" + ProvisioningControllerTests.ADMIN_ID)
+@AutoConfigureMockMvc
+class ProvisioningControllerTests {
+
+	static final long ADMIN_ID = 900_001L;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@Test
+	void rejectsUsersWhoAreNotAdministrators() throws Exception {
+		provision(900_002L).andExpect(status().isForbidden());
+	}
+
+	@Test
+	void returnsTheReportToAdministrators() throws Exception {
+		provision(ADMIN_ID)
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.success").value(true))
+				.andExpect(jsonPath("$.message").value("1 of 2 users provisioned."))
+				.andExpect(jsonPath("$.report.created").value(1))
+				.andExpect(jsonPath("$.report.invalid").value(1))
+				.andExpect(jsonPath("$.report.rows[1].status").value("INVALID"));
+	}
+
+	private ResultActions provision(long userId) throws Exception {
+		String email = "provisioned-" + UUID.randomUUID() + "@example.com";
+		String token = jwtService.generateToken("admin@example.com", userId, 0);
+		return mockMvc.perform(post("/api/protected/provisioning/users")
+				.header("Authorization", "Bearer " + token)
+				.contentType("text/csv")
+				.content("firstName,lastName,email,password\nAda,Lovelace," + email + ",Str0ng!Pass\nAlan,Turing,not-an-email,Str0ng!Pass\n"));
+	}
+}
@@ -0,0 +1,47 @@
+package com.greentrace.server.diagnostics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadPinningMonitorTests {
+
+	private final Object lock = new Object();
+
+	@Test
+	void reportsBlockingInsideSynchronized() throws Exception {
+		VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(10);
+		monitor.start();
+		try {
+			Thread.ofVirtual().start(this::sleepWhileHoldingLock).join();
+
+			// JFR streams events in roughly one-second chunks
+			long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+			while (monitor.stats().pins() == 0 && System.nanoTime() < deadline) {
+				Thread.sleep(100);
+			}
+
+			VirtualThreadPinningMonitor.Stats stats = monitor.stats();
+			assertThat(stats.pins()).isEqualTo(1);
+			assertThat(stats.pinnedNanos()).isGreaterThanOrEqualTo(Duration.ofMillis(10).toNanos());
+			assertThat(stats.pinsBySite().keySet())
+					.singleElement()
+					.asString()
+					.startsWith(getClass().getName() + ".sleepWhileHoldingLock");
+		} finally {
+			monitor.stop();
+		}
+	}
+
+	private void sleepWhileHoldingLock() {
+		synchronized (lock) {
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
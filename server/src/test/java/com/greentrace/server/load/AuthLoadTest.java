@@ -0,0 +1,396 @@
+package com.greentrace.server.load;
+
+import com.greentrace.server.model.User;
+import com.greentrace.server.repository.UserRepository;
+import com.greentrace.server.security.JwtService;
+import com.greentrace.server.security.PasswordHashingService;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load-test harness
+ * Boots the application on the default profile (H2 in memory), seeds users and drives a mix of
+ * signup, login, verify, conditional verify (304) and protected provisioning requests at a fixed
+ * arrival rate. Latency is measured from each request's scheduled start, so a stalled server shows
+ * up as queueing delay instead of fewer samples (no coordinated omission)
+ *
+ * Skipped unless -Dloadtest=true:
+ *
+ *   mvn test -Dtest=AuthLoadTest -Dloadtest=true -Dloadtest.rate=200 -Dloadtest.duration=60
+ *
+ * Settings (system properties): loadtest.users (100), loadtest.rate (requests/s, 50),
+ * loadtest.warmup (s, 5), loadtest.duration (s, 30), loadtest.max-in-flight (1000),
+ * loadtest.mix ("signup:5,login:15,verify:50,verify-304:25,provision:5"), loadtest.output
+ * (target/loadtest), loadtest.bcrypt-strength (0 = calibrate like production, instead of the tests' fixed cost).
+ * Other application properties can be overridden the same way, e.g. -Dapp.security.login-throttle.max-keys=1000
+ *
+ * Writes summary.txt and summary.csv (throughput, p50/p99/p999 per endpoint) and one HdrHistogram
+ * percentile distribution (.hgrm, milliseconds) per endpoint to the output directory
+ */
+@SpringBootTest(
+		webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {
+				// Keep per-request logging out of the measurement
+				"spring.jpa.show-sql=false",
+				"logging.level.org.springframework.security=INFO",
+				// All traffic comes from one address and a small set of accounts
+				"app.security.login-throttle.ip.burst=1000000",
+				"app.security.login-throttle.ip.per-minute=1000000",
+				"app.security.login-throttle.account.burst=10000",
+				"app.security.login-throttle.account.per-minute=10000",
+				// Hash at production cost unless loadtest.bcrypt-strength says otherwise
+				"app.security.password-hashing.strength=${loadtest.bcrypt-strength:0}",
+				// Provisioning is restricted to administrators
+				"app.security.admin-user-ids=" + AuthLoadTest.ADMIN_USER_ID
+		}
+)
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class AuthLoadTest {
+
+	private static final String PASSWORD = "LoadTest!Pass1";
+	static final long ADMIN_USER_ID = 1_000_000_000L;
+	private static final String DEFAULT_MIX = "signup:5,login:15,verify:50,verify-304:25,provision:5";
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PasswordHashingService passwordHashingService;
+
+	@Autowired
+	private JwtService jwtService;
+
+	private final HttpClient httpClient = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(5))
+			.build();
+
+	private final AtomicLong newAccounts = new AtomicLong();
+
+	private String adminToken;
+
+	@Test
+	void mixedAuthTraffic() throws Exception {
+		Settings settings = Settings.fromSystemProperties();
+		List<SeededUser> users = seedUsers(settings.users());
+		adminToken = jwtService.generateToken("load-admin@example.com", ADMIN_USER_ID, 0);
+		System.out.printf(Locale.ROOT, "Seeded %d users; %d req/s for %ds after %ds warmup, mix %s%n",
+				users.size(), settings.rate(), settings.duration(), settings.warmup(), settings.mix());
+
+		run(settings, users, settings.warmup());
+		Map<Operation, EndpointStats> stats = run(settings, users, settings.duration());
+
+		String summary = report(stats, settings);
+		System.out.println(summary);
+		assertThat(stats.values().stream().mapToLong(EndpointStats::succeeded).sum()).isPositive();
+	}
+
+	/**
+	 * Insert users directly, sharing one password hash so seeding does not pay for BCrypt per user
+	 */
+	private List<SeededUser> seedUsers(int count) {
+		String passwordHash = passwordHashingService.encode(PASSWORD);
+		List<User> batch = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			batch.add(User.builder()
+					.firstName("Load")
+					.lastName("User" + i)
+					.email("load-user-" + i + "@example.com")
+					.password(passwordHash)
+					.build());
+		}
+
+		List<SeededUser> users = new ArrayList<>(count);
+		for (User user : userRepository.saveAll(batch)) {
+			users.add(new SeededUser(
+					user.getEmail(),
+					jwtService.generateToken(user.getEmail(), user.getId(), user.getSecurityEpoch()),
+					"W/\"" + user.getId() + "-" + user.getVersion() + "\""));
+		}
+		return users;
+	}
+
+	/**
+	 * Issue requests at a fixed arrival rate for the given time, each on its own virtual thread
+	 * Requests beyond max-in-flight are counted as dropped instead of delaying the schedule
+	 */
+	private Map<Operation, EndpointStats> run(Settings settings, List<SeededUser> users, int seconds) {
+		Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+		for (Operation operation : Operation.values()) {
+			stats.put(operation, new EndpointStats());
+		}
+
+		Semaphore inFlight = new Semaphore(settings.maxInFlight());
+		long intervalNanos = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+		long start = System.nanoTime();
+		long end = start + TimeUnit.SECONDS.toNanos(seconds);
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (long i = 0; ; i++) {
+				long scheduled = start + i * intervalNanos;
+				if (scheduled >= end) {
+					break;
+				}
+				long delay = scheduled - System.nanoTime();
+				if (delay > 0) {
+					LockSupport.parkNanos(delay);
+				}
+
+				Operation operation = settings.mix().next();
+				EndpointStats endpoint = stats.get(operation);
+				if (!inFlight.tryAcquire()) {
+					endpoint.dropped.increment();
+					continue;
+				}
+				SeededUser user = users.get(ThreadLocalRandom.current().nextInt(users.size()));
+				executor.execute(() -> {
+					try {
+						execute(operation, user, scheduled, endpoint);
+					} finally {
+						inFlight.release();
+					}
+				});
+			}
+		}
+		return stats;
+	}
+
+	private void execute(Operation operation, SeededUser user, long scheduled, EndpointStats endpoint) {
+		int status;
+		try {
+			status = httpClient.send(request(operation, user), HttpResponse.BodyHandlers.discarding()).statusCode();
+		} catch (IOException e) {
+			status = -1;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+
+		endpoint.latency.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled));
+		endpoint.statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+		if (status != operation.expectedStatus) {
+			endpoint.failed.increment();
+		}
+	}
+
+	private HttpRequest request(Operation operation, SeededUser user) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(Duration.ofSeconds(30));
+		return switch (operation) {
+			case SIGNUP -> builder.uri(uri("/api/auth/signup"))
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString(
+							"{\"firstName\":\"New\",\"lastName\":\"User\",\"email\":\"" + newEmail("signup")
+									+ "\",\"password\":\"" + PASSWORD + "\"}"))
+					.build();
+			case LOGIN -> builder.uri(uri("/api/auth/login"))
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString(
+							"{\"email\":\"" + user.email() + "\",\"password\":\"" + PASSWORD + "\"}"))
+					.build();
+			case VERIFY -> builder.uri(uri("/api/auth/verify"))
+					.header("Authorization", "Bearer " + user.token())
+					.GET()
+					.build();
+			case VERIFY_CONDITIONAL -> builder.uri(uri("/api/auth/verify"))
+					.header("Authorization", "Bearer " + user.token())
+					.header("If-None-Match", user.eTag())
+					.GET()
+					.build();
+			case PROVISION -> builder.uri(uri("/api/protected/provisioning/users"))
+					.header("Authorization", "Bearer " + adminToken)
+					.header("Content-Type", "application/x-ndjson")
+					.POST(HttpRequest.BodyPublishers.ofString(
+							"{\"firstName\":\"Provisioned\",\"lastName\":\"User\",\"email\":\"" + newEmail("provision")
+									+ "\",\"password\":\"" + PASSWORD + "\"}\n"))
+					.build();
+		};
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + port + path);
+	}
+
+	private String newEmail(String prefix) {
+		return "load-" + prefix + "-" + newAccounts.incrementAndGet() + "@example.com";
+	}
+
+	/**
+	 * Write the summary table, a CSV copy and one percentile distribution per endpoint
+	 * @return Summary table
+	 */
+	private static String report(Map<Operation, EndpointStats> stats, Settings settings) throws IOException {
+		Path output = Files.createDirectories(Path.of(settings.output()));
+		StringBuilder table = new StringBuilder(String.format(Locale.ROOT,
+				"%-12s %8s %8s %8s %9s %9s %9s %9s %9s  %s%n",
+				"endpoint", "count", "failed", "dropped", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "statuses"));
+		StringBuilder csv = new StringBuilder("endpoint,count,failed,dropped,throughput,p50_ms,p99_ms,p999_ms,max_ms\n");
+
+		for (Map.Entry<Operation, EndpointStats> entry : stats.entrySet()) {
+			Histogram latency = entry.getValue().latency;
+			if (latency.getTotalCount() == 0 && entry.getValue().dropped.sum() == 0) {
+				continue;
+			}
+			String name = entry.getKey().label;
+			double throughput = (double) latency.getTotalCount() / settings.duration();
+			double p50 = millis(latency.getValueAtPercentile(50));
+			double p99 = millis(latency.getValueAtPercentile(99));
+			double p999 = millis(latency.getValueAtPercentile(99.9));
+			double max = millis(latency.getMaxValue());
+
+			table.append(String.format(Locale.ROOT, "%-12s %8d %8d %8d %9.1f %9.2f %9.2f %9.2f %9.2f  %s%n",
+					name, latency.getTotalCount(), entry.getValue().failed.sum(), entry.getValue().dropped.sum(),
+					throughput, p50, p99, p999, max, entry.getValue().statusCounts()));
+			csv.append(String.format(Locale.ROOT, "%s,%d,%d,%d,%.2f,%.3f,%.3f,%.3f,%.3f%n",
+					name, latency.getTotalCount(), entry.getValue().failed.sum(), entry.getValue().dropped.sum(),
+					throughput, p50, p99, p999, max));
+
+			try (PrintStream hgrm = new PrintStream(Files.newOutputStream(output.resolve(name + ".hgrm")))) {
+				latency.outputPercentileDistribution(hgrm, 1000.0);
+			}
+		}
+
+		Files.writeString(output.resolve("summary.txt"), table);
+		Files.writeString(output.resolve("summary.csv"), csv);
+		return table.toString();
+	}
+
+	private static double millis(long micros) {
+		return micros / 1000.0;
+	}
+
+	private enum Operation {
+		SIGNUP("signup", 201),
+		LOGIN("login", 200),
+		VERIFY("verify", 200),
+		VERIFY_CONDITIONAL("verify-304", 304),
+		PROVISION("provision", 200);
+
+		private final String label;
+		private final int expectedStatus;
+
+		Operation(String label, int expectedStatus) {
+			this.label = label;
+			this.expectedStatus = expectedStatus;
+		}
+
+		static Operation fromLabel(String label) {
+			for (Operation operation : values()) {
+				if (operation.label.equals(label)) {
+					return operation;
+				}
+			}
+			throw new IllegalArgumentException("Unknown operation in loadtest.mix: " + label);
+		}
+	}
+
+	/**
+	 * Weighted choice between operations
+	 */
+	private record Mix(Operation[] operations, int[] cumulativeWeights, String description) {
+
+		static Mix parse(String spec) {
+			List<Operation> operations = new ArrayList<>();
+			List<Integer> weights = new ArrayList<>();
+			int total = 0;
+			for (String part : spec.split(",")) {
+				String[] entry = part.trim().split(":");
+				int weight = Integer.parseInt(entry[1].trim());
+				if (weight > 0) {
+					total += weight;
+					operations.add(Operation.fromLabel(entry[0].trim()));
+					weights.add(total);
+				}
+			}
+			if (total == 0) {
+				throw new IllegalArgumentException("loadtest.mix has no positive weights: " + spec);
+			}
+			return new Mix(operations.toArray(Operation[]::new),
+					weights.stream().mapToInt(Integer::intValue).toArray(), spec);
+		}
+
+		Operation next() {
+			int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+			for (int i = 0; i < cumulativeWeights.length; i++) {
+				if (pick < cumulativeWeights[i]) {
+					return operations[i];
+				}
+			}
+			return operations[operations.length - 1];
+		}
+
+		@Override
+		public String toString() {
+			return description;
+		}
+	}
+
+	private record Settings(int users, int rate, int warmup, int duration, int maxInFlight, Mix mix, String output) {
+
+		static Settings fromSystemProperties() {
+			return new Settings(
+					Integer.getInteger("loadtest.users", 100),
+					Integer.getInteger("loadtest.rate", 50),
+					Integer.getInteger("loadtest.warmup", 5),
+					Integer.getInteger("loadtest.duration", 30),
+					Integer.getInteger("loadtest.max-in-flight", 1000),
+					Mix.parse(System.getProperty("loadtest.mix", DEFAULT_MIX)),
+					System.getProperty("loadtest.output", "target/loadtest"));
+		}
+	}
+
+	private record SeededUser(String email, String token, String eTag) {
+	}
+
+	private static final class EndpointStats {
+
+		private final Histogram latency = new ConcurrentHistogram(3);
+		private final LongAdder failed = new LongAdder();
+		private final LongAdder dropped = new LongAdder();
+		private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+		long succeeded() {
+			return latency.getTotalCount() - failed.sum();
+		}
+
+		Map<Integer, Long> statusCounts() {
+			Map<Integer, Long> counts = new TreeMap<>();
+			statuses.forEach((status, count) -> counts.put(status, count.sum()));
+			return counts;
+		}
+	}
+}
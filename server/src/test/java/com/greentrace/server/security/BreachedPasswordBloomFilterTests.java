@@ -0,0 +1,78 @@
+package com.greentrace.server.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BreachedPasswordBloomFilterTests {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void detectsListedPasswordsAndPassesOthers() throws Exception {
+		List<String> lines = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			lines.add(sha1Hex("Breached" + i + "!") + ":" + (i + 1));
+		}
+		Path hashList = Files.write(tempDir.resolve("hashes.txt"), lines);
+		Path filterFile = tempDir.resolve("breached.bloom");
+
+		BreachedPasswordBloomFilter.build(hashList, filterFile, 0.001);
+		BreachedPasswordBloomFilter filter = new BreachedPasswordBloomFilter(filterFile.toString());
+
+		assertThat(filter.isEnabled()).isTrue();
+		for (int i = 0; i < 1000; i++) {
+			assertThat(filter.mightContain("Breached" + i + "!")).isTrue();
+		}
+
+		int falsePositives = 0;
+		for (int i = 0; i < 1000; i++) {
+			if (filter.mightContain("Unlisted" + i + "?")) {
+				falsePositives++;
+			}
+		}
+		assertThat(falsePositives).isLessThan(10);
+	}
+
+	@Test
+	void policyRejectsBreachedPasswords() throws Exception {
+		Path hashList = Files.write(tempDir.resolve("hashes.txt"), List.of(sha1Hex("P@ssw0rd123")));
+		Path filterFile = tempDir.resolve("breached.bloom");
+		BreachedPasswordBloomFilter.build(hashList, filterFile, 0.001);
+
+		PasswordPolicy policy = new PasswordPolicy(new BreachedPasswordBloomFilter(filterFile.toString()));
+
+		assertThatThrownBy(() -> policy.validate("P@ssw0rd123"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("data breach");
+		assertThatThrownBy(() -> policy.validate("nouppercase1!"))
+				.hasMessage("Password must contain at least one uppercase letter");
+		policy.validate("Str0ng!Unlisted");
+	}
+
+	@Test
+	void disabledWithoutFile() throws IOException {
+		BreachedPasswordBloomFilter filter = new BreachedPasswordBloomFilter("");
+
+		assertThat(filter.isEnabled()).isFalse();
+		assertThat(filter.mightContain("P@ssw0rd123")).isFalse();
+	}
+
+	private static String sha1Hex(String password) throws NoSuchAlgorithmException {
+		byte[] digest = MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8));
+		return HexFormat.of().withUpperCase().formatHex(digest);
+	}
+}
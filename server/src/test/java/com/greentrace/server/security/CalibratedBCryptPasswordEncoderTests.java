@@ -0,0 +1,37 @@
+package com.greentrace.server.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CalibratedBCryptPasswordEncoderTests {
+
+	private final CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(5);
+
+	@Test
+	void upgradesOnlyHashesWithALowerCost() {
+		assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password"))).isTrue();
+		assertThat(encoder.upgradeEncoding(encoder.encode("password"))).isFalse();
+		assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("password"))).isFalse();
+	}
+
+	@Test
+	void leavesUnrecognisedHashesAlone() {
+		assertThat(encoder.upgradeEncoding(null)).isFalse();
+		assertThat(encoder.upgradeEncoding("")).isFalse();
+		assertThat(encoder.upgradeEncoding("{noop}password")).isFalse();
+	}
+
+	@Test
+	void calibratesWithinTheConfiguredBounds() {
+		assertThat(BCryptCostCalibrator.calibrate(0, 4, 6)).isEqualTo(4);
+		assertThat(BCryptCostCalibrator.calibrate(60_000, 4, 6)).isEqualTo(6);
+	}
+
+	@Test
+	void ignoresOutliersWhenTakingTheMedian() {
+		assertThat(BCryptCostCalibrator.median(new long[] {12, 10, 900, 11, 9})).isEqualTo(11);
+		assertThat(BCryptCostCalibrator.median(new long[] {10, 500, 12, 14})).isEqualTo(13);
+	}
+}
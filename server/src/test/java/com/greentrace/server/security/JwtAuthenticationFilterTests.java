@@ -0,0 +1,60 @@
+package com.greentrace.server.security;
+
+import com.greentrace.server.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class JwtAuthenticationFilterTests {
+
+	private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+	private static final long HOUR = 3_600_000L;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final JwtService jwtService = new JwtService(SECRET, HOUR, "",
+			new JwtKeyRing("ES256", "", false, 24 * HOUR, HOUR, 0, HOUR));
+	private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, new VerifiedTokenCache(0, 0),
+			new UserStatusRegistry(mock(UserRepository.class), HOUR), mock(TokenRevocationStore.class), Set.of(), meterRegistry);
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void tagsFilterTimingsWithABoundedEndpoint() throws Exception {
+		String token = jwtService.generateToken("ada@example.com", 1L, 0);
+		authenticate("/api/protected/emissions/readings", token);
+		authenticate("/api/protected/emissions", token);
+		authenticate("/api/dashboard/emissions/totals", "not-a-token");
+		authenticate("/api/protected/" + Long.MAX_VALUE, token);
+
+		assertThat(count("emissions", "authenticated")).isEqualTo(2);
+		assertThat(count("dashboard", "invalid")).isEqualTo(1);
+		assertThat(count("other", "authenticated")).isEqualTo(1);
+		assertThat(meterRegistry.find("greentrace.auth.filter").timers())
+				.extracting(timer -> timer.getId().getTag("endpoint"))
+				.containsOnly("auth", "dashboard", "emissions", "provisioning", "actuator", "other");
+	}
+
+	private void authenticate(String path, String token) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+		request.setServletPath(path);
+		request.addHeader("Authorization", "Bearer " + token);
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+		SecurityContextHolder.clearContext();
+	}
+
+	private long count(String endpoint, String outcome) {
+		return meterRegistry.get("greentrace.auth.filter").tag("endpoint", endpoint).tag("outcome", outcome).timer().count();
+	}
+}
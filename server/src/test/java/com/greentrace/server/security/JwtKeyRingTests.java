@@ -0,0 +1,97 @@
+package com.greentrace.server.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtKeyRingTests {
+
+	private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+	private static final long HOUR = 3_600_000L;
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void reloadsStoredKeysInsteadOfGeneratingNewOnes() {
+		JwtKeyRing first = new JwtKeyRing("ES256", tempDir.toString(), false, 24 * HOUR, HOUR, 0, HOUR);
+		JwtKeyRing second = new JwtKeyRing("ES256", tempDir.toString(), false, 24 * HOUR, HOUR, 0, HOUR);
+
+		assertThat(second.current().keyId()).isEqualTo(first.current().keyId());
+		assertThat(second.publicKey(first.current().keyId())).isEqualTo(first.current().keyPair().getPublic());
+	}
+
+	@Test
+	void acceptsTokensSignedWithAKeyAnotherInstanceJustGenerated() throws Exception {
+		JwtKeyRing first = new JwtKeyRing("ES256", tempDir.toString(), false, 0, HOUR, 0, HOUR);
+		JwtKeyRing second = new JwtKeyRing("ES256", tempDir.toString(), false, 0, HOUR, 0, HOUR);
+
+		Thread.sleep(5);
+		second.rotate();
+		String token = new JwtService(SECRET, HOUR, "", second).generateToken("ada@example.com", 1L, 0);
+
+		assertThat(second.current().keyId()).isNotEqualTo(first.current().keyId());
+		assertThat(new JwtService(SECRET, HOUR, "", first).verifyToken(token).userId()).isEqualTo(1L);
+		assertThat(jwks(first)).extracting(jwk -> jwk.get("kid")).contains(second.current().keyId());
+	}
+
+	@Test
+	void rateLimitsDirectoryReloadsForUnknownKeyIds() {
+		JwtKeyRing first = new JwtKeyRing("ES256", tempDir.toString(), false, 0, HOUR, HOUR, HOUR);
+		JwtKeyRing second = new JwtKeyRing("ES256", tempDir.toString(), false, 0, HOUR, 0, HOUR);
+		String keyId = second.current().keyId();
+
+		assertThat(first.publicKey(keyId)).isNull();
+		first.rotate();
+		assertThat(first.publicKey(keyId)).isEqualTo(second.current().keyPair().getPublic());
+	}
+
+	@Test
+	void refusesToStartWithoutAKeyDirectoryWhenRequired() {
+		assertThatThrownBy(() -> new JwtKeyRing("ES256", "", true, 24 * HOUR, HOUR, 0, HOUR))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void keepsRetiredKeysUntilTheirTokensExpire() throws Exception {
+		JwtKeyRing keyRing = new JwtKeyRing("EdDSA", tempDir.toString(), false, 0, 0, 0, HOUR);
+		JwtService jwtService = new JwtService(SECRET, HOUR, "", keyRing);
+		String oldToken = jwtService.generateToken("ada@example.com", 1L, 0);
+		String oldKeyId = keyRing.current().keyId();
+
+		Thread.sleep(5);
+		keyRing.rotate();
+
+		assertThat(keyRing.current().keyId()).isNotEqualTo(oldKeyId);
+		assertThat(jwtService.verifyToken(oldToken).email()).isEqualTo("ada@example.com");
+		assertThat(jwks(keyRing)).extracting(jwk -> jwk.get("kid")).contains(oldKeyId, keyRing.current().keyId());
+		try (var files = Files.list(tempDir)) {
+			assertThat(files.count()).isEqualTo(2);
+		}
+	}
+
+	@Test
+	void dropsRetiredKeysOnceTheirTokensHaveExpired() throws Exception {
+		JwtKeyRing keyRing = new JwtKeyRing("ES256", "", false, 0, 0, 0, 0);
+		JwtService jwtService = new JwtService(SECRET, HOUR, "", keyRing);
+		String oldToken = jwtService.generateToken("ada@example.com", 1L, 0);
+
+		Thread.sleep(5);
+		keyRing.rotate();
+
+		assertThat(jwks(keyRing)).hasSize(1);
+		assertThatThrownBy(() -> jwtService.verifyToken(oldToken)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Map<String, Object>> jwks(JwtKeyRing keyRing) {
+		return (List<Map<String, Object>>) keyRing.jwks().get("keys");
+	}
+}
@@ -0,0 +1,120 @@
+package com.greentrace.server.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class JwtServiceTests {
+
+	private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+	private static final long HOUR = 3_600_000L;
+
+	private final JwtKeyRing keyRing = new JwtKeyRing("ES256", "", false, 24 * HOUR, HOUR, 0, HOUR);
+	private final JwtService jwtService = new JwtService(SECRET, HOUR, "", keyRing);
+
+	@Test
+	void verifiesTokensItIssuedAndMapsTheirClaims() {
+		Instant before = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+		String token = jwtService.generateToken("ada@example.com", 7L, 3);
+
+		JwtPrincipal principal = jwtService.verifyToken(token);
+
+		String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))), StandardCharsets.UTF_8);
+		assertThat(header).contains("\"kid\":\"" + keyRing.current().keyId() + "\"", "\"alg\":\"ES256\"");
+		assertThat(principal.email()).isEqualTo("ada@example.com");
+		assertThat(principal.userId()).isEqualTo(7L);
+		assertThat(principal.securityEpoch()).isEqualTo(3);
+		assertThat(principal.tokenId()).hasSize(36);
+		assertThat(principal.issuedAt()).isBetween(before, Instant.now());
+		assertThat(principal.expiresAt()).isCloseTo(principal.issuedAt().plusMillis(HOUR), within(1, ChronoUnit.SECONDS));
+		assertThat(jwtService.verifyToken(jwtService.generateToken("ada@example.com", 7L, 3)).tokenId())
+				.isNotEqualTo(principal.tokenId());
+	}
+
+	@Test
+	void defaultsClaimsMissingFromOlderTokens() {
+		JwtKeyRing.SigningKey signingKey = keyRing.current();
+		String token = Jwts.builder()
+				.header().keyId(signingKey.keyId()).and()
+				.subject("ada@example.com")
+				.claim("userId", 7L)
+				.expiration(new Date(System.currentTimeMillis() + HOUR))
+				.signWith(signingKey.keyPair().getPrivate(), signingKey.algorithm())
+				.compact();
+
+		JwtPrincipal principal = jwtService.verifyToken(token);
+
+		assertThat(principal.tokenId()).isNull();
+		assertThat(principal.securityEpoch()).isZero();
+		assertThat(principal.issuedAt()).isNull();
+	}
+
+	@Test
+	void rejectsTamperedTokens() {
+		String token = jwtService.generateToken("ada@example.com", 7L, 0);
+		String[] parts = token.split("\\.");
+		String otherPayload = jwtService.generateToken("grace@example.com", 8L, 0).split("\\.")[1];
+		char last = parts[2].charAt(0);
+		String flippedSignature = (last == 'A' ? 'B' : 'A') + parts[2].substring(1);
+
+		assertThatThrownBy(() -> jwtService.verifyToken(parts[0] + "." + parts[1] + "." + flippedSignature))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> jwtService.verifyToken(parts[0] + "." + otherPayload + "." + parts[2]))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> jwtService.verifyToken("not-a-token")).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void rejectsExpiredTokens() {
+		String token = new JwtService(SECRET, -1_000, "", keyRing).generateToken("ada@example.com", 7L, 0);
+
+		assertThatThrownBy(() -> jwtService.verifyToken(token))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Invalid JWT token");
+	}
+
+	@Test
+	void rejectsTokensSignedWithAnUnknownKey() {
+		JwtKeyRing otherKeyRing = new JwtKeyRing("ES256", "", false, 24 * HOUR, HOUR, 0, HOUR);
+		String token = new JwtService(SECRET, HOUR, "", otherKeyRing).generateToken("ada@example.com", 7L, 0);
+
+		assertThatThrownBy(() -> jwtService.verifyToken(token)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void acceptsLegacyHmacTokensIssuedBeforeTheCutover() {
+		Instant issuedAt = Instant.now().minusSeconds(60);
+		String legacyToken = legacyToken(issuedAt);
+
+		assertThat(new JwtService(SECRET, HOUR, issuedAt.plusSeconds(1).toString(), keyRing).verifyToken(legacyToken).userId())
+				.isEqualTo(1L);
+		assertThatThrownBy(() -> new JwtService(SECRET, HOUR, issuedAt.minusSeconds(1).toString(), keyRing).verifyToken(legacyToken))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new JwtService(SECRET, HOUR, "", keyRing).verifyToken(legacyToken))
+				.isInstanceOf(IllegalArgumentException.class);
+		// Without an issue time a token could have been minted with the secret at any point
+		assertThatThrownBy(() -> new JwtService(SECRET, HOUR, issuedAt.plusSeconds(1).toString(), keyRing).verifyToken(legacyToken(null)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static String legacyToken(Instant issuedAt) {
+		return Jwts.builder()
+				.subject("ada@example.com")
+				.claim("userId", 1L)
+				.issuedAt(issuedAt != null ? Date.from(issuedAt) : null)
+				.expiration(new Date(System.currentTimeMillis() + HOUR))
+				.signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+				.compact();
+	}
+}
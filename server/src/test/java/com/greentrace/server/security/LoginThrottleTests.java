@@ -0,0 +1,38 @@
+package com.greentrace.server.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginThrottleTests {
+
+	@Test
+	void rejectsAnIpOverItsLimitWithoutDrainingAccountBuckets() {
+		LoginThrottle throttle = new LoginThrottle(2, 1, 5, 1, 1000);
+
+		throttle.checkLoginAllowed("ada@example.com", "10.0.0.1");
+		throttle.checkLoginAllowed("bob@example.com", "10.0.0.1");
+		assertThatThrownBy(() -> throttle.checkLoginAllowed("eve@example.com", "10.0.0.1"))
+				.isInstanceOfSatisfying(LoginThrottledException.class,
+						e -> assertThat(e.getRetryAfterSeconds()).isBetween(1L, 60L));
+
+		throttle.checkLoginAllowed("eve@example.com", "10.0.0.2");
+		assertThat(throttle.stats().rejectedByIp()).isEqualTo(1);
+		assertThat(throttle.stats().allowed()).isEqualTo(3);
+	}
+
+	@Test
+	void limitsAnAccountAcrossIpsAndEmailSpellings() {
+		LoginThrottle throttle = new LoginThrottle(100, 100, 2, 1, 1000);
+
+		throttle.checkLoginAllowed("ada@example.com", "10.0.0.1");
+		throttle.checkLoginAllowed(" Ada@Example.com", "10.0.0.2");
+		assertThatThrownBy(() -> throttle.checkLoginAllowed("ADA@EXAMPLE.COM", "10.0.0.3"))
+				.isInstanceOf(LoginThrottledException.class);
+
+		assertThat(throttle.stats().rejectedByAccount()).isEqualTo(1);
+		assertThat(throttle.stats().trackedAccounts()).isEqualTo(1);
+		assertThat(throttle.stats().trackedIps()).isEqualTo(3);
+	}
+}
@@ -0,0 +1,102 @@
+package com.greentrace.server.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingServiceTests {
+
+	private final BlockingEncoder encoder = new BlockingEncoder();
+	private PasswordHashingService service;
+
+	@AfterEach
+	void shutdown() {
+		encoder.release.countDown();
+		service.shutdown();
+	}
+
+	@Test
+	void rejectsWorkRightAwayWhenThePoolAndQueueAreFull() throws Exception {
+		service = new PasswordHashingService(encoder, new SimpleMeterRegistry(), 1, 1, 3, 0);
+
+		CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("slow-1"));
+		assertThat(encoder.started.await(5, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.encode("slow-2"));
+		awaitQueueDepth(1);
+
+		assertThatThrownBy(() -> service.encode("password"))
+				.isInstanceOfSatisfying(PasswordHashingOverloadedException.class,
+						e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(3));
+		assertThat(service.stats().rejected()).isEqualTo(1);
+
+		encoder.release.countDown();
+		assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash:slow-1");
+		assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash:slow-2");
+	}
+
+	@Test
+	void keepsCapacityForInteractiveHashingWhileBulkUploadsRun() throws Exception {
+		service = new PasswordHashingService(encoder, new SimpleMeterRegistry(), 2, 1, 2, 1);
+
+		List<String> first = List.of("slow-a1", "slow-a2", "slow-a3");
+		List<String> second = List.of("slow-b1", "slow-b2", "slow-b3");
+		CompletableFuture<List<String>> bulkA = CompletableFuture.supplyAsync(() -> service.encodeAll(first));
+		CompletableFuture<List<String>> bulkB = CompletableFuture.supplyAsync(() -> service.encodeAll(second));
+		assertThat(encoder.started.await(5, TimeUnit.SECONDS)).isTrue();
+		Thread.sleep(100);
+
+		// Both uploads together hold one worker; the other worker and the queue stay free
+		assertThat(service.stats().active()).isEqualTo(1);
+		assertThat(service.stats().queueDepth()).isZero();
+		assertThat(service.encode("interactive")).isEqualTo("hash:interactive");
+		assertThat(service.matches("interactive", "hash:interactive")).isTrue();
+
+		encoder.release.countDown();
+		assertThat(bulkA.get(5, TimeUnit.SECONDS)).containsExactly("hash:slow-a1", "hash:slow-a2", "hash:slow-a3");
+		assertThat(bulkB.get(5, TimeUnit.SECONDS)).containsExactly("hash:slow-b1", "hash:slow-b2", "hash:slow-b3");
+		assertThat(service.stats().rejected()).isZero();
+	}
+
+	private void awaitQueueDepth(int depth) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (service.stats().queueDepth() < depth && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+	/**
+	 * Encodes "slow-" passwords only once released, everything else right away
+	 */
+	private static class BlockingEncoder implements PasswordEncoder {
+
+		private final CountDownLatch started = new CountDownLatch(1);
+		private final CountDownLatch release = new CountDownLatch(1);
+
+		@Override
+		public String encode(CharSequence rawPassword) {
+			if (rawPassword.toString().startsWith("slow-")) {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return "hash:" + rawPassword;
+		}
+
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			return encode(rawPassword).equals(encodedPassword);
+		}
+	}
+}
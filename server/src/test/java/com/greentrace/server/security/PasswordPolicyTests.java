@@ -0,0 +1,77 @@
+package com.greentrace.server.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordPolicyTests {
+
+	private PasswordPolicy policy;
+
+	@BeforeEach
+	void createPolicy() throws IOException {
+		policy = new PasswordPolicy(new ListedPasswords("Summer2024!"));
+	}
+
+	@Test
+	void acceptsPasswordsMeetingEveryRule() {
+		assertThatCode(() -> policy.validate("Str0ng!pw")).doesNotThrowAnyException();
+		assertThatCode(() -> policy.validate("Correct-Horse-Battery-9")).doesNotThrowAnyException();
+	}
+
+	@Test
+	void rejectsShortPasswordsBeforeCheckingCharacterClasses() {
+		assertThatThrownBy(() -> policy.validate("S0rt!"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Password must be at least 8 characters long");
+	}
+
+	@Test
+	void rejectsPasswordsMissingACharacterClass() {
+		assertThatThrownBy(() -> policy.validate("NOLOWER1!"))
+				.hasMessage("Password must contain at least one lowercase letter");
+		assertThatThrownBy(() -> policy.validate("noupper1!"))
+				.hasMessage("Password must contain at least one uppercase letter");
+		assertThatThrownBy(() -> policy.validate("NoDigits!"))
+				.hasMessage("Password must contain at least one number");
+		assertThatThrownBy(() -> policy.validate("NoSpecial1"))
+				.hasMessage("Password must contain at least one special character");
+	}
+
+	@Test
+	void countsOnlyListedSpecialCharacters() {
+		assertThatThrownBy(() -> policy.validate("Tilde~Only1"))
+				.hasMessage("Password must contain at least one special character");
+		assertThatThrownBy(() -> policy.validate("UmlautäOnly1"))
+				.hasMessage("Password must contain at least one special character");
+	}
+
+	@Test
+	void rejectsCompromisedPasswordsThatPassTheOtherRules() {
+		assertThatThrownBy(() -> policy.validate("Summer2024!"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("data breach");
+	}
+
+	/**
+	 * Breach filter that matches exactly one password
+	 */
+	private static class ListedPasswords extends BreachedPasswordBloomFilter {
+
+		private final String listed;
+
+		ListedPasswords(String listed) throws IOException {
+			super("");
+			this.listed = listed;
+		}
+
+		@Override
+		public boolean mightContain(String password) {
+			return password.equals(listed);
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package com.greentrace.server.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketLimiterTests {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+	private static final long START = 1_000 * SECOND;
+
+	@Test
+	void allowsABurstThenRefillsAtTheConfiguredRate() {
+		TokenBucketLimiter limiter = new TokenBucketLimiter(3, 60, 1000);
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(limiter.tryAcquire("ip", START)).isZero();
+		}
+		assertThat(limiter.tryAcquire("ip", START)).isEqualTo(SECOND);
+		assertThat(limiter.tryAcquire("ip", START + SECOND)).isZero();
+		assertThat(limiter.tryAcquire("ip", START + SECOND)).isPositive();
+		assertThat(limiter.tryAcquire("other", START)).isZero();
+	}
+
+	@Test
+	void evictsOnlyBucketsThatHaveRefilled() {
+		TokenBucketLimiter limiter = new TokenBucketLimiter(2, 60, 1000);
+		limiter.tryAcquire("idle", START);
+		limiter.tryAcquire("busy", START + 5 * SECOND);
+		limiter.tryAcquire("busy", START + 5 * SECOND);
+
+		assertThat(limiter.evictIdle(START + 6 * SECOND)).isEqualTo(1);
+		assertThat(limiter.size()).isEqualTo(1);
+		// The busy bucket kept its state
+		assertThat(limiter.tryAcquire("busy", START + 6 * SECOND)).isZero();
+		assertThat(limiter.tryAcquire("busy", START + 6 * SECOND)).isPositive();
+	}
+
+	@Test
+	void letsNewKeysThroughInsteadOfSharingABucketWhenFull() {
+		// One key per stripe
+		TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1, 16);
+		String tracked = "victim@example.com";
+		String flooding = keyInSameStripe(tracked);
+
+		assertThat(limiter.tryAcquire(tracked, START)).isZero();
+		for (int i = 0; i < 10; i++) {
+			assertThat(limiter.tryAcquire(flooding, START)).isZero();
+		}
+
+		assertThat(limiter.untracked()).isEqualTo(10);
+		assertThat(limiter.size()).isEqualTo(1);
+		assertThat(limiter.tryAcquire(tracked, START)).isPositive();
+	}
+
+	private static String keyInSameStripe(String key) {
+		int stripe = (key.hashCode() & 0x7fffffff) % 16;
+		for (int i = 0; ; i++) {
+			String candidate = "attacker-" + i + "@example.com";
+			if ((candidate.hashCode() & 0x7fffffff) % 16 == stripe) {
+				return candidate;
+			}
+		}
+	}
+}
@@ -0,0 +1,192 @@
+package com.greentrace.server.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationStoreTests {
+
+	private EmbeddedDatabase database;
+	private FlakyJdbcTemplate jdbcTemplate;
+	private TokenRevocationStore store;
+
+	@BeforeEach
+	void createTable() {
+		database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+		jdbcTemplate = new FlakyJdbcTemplate(database);
+		jdbcTemplate.execute("CREATE TABLE revoked_tokens (jti VARCHAR(36) PRIMARY KEY, expires_at TIMESTAMP(6) NOT NULL,"
+				+ " revoked_at TIMESTAMP(6) NOT NULL)");
+		store = new TokenRevocationStore(jdbcTemplate);
+	}
+
+	@AfterEach
+	void dropDatabase() {
+		database.shutdown();
+	}
+
+	@Test
+	void storesRevocationsBeforeReturning() {
+		JwtPrincipal principal = principal();
+		store.revoke(principal);
+
+		assertThat(storedIds()).containsExactly(principal.tokenId());
+		assertThat(jdbcTemplate.batches).isZero();
+	}
+
+	@Test
+	void retriesRevocationsThatCouldNotBeStored() {
+		jdbcTemplate.failInserts = true;
+		JwtPrincipal first = principal();
+		JwtPrincipal second = principal();
+		store.revoke(first);
+		store.revoke(second);
+		assertThat(storedIds()).isEmpty();
+		assertThat(store.isRevoked(first.tokenId())).isTrue();
+
+		jdbcTemplate.failInserts = false;
+		store.prune();
+		store.prune();
+
+		assertThat(storedIds()).containsExactlyInAnyOrder(first.tokenId(), second.tokenId());
+		assertThat(jdbcTemplate.batches).isEqualTo(1);
+	}
+
+	@Test
+	void doesNotRequeueStoredRevocationsWhenTheExpiryDeleteFails() {
+		jdbcTemplate.failInserts = true;
+		JwtPrincipal first = principal();
+		store.revoke(first);
+		jdbcTemplate.failInserts = false;
+		jdbcTemplate.failDeletes = true;
+		store.prune();
+
+		jdbcTemplate.failDeletes = false;
+		jdbcTemplate.failInserts = true;
+		JwtPrincipal second = principal();
+		store.revoke(second);
+		jdbcTemplate.failInserts = false;
+		store.prune();
+		store.prune();
+
+		assertThat(storedIds()).containsExactlyInAnyOrder(first.tokenId(), second.tokenId());
+		// One batch per revocation; a requeued first revocation would have failed the second batch again
+		assertThat(jdbcTemplate.batches).isEqualTo(2);
+	}
+
+	@Test
+	void keepsTheRestOfABatchWhenOneRevocationIsAlreadyStored() {
+		JwtPrincipal stored = principal();
+		JwtPrincipal fresh = principal();
+		insertFromAnotherInstance(stored);
+
+		jdbcTemplate.failInserts = true;
+		store.revoke(stored);
+		store.revoke(fresh);
+		jdbcTemplate.failInserts = false;
+		store.prune();
+		store.prune();
+
+		assertThat(storedIds()).containsExactlyInAnyOrder(stored.tokenId(), fresh.tokenId());
+		// Nothing was requeued, so the second snapshot had no batch to write
+		assertThat(jdbcTemplate.batches).isEqualTo(1);
+	}
+
+	@Test
+	void reloadsRevocationsThatHaveNotExpired() {
+		JwtPrincipal principal = principal();
+		store.revoke(principal);
+		store.shutdown();
+
+		TokenRevocationStore restarted = new TokenRevocationStore(jdbcTemplate);
+		restarted.load();
+
+		assertThat(restarted.isRevoked(principal.tokenId())).isTrue();
+	}
+
+	@Test
+	void rejectsTokensRevokedByAnotherInstanceAfterTheNextReload() {
+		store.load();
+		JwtPrincipal principal = principal();
+		insertFromAnotherInstance(principal);
+		assertThat(store.isRevoked(principal.tokenId())).isFalse();
+
+		store.prune();
+
+		assertThat(store.isRevoked(principal.tokenId())).isTrue();
+	}
+
+	@Test
+	void reloadsRowsCommittedLateWithAnOlderRevocationTime() {
+		JwtPrincipal first = principal();
+		store.revoke(first);
+		TokenRevocationStore other = new TokenRevocationStore(jdbcTemplate);
+		other.load();
+
+		// Stored after the other instance's last read, but stamped a few seconds before its watermark
+		JwtPrincipal late = principal();
+		jdbcTemplate.update("INSERT INTO revoked_tokens (jti, expires_at, revoked_at) VALUES (?, ?, ?)",
+				late.tokenId(), Timestamp.from(late.expiresAt()), Timestamp.from(Instant.now().minusSeconds(5)));
+		other.reload();
+
+		assertThat(other.isRevoked(first.tokenId())).isTrue();
+		assertThat(other.isRevoked(late.tokenId())).isTrue();
+	}
+
+	private void insertFromAnotherInstance(JwtPrincipal principal) {
+		jdbcTemplate.update("INSERT INTO revoked_tokens (jti, expires_at, revoked_at) VALUES (?, ?, ?)",
+				principal.tokenId(), Timestamp.from(principal.expiresAt()), Timestamp.from(Instant.now()));
+	}
+
+	private List<String> storedIds() {
+		return jdbcTemplate.queryForList("SELECT jti FROM revoked_tokens", String.class);
+	}
+
+	private static JwtPrincipal principal() {
+		Instant now = Instant.now();
+		return new JwtPrincipal(UUID.randomUUID().toString(), "ada@example.com", 1L, 0, now, now.plus(1, ChronoUnit.HOURS));
+	}
+
+	/**
+	 * Counts batch inserts and can fail single-row inserts and the expiry delete
+	 */
+	private static class FlakyJdbcTemplate extends JdbcTemplate {
+
+		private boolean failInserts;
+		private boolean failDeletes;
+		private int batches;
+
+		FlakyJdbcTemplate(EmbeddedDatabase database) {
+			super(database);
+		}
+
+		@Override
+		public int update(String sql, Object... args) {
+			if (failDeletes && sql.startsWith("DELETE") || failInserts && sql.startsWith("INSERT")) {
+				throw new DataAccessResourceFailureException("Lock wait timeout exceeded");
+			}
+			return super.update(sql, args);
+		}
+
+		@Override
+		public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+				ParameterizedPreparedStatementSetter<T> setter) {
+			batches++;
+			return super.batchUpdate(sql, batchArgs, batchSize, setter);
+		}
+	}
+}
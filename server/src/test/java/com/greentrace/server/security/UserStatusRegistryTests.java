@@ -0,0 +1,111 @@
+package com.greentrace.server.security;
+
+import com.greentrace.server.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserStatusRegistryTests {
+
+	private static final long HOUR = 3_600_000L;
+
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final UserStatusRegistry registry = new UserStatusRegistry(userRepository, HOUR);
+
+	@Test
+	void acceptsTokensOfUsersWithTheDefaultStatus() {
+		assertThat(registry.isTokenCurrent(principal(1L, 0))).isTrue();
+		assertThat(registry.isTokenCurrent(principal(null, 0))).isFalse();
+		assertThat(registry.size()).isZero();
+	}
+
+	@Test
+	void rejectsTokensFromEarlierEpochsAndDeactivatedAccounts() {
+		registry.update(status(1L, true, 2));
+		registry.update(status(2L, false, 1));
+
+		assertThat(registry.isTokenCurrent(principal(1L, 1))).isFalse();
+		assertThat(registry.isTokenCurrent(principal(1L, 2))).isTrue();
+		assertThat(registry.isTokenCurrent(principal(2L, 1))).isFalse();
+		assertThat(registry.size()).isEqualTo(2);
+	}
+
+	@Test
+	void neverLetsAnOlderEpochOverwriteANewerOne() {
+		registry.update(status(1L, false, 3));
+		registry.update(status(1L, true, 2));
+
+		assertThat(registry.isTokenCurrent(principal(1L, 3))).isFalse();
+	}
+
+	@Test
+	void dropsUsersThatAreBackToTheDefaultStatus() {
+		registry.update(status(1L, false, 0));
+		registry.update(status(1L, true, 0));
+
+		assertThat(registry.size()).isZero();
+		assertThat(registry.isTokenCurrent(principal(1L, 0))).isTrue();
+	}
+
+	@Test
+	void picksUpChangesMadeByOtherInstancesWhenPolling() {
+		Instant changedAt = Instant.now().minusSeconds(1);
+		when(userRepository.findSecurityStatusesChangedSince(any()))
+				.thenReturn(List.of(new UserSecurityStatus(1L, false, 1, changedAt)))
+				.thenReturn(List.of());
+
+		registry.poll();
+		registry.poll();
+
+		assertThat(registry.isTokenCurrent(principal(1L, 0))).isFalse();
+		ArgumentCaptor<Instant> since = ArgumentCaptor.forClass(Instant.class);
+		verify(userRepository, times(2)).findSecurityStatusesChangedSince(since.capture());
+		// The first poll covers the token lifetime, later ones start shortly before the newest change seen
+		assertThat(since.getAllValues().get(0)).isBefore(Instant.now().minusMillis(HOUR - 1_000));
+		assertThat(since.getAllValues().get(1)).isEqualTo(changedAt.truncatedTo(ChronoUnit.MILLIS).minusSeconds(60));
+	}
+
+	@Test
+	void forgetsChangesOnceEveryTokenTheyCouldRejectHasExpired() {
+		when(userRepository.findSecurityStatusesChangedSince(any())).thenReturn(List.of());
+		registry.update(new UserSecurityStatus(1L, true, 1, Instant.now().minusMillis(HOUR + 1_000)));
+		registry.update(new UserSecurityStatus(2L, false, 1, Instant.now().minusMillis(HOUR - 60_000)));
+
+		registry.poll();
+
+		assertThat(registry.size()).isEqualTo(1);
+		assertThat(registry.isTokenCurrent(principal(2L, 1))).isFalse();
+	}
+
+	@Test
+	void keepsPollingAfterADatabaseFailure() {
+		when(userRepository.findSecurityStatusesChangedSince(any()))
+				.thenThrow(new DataAccessResourceFailureException("Connection refused"))
+				.thenReturn(List.of(status(1L, false, 1)));
+
+		registry.poll();
+		registry.poll();
+
+		assertThat(registry.isTokenCurrent(principal(1L, 1))).isFalse();
+	}
+
+	private static UserSecurityStatus status(Long userId, boolean active, int securityEpoch) {
+		return new UserSecurityStatus(userId, active, securityEpoch, Instant.now());
+	}
+
+	private static JwtPrincipal principal(Long userId, int securityEpoch) {
+		Instant now = Instant.now();
+		return new JwtPrincipal("jti", "ada@example.com", userId, securityEpoch, now, now.plus(1, ChronoUnit.HOURS));
+	}
+}
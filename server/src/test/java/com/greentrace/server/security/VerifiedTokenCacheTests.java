@@ -0,0 +1,93 @@
+package com.greentrace.server.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTests {
+
+	private static final long HOUR = 3_600_000L;
+
+	@Test
+	void answersRepeatLookupsFromTheCache() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(10, HOUR);
+		JwtPrincipal principal = principal("t1", HOUR);
+
+		assertThat(cache.get("token-1")).isNull();
+		cache.put("token-1", principal);
+
+		assertThat(cache.get("token-1")).isEqualTo(principal);
+		assertThat(cache.get("token-2")).isNull();
+		assertThat(cache.stats().hits()).isEqualTo(1);
+		assertThat(cache.stats().misses()).isEqualTo(2);
+	}
+
+	@Test
+	void neverKeepsATokenPastItsExpiration() throws InterruptedException {
+		VerifiedTokenCache cache = new VerifiedTokenCache(10, HOUR);
+		cache.put("expired", principal("t1", -1_000));
+		cache.put("short-lived", principal("t2", 50));
+
+		assertThat(cache.stats().size()).isEqualTo(1);
+		assertThat(cache.get("short-lived")).isNotNull();
+
+		Thread.sleep(100);
+		assertThat(cache.get("short-lived")).isNull();
+		assertThat(cache.stats().expirations()).isEqualTo(1);
+		assertThat(cache.stats().size()).isZero();
+	}
+
+	@Test
+	void capsEntriesAtTheMaxTtl() throws InterruptedException {
+		VerifiedTokenCache cache = new VerifiedTokenCache(10, 50);
+		cache.put("token", principal("t1", HOUR));
+
+		Thread.sleep(100);
+		assertThat(cache.get("token")).isNull();
+		assertThat(cache.stats().expirations()).isEqualTo(1);
+	}
+
+	@Test
+	void dropsExpiredEntriesBeforeEvictingLiveOnes() throws InterruptedException {
+		VerifiedTokenCache cache = new VerifiedTokenCache(4, HOUR);
+		cache.put("short-lived", principal("t0", 20));
+		for (int i = 1; i < 4; i++) {
+			cache.put("token-" + i, principal("t" + i, HOUR));
+		}
+
+		Thread.sleep(50);
+		cache.put("token-4", principal("t4", HOUR));
+
+		assertThat(cache.stats().expirations()).isEqualTo(1);
+		assertThat(cache.stats().evictions()).isZero();
+		assertThat(cache.stats().size()).isEqualTo(4);
+	}
+
+	@Test
+	void evictsDownToNinetyPercentWhenFull() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(20, HOUR);
+		for (int i = 0; i < 21; i++) {
+			cache.put("token-" + i, principal("t" + i, HOUR));
+		}
+
+		assertThat(cache.stats().evictions()).isEqualTo(2);
+		assertThat(cache.stats().size()).isEqualTo(19);
+		assertThat(cache.get("token-20")).isNotNull();
+	}
+
+	@Test
+	void cachesNothingWhenDisabled() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(0, HOUR);
+		cache.put("token", principal("t1", HOUR));
+
+		assertThat(cache.get("token")).isNull();
+		assertThat(cache.stats().size()).isZero();
+	}
+
+	private static JwtPrincipal principal(String tokenId, long expiresInMillis) {
+		Instant now = Instant.now();
+		return new JwtPrincipal(tokenId, "ada@example.com", 1L, 0, now, now.plusMillis(expiresInMillis));
+	}
+}
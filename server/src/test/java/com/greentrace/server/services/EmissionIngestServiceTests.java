@@ -0,0 +1,220 @@
+package com.greentrace.server.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.greentrace.server.dto.EmissionIngestReport;
+import com.greentrace.server.dto.EmissionIngestReport.RowError;
+import com.greentrace.server.model.EmissionReading;
+import com.greentrace.server.util.RecordFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmissionIngestServiceTests {
+
+	private final RecordingStore store = new RecordingStore();
+	private final CountingRollups rollups = new CountingRollups();
+	private final FlakyTransactionManager transactionManager = new FlakyTransactionManager();
+	private final EmissionStreamHub hub = new EmissionStreamHub(60_000, 16);
+
+	@AfterEach
+	void shutdown() {
+		hub.shutdown();
+	}
+
+	@Test
+	void parsesNdjsonAndReportsInvalidLines() throws IOException {
+		EmissionIngestReport report = service(2).ingest(1L, body("""
+				{"source":"meter-1","timestamp":"2025-01-01T00:00:00Z","activityType":"electricity","quantity":1.5,"unit":"kWh"}
+
+				{"meter":"meter-2","timestamp":"2025-01-01T01:00:00Z","activityType":"gas","quantity":2,"unit":"m3"}
+				not json
+				{"source":"meter-1","timestamp":"yesterday","activityType":"electricity","quantity":1,"unit":"kWh"}
+				{"source":"meter-1","timestamp":"2025-01-01T02:00:00Z","activityType":"electricity","quantity":-1,"unit":"kWh"}
+				{"source":"meter-3","timestamp":"2025-01-01T03:00:00+01:00","activityType":"electricity","quantity":3,"unit":"kWh"}
+				"""), RecordFormat.NDJSON);
+
+		assertThat(report.total()).isEqualTo(6);
+		assertThat(report.accepted()).isEqualTo(3);
+		assertThat(report.rejected()).isEqualTo(3);
+		assertThat(report.failed()).isZero();
+		assertThat(report.errors()).extracting(RowError::line).containsExactly(4L, 5L, 6L);
+		assertThat(report.errors().get(0).message()).isEqualTo("Malformed record");
+		assertThat(store.readings).extracting(EmissionReading::source).containsExactly("meter-1", "meter-2", "meter-3");
+		assertThat(store.readings.get(2).occurredAt()).isEqualTo(Instant.parse("2025-01-01T02:00:00Z"));
+		assertThat(store.appends).isEqualTo(2);
+		assertThat(rollups.applied).isEqualTo(3);
+	}
+
+	@Test
+	void mapsCsvColumnsByHeaderName() throws IOException {
+		EmissionIngestReport report = service(100).ingest(1L, body("""
+				Unit,Quantity,Meter,Timestamp,ActivityType
+				kWh,1.5,"meter,1",2025-01-01T00:00:00Z,electricity
+				kWh,lots,meter-2,2025-01-01T00:00:00Z,electricity
+				m3,2,meter-3,2025-01-01T00:00:00Z
+				"""), RecordFormat.CSV);
+
+		assertThat(report.accepted()).isEqualTo(1);
+		assertThat(report.errors()).containsExactly(
+				new RowError(3, "quantity must be a non-negative number"),
+				new RowError(4, "activityType is required"));
+		assertThat(store.readings).containsExactly(new EmissionReading(
+				1L, "meter,1", "electricity", 1.5, "kWh", Instant.parse("2025-01-01T00:00:00Z")));
+
+		assertThatThrownBy(() -> service(100).ingest(1L, body("source,timestamp\n"), RecordFormat.CSV))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void retriesBatchesThatConflictWithAConcurrentUpload() throws IOException {
+		rollups.conflicts = 2;
+
+		EmissionIngestReport report = service(100).ingest(1L, body(csv(3)), RecordFormat.CSV);
+
+		assertThat(report.accepted()).isEqualTo(3);
+		assertThat(store.readings).hasSize(3);
+		assertThat(transactionManager.rollbacks).isEqualTo(2);
+	}
+
+	@Test
+	void storesReadingsOnceWhenTheFirstCommitFails() throws IOException {
+		transactionManager.commitFailures = 1;
+
+		EmissionIngestReport report = service(100).ingest(1L, body(csv(3)), RecordFormat.CSV);
+
+		assertThat(report.accepted()).isEqualTo(3);
+		assertThat(store.readings).hasSize(3);
+		assertThat(store.appends).isEqualTo(1);
+	}
+
+	@Test
+	void reportsBatchesTheStoreFailedToWriteAfterCommit() throws IOException {
+		store.failingAppends = 1;
+
+		EmissionIngestReport report = service(2).ingest(1L, body(csv(5)), RecordFormat.CSV);
+
+		assertThat(report.total()).isEqualTo(5);
+		assertThat(report.accepted()).isEqualTo(3);
+		assertThat(report.failed()).isEqualTo(2);
+		assertThat(store.readings).extracting(EmissionReading::source).containsExactly("meter-2", "meter-3", "meter-4");
+		// The committed rollups still include the lost batch
+		assertThat(rollups.applied).isEqualTo(5);
+	}
+
+	@Test
+	void givesUpAfterRepeatedConflicts() {
+		rollups.conflicts = Integer.MAX_VALUE;
+
+		assertThatThrownBy(() -> service(100).ingest(1L, body(csv(3)), RecordFormat.CSV))
+				.isInstanceOf(DuplicateKeyException.class);
+		assertThat(store.readings).isEmpty();
+	}
+
+	private EmissionIngestService service(int batchSize) {
+		return new EmissionIngestService(store, rollups, new TransactionTemplate(transactionManager), hub,
+				new ObjectMapper(), batchSize, 1_000, 10);
+	}
+
+	private static String csv(int rows) {
+		StringBuilder csv = new StringBuilder("source,timestamp,activityType,quantity,unit\n");
+		for (int i = 0; i < rows; i++) {
+			csv.append("meter-").append(i).append(",2025-01-01T00:00:00Z,electricity,1,kWh\n");
+		}
+		return csv.toString();
+	}
+
+	private static ByteArrayInputStream body(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Non-transactional store, like the time-series store: appends are not undone by a rollback
+	 */
+	private static class RecordingStore implements EmissionStore {
+
+		private final List<EmissionReading> readings = new ArrayList<>();
+		private int appends;
+		private int failingAppends;
+
+		@Override
+		public void append(List<EmissionReading> batch) {
+			if (failingAppends > 0) {
+				failingAppends--;
+				throw new UncheckedIOException("Failed to seal emission chunk", new IOException("No space left on device"));
+			}
+			appends++;
+			readings.addAll(batch);
+		}
+
+		@Override
+		public List<EmissionReading> scan(Long userId, String source, Instant from, Instant to, int limit) {
+			return readings.stream().limit(limit).toList();
+		}
+	}
+
+	private static class CountingRollups extends EmissionRollupService {
+
+		private int conflicts;
+		private int applied;
+
+		CountingRollups() {
+			super(null, 1_000);
+		}
+
+		@Override
+		public void apply(List<EmissionReading> readings) {
+			if (conflicts > 0) {
+				conflicts--;
+				throw new DuplicateKeyException("Rollup bucket created by a concurrent upload");
+			}
+			applied += readings.size();
+		}
+	}
+
+	/**
+	 * Transaction manager without a resource that can fail commits on request
+	 */
+	private static class FlakyTransactionManager extends AbstractPlatformTransactionManager {
+
+		private int commitFailures;
+		private int rollbacks;
+
+		@Override
+		protected Object doGetTransaction() {
+			return new Object();
+		}
+
+		@Override
+		protected void doBegin(Object transaction, TransactionDefinition definition) {
+		}
+
+		@Override
+		protected void doCommit(DefaultTransactionStatus status) {
+			if (commitFailures > 0) {
+				commitFailures--;
+				throw new CannotAcquireLockException("Deadlock found when trying to get lock");
+			}
+		}
+
+		@Override
+		protected void doRollback(DefaultTransactionStatus status) {
+			rollbacks++;
+		}
+	}
+}
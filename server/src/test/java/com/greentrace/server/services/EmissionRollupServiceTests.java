@@ -0,0 +1,178 @@
+package com.greentrace.server.services;
+
+import com.greentrace.server.dto.EmissionAggregate;
+import com.greentrace.server.model.EmissionReading;
+import com.greentrace.server.model.RollupResolution;
+import com.greentrace.server.services.EmissionRollupService.RollupRange;
+import org.h2.util.DateTimeUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmissionRollupServiceTests {
+
+	private final TimeZone defaultZone = TimeZone.getDefault();
+
+	private EmbeddedDatabase database;
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeEach
+	void createTable() {
+		database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+		jdbcTemplate = new JdbcTemplate(database);
+		jdbcTemplate.execute("CREATE TABLE emission_rollups (id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT NOT NULL,"
+				+ " resolution VARCHAR(8) NOT NULL, bucket_start TIMESTAMP(6) NOT NULL, activity_type VARCHAR(64) NOT NULL,"
+				+ " unit VARCHAR(16) NOT NULL, sum_quantity DOUBLE NOT NULL, sample_count BIGINT NOT NULL,"
+				+ " min_quantity DOUBLE NOT NULL, max_quantity DOUBLE NOT NULL,"
+				+ " CONSTRAINT uk_emission_rollups_bucket UNIQUE (user_id, resolution, bucket_start, activity_type, unit))");
+		transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(database));
+	}
+
+	@AfterEach
+	void dropDatabase() {
+		useDefaultZone(defaultZone);
+		database.shutdown();
+	}
+
+	private static void useDefaultZone(TimeZone zone) {
+		TimeZone.setDefault(zone);
+		// H2 caches the JVM zone and uses it to convert java.sql.Timestamp values of new sessions
+		DateTimeUtils.resetCalendar();
+	}
+
+	@Test
+	void coversRangesWithTheCoarsestAlignedBuckets() {
+		List<RollupRange> ranges = EmissionRollupService.cover(
+				Instant.parse("2024-01-30T22:45:00Z"), Instant.parse("2024-04-02T01:30:00Z"));
+
+		assertThat(ranges).containsExactly(
+				range(RollupResolution.MINUTE, "2024-01-30T22:45:00Z", "2024-01-30T23:00:00Z"),
+				range(RollupResolution.HOUR, "2024-01-30T23:00:00Z", "2024-01-31T00:00:00Z"),
+				range(RollupResolution.DAY, "2024-01-31T00:00:00Z", "2024-02-01T00:00:00Z"),
+				range(RollupResolution.MONTH, "2024-02-01T00:00:00Z", "2024-04-01T00:00:00Z"),
+				range(RollupResolution.DAY, "2024-04-01T00:00:00Z", "2024-04-02T00:00:00Z"),
+				range(RollupResolution.HOUR, "2024-04-02T00:00:00Z", "2024-04-02T01:00:00Z"),
+				range(RollupResolution.MINUTE, "2024-04-02T01:00:00Z", "2024-04-02T01:30:00Z"));
+	}
+
+	@Test
+	void usesFinerBucketsWhenACoarseOneWouldOverrunTheRange() {
+		assertThat(EmissionRollupService.cover(Instant.parse("2024-03-01T00:00:00Z"), Instant.parse("2024-03-01T00:07:00Z")))
+				.containsExactly(range(RollupResolution.MINUTE, "2024-03-01T00:00:00Z", "2024-03-01T00:07:00Z"));
+		assertThat(EmissionRollupService.cover(Instant.parse("2024-03-01T00:00:00Z"), Instant.parse("2024-03-31T00:00:00Z")))
+				.containsExactly(range(RollupResolution.DAY, "2024-03-01T00:00:00Z", "2024-03-31T00:00:00Z"));
+		assertThat(EmissionRollupService.cover(Instant.parse("2024-03-01T00:00:00Z"), Instant.parse("2024-03-01T00:00:00Z")))
+				.isEmpty();
+	}
+
+	@Test
+	void storesUtcBucketStartsWhateverTheJvmZone() {
+		useDefaultZone(TimeZone.getTimeZone("America/New_York"));
+		EmissionRollupService service = new EmissionRollupService(jdbcTemplate, 1_000);
+		Instant at = Instant.parse("2024-03-10T06:30:15Z");
+
+		transactionTemplate.executeWithoutResult(status -> service.apply(List.of(reading(at, 2.0))));
+
+		// Same wall-clock values as the V10 backfill, which truncates occurred_at in SQL
+		assertThat(jdbcTemplate.queryForList("SELECT bucket_start FROM emission_rollups WHERE resolution = 'DAY'", LocalDateTime.class))
+				.containsExactly(LocalDateTime.parse("2024-03-10T00:00:00"));
+		assertThat(service.series(1L, null, RollupResolution.HOUR, at.minus(Duration.ofHours(2)), at.plus(Duration.ofHours(2))))
+				.singleElement()
+				.extracting(EmissionAggregate::bucketStart)
+				.isEqualTo(Instant.parse("2024-03-10T06:00:00Z"));
+		assertThat(service.totals(1L, null, Instant.parse("2024-03-10T06:30:00Z"), Instant.parse("2024-03-10T06:31:00Z")))
+				.singleElement()
+				.extracting(EmissionAggregate::sum)
+				.isEqualTo(2.0);
+	}
+
+	@Test
+	void totalsRangesThatMixResolutions() {
+		EmissionRollupService service = new EmissionRollupService(jdbcTemplate, 1_000);
+		// A reading every 7 hours and 13 minutes over five months, so every resolution has partial buckets
+		List<EmissionReading> readings = new ArrayList<>();
+		for (Instant at = Instant.parse("2024-01-01T00:00:00Z"); at.isBefore(Instant.parse("2024-06-01T00:00:00Z"));
+				at = at.plus(Duration.ofMinutes(7 * 60 + 13))) {
+			readings.add(reading(at, readings.size() % 10));
+		}
+		transactionTemplate.executeWithoutResult(status -> service.apply(readings));
+
+		Instant from = Instant.parse("2024-01-30T22:45:00Z");
+		Instant to = Instant.parse("2024-04-02T01:30:00Z");
+		List<EmissionReading> inRange = readings.stream()
+				.filter(reading -> !reading.occurredAt().isBefore(from) && reading.occurredAt().isBefore(to))
+				.toList();
+		assertThat(EmissionRollupService.cover(from, to)).extracting(RollupRange::resolution).contains(
+				RollupResolution.MINUTE, RollupResolution.HOUR, RollupResolution.DAY, RollupResolution.MONTH);
+
+		assertThat(service.totals(1L, "electricity", from, to)).singleElement().satisfies(total -> {
+			assertThat(total.count()).isEqualTo(inRange.size());
+			assertThat(total.sum()).isEqualTo(inRange.stream().mapToDouble(EmissionReading::quantity).sum());
+			assertThat(total.min()).isZero();
+			assertThat(total.max()).isEqualTo(9.0);
+		});
+	}
+
+	@Test
+	void canBeRetriedAfterAConcurrentUploadCreatedTheSameBucket() {
+		Instant at = Instant.parse("2024-03-10T06:30:15Z");
+		EmissionRollupService concurrent = new EmissionRollupService(new JdbcTemplate(database), 1_000);
+		boolean[] raced = {false};
+		// Another upload inserts the bucket between this one's UPDATE (no rows) and INSERT
+		EmissionRollupService service = new EmissionRollupService(new JdbcTemplate(database) {
+			@Override
+			public int[] batchUpdate(String sql, BatchPreparedStatementSetter pss) {
+				if (sql.startsWith("INSERT") && !raced[0]) {
+					raced[0] = true;
+					// On its own thread, so it commits on its own connection
+					Thread upload = Thread.ofPlatform().start(() -> concurrent.apply(List.of(reading(at, 1.0))));
+					try {
+						upload.join();
+					} catch (InterruptedException e) {
+						throw new IllegalStateException(e);
+					}
+				}
+				return super.batchUpdate(sql, pss);
+			}
+		}, 1_000);
+
+		assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> service.apply(List.of(reading(at, 2.0)))))
+				.isInstanceOf(DuplicateKeyException.class);
+		transactionTemplate.executeWithoutResult(status -> service.apply(List.of(reading(at, 2.0))));
+
+		assertThat(service.series(1L, null, RollupResolution.MINUTE, at, at.plusSeconds(60))).singleElement().satisfies(bucket -> {
+			assertThat(bucket.sum()).isEqualTo(3.0);
+			assertThat(bucket.count()).isEqualTo(2);
+			assertThat(bucket.min()).isEqualTo(1.0);
+			assertThat(bucket.max()).isEqualTo(2.0);
+		});
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM emission_rollups", Long.class)).isEqualTo(4);
+	}
+
+	private static EmissionReading reading(Instant at, double quantity) {
+		return new EmissionReading(1L, "meter-1", "electricity", quantity, "kWh", at);
+	}
+
+	private static RollupRange range(RollupResolution resolution, String from, String to) {
+		return new RollupRange(resolution, Instant.parse(from), Instant.parse(to));
+	}
+}
@@ -0,0 +1,121 @@
+package com.greentrace.server.services;
+
+import com.greentrace.server.dto.EmissionAggregate;
+import com.greentrace.server.model.EmissionReading;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmissionStreamHubTests {
+
+	private static final Instant DAY = Instant.parse("2025-01-01T00:00:00Z");
+
+	private EmissionStreamHub hub;
+
+	@AfterEach
+	void shutdown() {
+		hub.shutdown();
+	}
+
+	@Test
+	void coalescesDeltasWhileTheClientIsBusy() throws Exception {
+		hub = new EmissionStreamHub(60_000, 16);
+		SlowEmitter emitter = new SlowEmitter();
+		hub.register(1L, emitter);
+
+		hub.publish(1L, List.of(reading(DAY, 1.0)));
+		assertThat(emitter.firstSend.await(5, TimeUnit.SECONDS)).isTrue();
+		// The first send is still blocked, so these three are merged into one pending delta
+		hub.publish(1L, List.of(reading(DAY.plusSeconds(60), 2.0)));
+		hub.publish(1L, List.of(reading(DAY.plusSeconds(120), 3.0), reading(DAY.plusSeconds(180), 4.0)));
+		hub.publish(2L, List.of(reading(DAY, 100.0)));
+		emitter.release.countDown();
+
+		emitter.awaitEvents(2);
+		assertThat(emitter.updates(0)).containsExactly(
+				new EmissionAggregate(DAY, "electricity", "kWh", 1.0, 1, 1.0, 1.0));
+		assertThat(emitter.updates(1)).containsExactly(
+				new EmissionAggregate(DAY, "electricity", "kWh", 9.0, 3, 2.0, 4.0));
+		assertThat(hub.stats().coalesced()).isEqualTo(1);
+	}
+
+	@Test
+	void tellsSubscribersThatFallTooFarBehindToResync() throws Exception {
+		hub = new EmissionStreamHub(60_000, 2);
+		SlowEmitter emitter = new SlowEmitter();
+		hub.register(1L, emitter);
+
+		hub.publish(1L, List.of(reading(DAY, 1.0)));
+		assertThat(emitter.firstSend.await(5, TimeUnit.SECONDS)).isTrue();
+		for (int day = 1; day <= 3; day++) {
+			hub.publish(1L, List.of(reading(DAY.plusSeconds(day * 86_400L), 1.0)));
+		}
+		emitter.release.countDown();
+
+		emitter.awaitEvents(2);
+		assertThat(emitter.text(1)).contains("event:resync\n");
+		assertThat(hub.stats().resyncs()).isEqualTo(1);
+		assertThat(emitter.events).hasSize(2);
+	}
+
+	private static EmissionReading reading(Instant at, double quantity) {
+		return new EmissionReading(1L, "meter-1", "electricity", quantity, "kWh", at);
+	}
+
+	/**
+	 * Records events; the first send blocks until released, like a client that stopped reading
+	 */
+	private static class SlowEmitter extends SseEmitter {
+
+		private final CountDownLatch firstSend = new CountDownLatch(1);
+		private final CountDownLatch release = new CountDownLatch(1);
+		private final List<Set<DataWithMediaType>> events = new CopyOnWriteArrayList<>();
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			events.add(builder.build());
+			firstSend.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				throw new IOException(e);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private List<EmissionAggregate> updates(int index) {
+			return events.get(index).stream()
+					.map(DataWithMediaType::getData)
+					.filter(List.class::isInstance)
+					.map(data -> (List<EmissionAggregate>) data)
+					.findFirst()
+					.orElseThrow();
+		}
+
+		private String text(int index) {
+			StringBuilder text = new StringBuilder();
+			events.get(index).forEach(part -> text.append(part.getData()));
+			return text.toString();
+		}
+
+		private void awaitEvents(int count) throws InterruptedException {
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (events.size() < count && System.nanoTime() < deadline) {
+				Thread.sleep(10);
+			}
+			// Give a wrongly scheduled extra send the chance to show up
+			Thread.sleep(100);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package com.greentrace.server.services;
+
+import com.greentrace.server.model.EmissionReading;
+import org.h2.util.DateTimeUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JdbcEmissionStoreTests {
+
+	private static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+
+	private final TimeZone defaultZone = TimeZone.getDefault();
+
+	private EmbeddedDatabase database;
+	private JdbcTemplate jdbcTemplate;
+	private JdbcEmissionStore store;
+
+	@BeforeEach
+	void createTable() {
+		database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+		jdbcTemplate = new JdbcTemplate(database);
+		jdbcTemplate.execute("CREATE TABLE emission_activities (id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT NOT NULL,"
+				+ " source VARCHAR(100) NOT NULL, activity_type VARCHAR(64) NOT NULL, quantity DOUBLE NOT NULL,"
+				+ " unit VARCHAR(16) NOT NULL, occurred_at TIMESTAMP(6) NOT NULL)");
+		store = new JdbcEmissionStore(jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(database)));
+	}
+
+	@AfterEach
+	void dropDatabase() {
+		useDefaultZone(defaultZone);
+		database.shutdown();
+	}
+
+	private static void useDefaultZone(TimeZone zone) {
+		TimeZone.setDefault(zone);
+		// H2 caches the JVM zone and uses it to convert java.sql.Timestamp values of new sessions
+		DateTimeUtils.resetCalendar();
+	}
+
+	@Test
+	void returnsTheEarliestReadingsInTimeOrder() {
+		List<EmissionReading> readings = new ArrayList<>();
+		for (int minute = 0; minute < 100; minute++) {
+			String source = minute % 2 == 0 ? "meter-a" : "meter-b";
+			readings.add(new EmissionReading(1L, source, "electricity", minute, "kWh", START.plus(Duration.ofMinutes(minute))));
+		}
+		readings.add(new EmissionReading(2L, "meter-a", "electricity", -1.0, "kWh", START.plus(Duration.ofMinutes(30))));
+		// Inserted out of order, so id order differs from time order
+		Collections.shuffle(readings, new Random(3));
+		store.append(readings);
+
+		Instant from = START.plus(Duration.ofMinutes(30));
+		Instant to = START.plus(Duration.ofMinutes(90));
+		assertThat(store.scan(1L, null, from, to, 5))
+				.extracting(EmissionReading::quantity)
+				.containsExactly(30.0, 31.0, 32.0, 33.0, 34.0);
+		assertThat(store.scan(1L, "meter-b", from, to, 3))
+				.extracting(EmissionReading::quantity)
+				.containsExactly(31.0, 33.0, 35.0);
+		assertThat(store.scan(1L, null, from, to, 1000)).hasSize(60);
+	}
+
+	@Test
+	void storesUtcTimesWhateverTheJvmZone() {
+		useDefaultZone(TimeZone.getTimeZone("Asia/Kolkata"));
+		Instant at = Instant.parse("2025-01-01T23:45:00Z");
+		store.append(List.of(new EmissionReading(1L, "meter-a", "electricity", 1.0, "kWh", at)));
+
+		// The V10 rollup backfill truncates these values in SQL, so they must be UTC wall-clock times
+		assertThat(jdbcTemplate.queryForObject("SELECT occurred_at FROM emission_activities", LocalDateTime.class))
+				.isEqualTo(LocalDateTime.parse("2025-01-01T23:45:00"));
+		assertThat(store.scan(1L, null, at, at.plusSeconds(1), 10)).singleElement()
+				.extracting(EmissionReading::occurredAt).isEqualTo(at);
+	}
+}
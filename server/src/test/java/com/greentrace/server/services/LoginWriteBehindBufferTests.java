@@ -0,0 +1,137 @@
+package com.greentrace.server.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginWriteBehindBufferTests {
+
+	private static final LocalDateTime NOON = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+	private EmbeddedDatabase database;
+	private FlakyJdbcTemplate jdbcTemplate;
+	private LoginWriteBehindBuffer buffer;
+
+	@BeforeEach
+	void createTable() {
+		database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+		jdbcTemplate = new FlakyJdbcTemplate(database);
+		jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, password VARCHAR(255) NOT NULL, last_login TIMESTAMP(6))");
+		jdbcTemplate.update("INSERT INTO users (id, password) VALUES (1, 'old-hash'), (2, 'old-hash')");
+		buffer = new LoginWriteBehindBuffer(jdbcTemplate, 100);
+	}
+
+	@AfterEach
+	void dropDatabase() {
+		database.shutdown();
+	}
+
+	@Test
+	void writesTheLatestLoginPerUserInOneFlush() {
+		buffer.recordLogin(1L, NOON.plusMinutes(5));
+		buffer.recordLogin(1L, NOON);
+		buffer.recordLogin(2L, NOON);
+		assertThat(buffer.pendingCount()).isEqualTo(2);
+
+		buffer.flush();
+
+		assertThat(lastLogin(1L)).isEqualTo(NOON.plusMinutes(5));
+		assertThat(lastLogin(2L)).isEqualTo(NOON);
+		assertThat(buffer.pendingCount()).isZero();
+		assertThat(jdbcTemplate.batches).isEqualTo(1);
+	}
+
+	@Test
+	void neverMovesTheStoredLoginBackwards() {
+		jdbcTemplate.update("UPDATE users SET last_login = ? WHERE id = 1", Timestamp.valueOf(NOON.plusHours(1)));
+
+		buffer.recordLogin(1L, NOON);
+		buffer.flush();
+
+		assertThat(lastLogin(1L)).isEqualTo(NOON.plusHours(1));
+	}
+
+	@Test
+	void keepsLoginsForTheNextFlushWhenAWriteFails() {
+		buffer.recordLogin(1L, NOON);
+		jdbcTemplate.failBatches = true;
+		buffer.flush();
+
+		assertThat(lastLogin(1L)).isNull();
+		assertThat(buffer.pendingCount()).isEqualTo(1);
+
+		// A login recorded in the meantime replaces the retained timestamp
+		buffer.recordLogin(1L, NOON.plusMinutes(1));
+		jdbcTemplate.failBatches = false;
+		buffer.flush();
+
+		assertThat(lastLogin(1L)).isEqualTo(NOON.plusMinutes(1));
+		assertThat(buffer.pendingCount()).isZero();
+	}
+
+	@Test
+	void appliesPasswordUpgradesOnlyOverTheVerifiedHash() {
+		jdbcTemplate.update("UPDATE users SET password = 'reset-hash' WHERE id = 2");
+
+		buffer.recordPasswordUpgrade(1L, "old-hash", "new-hash");
+		buffer.recordPasswordUpgrade(2L, "old-hash", "new-hash");
+		buffer.flush();
+
+		assertThat(password(1L)).isEqualTo("new-hash");
+		assertThat(password(2L)).isEqualTo("reset-hash");
+	}
+
+	@Test
+	void dropsPasswordUpgradesWhenAWriteFails() {
+		buffer.recordPasswordUpgrade(1L, "old-hash", "new-hash");
+		jdbcTemplate.failBatches = true;
+		buffer.flush();
+
+		assertThat(password(1L)).isEqualTo("old-hash");
+		assertThat(buffer.pendingCount()).isZero();
+	}
+
+	private LocalDateTime lastLogin(Long userId) {
+		Timestamp lastLogin = jdbcTemplate.queryForObject("SELECT last_login FROM users WHERE id = ?", Timestamp.class, userId);
+		return lastLogin == null ? null : lastLogin.toLocalDateTime();
+	}
+
+	private String password(Long userId) {
+		return jdbcTemplate.queryForObject("SELECT password FROM users WHERE id = ?", String.class, userId);
+	}
+
+	/**
+	 * Counts batch updates and can fail them
+	 */
+	private static class FlakyJdbcTemplate extends JdbcTemplate {
+
+		private boolean failBatches;
+		private int batches;
+
+		FlakyJdbcTemplate(EmbeddedDatabase database) {
+			super(database);
+		}
+
+		@Override
+		public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+				ParameterizedPreparedStatementSetter<T> setter) {
+			if (failBatches) {
+				throw new DataAccessResourceFailureException("Lock wait timeout exceeded");
+			}
+			batches++;
+			return super.batchUpdate(sql, batchArgs, batchSize, setter);
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package com.greentrace.server.services;
+
+import com.greentrace.server.model.EmissionReading;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeSeriesEmissionStoreTests {
+
+	private static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void scansRangesAcrossOpenAndSealedChunksAndAfterReopening() throws Exception {
+		TimeSeriesEmissionStore store = open();
+		List<EmissionReading> readings = new ArrayList<>();
+		// Three days of minute readings for two meters, spanning several chunk windows
+		for (int minute = 0; minute < 3 * 24 * 60; minute++) {
+			Instant at = START.plus(Duration.ofMinutes(minute));
+			readings.add(new EmissionReading(1L, "meter-a", "electricity", minute * 0.5, "kWh", at));
+			readings.add(new EmissionReading(1L, "meter-b", "diesel", 2.0, "L", at));
+		}
+		readings.add(new EmissionReading(2L, "meter-a", "electricity", 99.0, "kWh", START));
+		// Out of order, so readings keep switching between windows
+		Collections.shuffle(readings, new Random(7));
+		store.append(readings);
+
+		Instant from = START.plus(Duration.ofHours(30));
+		Instant to = START.plus(Duration.ofHours(31));
+		assertThat(scan(store, 1L, "meter-a", from, to))
+				.hasSize(60)
+				.allSatisfy(reading -> {
+					assertThat(reading.occurredAt()).isBetween(from, to.minusMillis(1));
+					long minute = Duration.between(START, reading.occurredAt()).toMinutes();
+					assertThat(reading.quantity()).isEqualTo(minute * 0.5);
+				});
+		assertThat(scan(store, 1L, null, from, to)).hasSize(120);
+		assertThat(scan(store, 2L, null, START, START.plusSeconds(1))).singleElement()
+				.extracting(EmissionReading::quantity).isEqualTo(99.0);
+
+		store.close();
+		TimeSeriesEmissionStore reopened = open();
+		assertThat(scan(reopened, 1L, "meter-b", START, START.plus(Duration.ofDays(3)))).hasSize(3 * 24 * 60);
+		assertThat(scan(reopened, 1L, "meter-a", from, to)).hasSize(60);
+		reopened.close();
+	}
+
+	@Test
+	void returnsTheEarliestReadingsInTimeOrder() throws Exception {
+		TimeSeriesEmissionStore store = open();
+		List<EmissionReading> readings = new ArrayList<>();
+		// Two meters whose readings interleave, so the earliest ones come from different series and chunks
+		for (int minute = 0; minute < 2 * 24 * 60; minute++) {
+			String source = minute % 3 == 0 ? "meter-b" : "meter-a";
+			readings.add(new EmissionReading(1L, source, "electricity", minute, "kWh", START.plus(Duration.ofMinutes(minute))));
+		}
+		Collections.shuffle(readings, new Random(11));
+		store.append(readings);
+
+		Instant from = START.plus(Duration.ofHours(20));
+		List<EmissionReading> found = store.scan(1L, null, from, START.plus(Duration.ofDays(2)), 500);
+		assertThat(found).hasSize(500)
+				.isSortedAccordingTo(Comparator.comparing(EmissionReading::occurredAt))
+				.extracting(EmissionReading::quantity)
+				.containsExactlyElementsOf(IntStream.range(20 * 60, 20 * 60 + 500).mapToObj(minute -> (double) minute).toList());
+		assertThat(store.scan(1L, "meter-b", from, START.plus(Duration.ofDays(2)), 3))
+				.extracting(EmissionReading::occurredAt)
+				.containsExactly(from, from.plus(Duration.ofMinutes(3)), from.plus(Duration.ofMinutes(6)));
+		assertThat(store.scan(1L, null, from, from.plusSeconds(1), 0)).isEmpty();
+		store.close();
+	}
+
+	private TimeSeriesEmissionStore open() throws Exception {
+		// Small chunks so that a window is split across several of them, and few open windows per series
+		TimeSeriesEmissionStore store = new TimeSeriesEmissionStore(directory.toString(), 86_400_000L, 256, 2, 60_000L, 4);
+		store.open();
+		return store;
+	}
+
+	private static List<EmissionReading> scan(TimeSeriesEmissionStore store, Long userId, String source, Instant from, Instant to) {
+		return store.scan(userId, source, from, to, Integer.MAX_VALUE);
+	}
+}
@@ -0,0 +1,164 @@
+package com.greentrace.server.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.greentrace.server.dto.ProvisioningReport;
+import com.greentrace.server.dto.ProvisioningReport.RowResult;
+import com.greentrace.server.dto.ProvisioningReport.Status;
+import com.greentrace.server.model.User;
+import com.greentrace.server.repository.UserRepository;
+import com.greentrace.server.security.PasswordHashingService;
+import com.greentrace.server.security.PasswordPolicy;
+import com.greentrace.server.util.RecordFormat;
+import jakarta.validation.Validation;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.ConstraintViolationException.ConstraintKind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserProvisioningServiceTests {
+
+	private static final String PASSWORD = "Str0ng!Pass";
+
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final PasswordHashingService passwordHashingService = mock(PasswordHashingService.class);
+	private final Set<String> storedEmails = new HashSet<>();
+	private long nextId = 1;
+
+	@BeforeEach
+	void stubRepository() {
+		when(passwordHashingService.encodeAll(any())).thenAnswer(invocation -> {
+			List<CharSequence> passwords = invocation.getArgument(0);
+			return passwords.stream().map(password -> "hash:" + password).toList();
+		});
+		// Like a batch insert in one transaction: either every user is stored or none is
+		when(userRepository.saveAllAndFlush(any())).thenAnswer(invocation -> {
+			List<User> users = invocation.getArgument(0);
+			users.forEach(this::checkInsert);
+			users.forEach(this::insert);
+			return users;
+		});
+		when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> {
+			User user = invocation.getArgument(0);
+			checkInsert(user);
+			insert(user);
+			return user;
+		});
+		storedEmails.add("taken@example.com");
+	}
+
+	@Test
+	void createsWholeChunksInOneBatch() throws IOException {
+		ProvisioningReport report = service(2).provision(csv("ada@example.com", "alan@example.com", "grace@example.com"), RecordFormat.CSV);
+
+		assertThat(report.created()).isEqualTo(3);
+		assertThat(report.rows()).extracting(RowResult::line).containsExactly(2, 3, 4);
+		assertThat(report.rows()).extracting(RowResult::userId).doesNotContainNull();
+		verify(userRepository, times(2)).saveAllAndFlush(any());
+		verify(userRepository, never()).saveAndFlush(any(User.class));
+	}
+
+	@Test
+	void reportsDuplicateEmailsRowByRowWhenTheBatchHitsTheUniqueKey() throws IOException {
+		ProvisioningReport report = service(10).provision(
+				csv("ada@example.com", "Taken@Example.com", "alan@example.com", "ADA@example.com"), RecordFormat.CSV);
+
+		assertThat(report.total()).isEqualTo(4);
+		assertThat(report.created()).isEqualTo(2);
+		assertThat(report.duplicates()).isEqualTo(2);
+		assertThat(report.rows()).extracting(RowResult::status)
+				.containsExactly(Status.CREATED, Status.DUPLICATE, Status.CREATED, Status.DUPLICATE);
+		assertThat(report.rows().get(1).message()).isEqualTo("User with this email already exists");
+		assertThat(report.rows().get(3).message()).isEqualTo("Email appears more than once in the upload");
+		verify(userRepository, times(3)).saveAndFlush(any(User.class));
+	}
+
+	@Test
+	void reportsOtherConstraintViolationsAsFailedWithoutLosingTheRestOfTheChunk() throws IOException {
+		ProvisioningReport report = service(10).provision(
+				csv("ada@example.com", "broken@example.com", "alan@example.com"), RecordFormat.CSV);
+
+		assertThat(report.created()).isEqualTo(2);
+		assertThat(report.failed()).isEqualTo(1);
+		assertThat(report.duplicates()).isZero();
+		assertThat(report.rows().get(1)).satisfies(row -> {
+			assertThat(row.status()).isEqualTo(Status.FAILED);
+			assertThat(row.userId()).isNull();
+			assertThat(row.message()).startsWith("Could not be stored: ");
+		});
+		assertThat(storedEmails).contains("ada@example.com", "alan@example.com").doesNotContain("broken@example.com");
+	}
+
+	@Test
+	void mixesInvalidDuplicateFailedAndCreatedLinesAcrossChunks() throws IOException {
+		ProvisioningReport report = service(2).provision(body("""
+				{"firstName":"Ada","lastName":"Lovelace","email":"ada@example.com","password":"Str0ng!Pass"}
+				{"firstName":"Ada","lastName":"Lovelace","email":"taken@example.com","password":"Str0ng!Pass"}
+				not json
+				{"firstName":"Alan","lastName":"Turing","email":"broken@example.com","password":"Str0ng!Pass"}
+				{"firstName":"Grace","lastName":"Hopper","email":"grace@example.com","password":"weak"}
+				{"firstName":"Grace","lastName":"Hopper","email":"grace@example.com","password":"Str0ng!Pass"}
+				"""), RecordFormat.NDJSON);
+
+		assertThat(report.rows()).extracting(RowResult::status).containsExactly(
+				Status.CREATED, Status.DUPLICATE, Status.INVALID, Status.FAILED, Status.INVALID, Status.CREATED);
+		assertThat(report).extracting(ProvisioningReport::created, ProvisioningReport::duplicates,
+				ProvisioningReport::invalid, ProvisioningReport::failed).containsExactly(2, 1, 2, 1);
+		// Both chunks fall back to row-by-row inserts
+		verify(userRepository, times(2)).saveAllAndFlush(any());
+		verify(userRepository, times(4)).saveAndFlush(any(User.class));
+	}
+
+	private UserProvisioningService service(int chunkSize) {
+		return new UserProvisioningService(userRepository, passwordHashingService, mock(PasswordPolicy.class),
+				new TransactionTemplate(mock(PlatformTransactionManager.class)),
+				Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), chunkSize, 1_000);
+	}
+
+	private void insert(User user) {
+		storedEmails.add(user.getEmail());
+		user.setId(nextId++);
+	}
+
+	private void checkInsert(User user) {
+		if (storedEmails.contains(user.getEmail())) {
+			throw new DataIntegrityViolationException("could not execute statement", new ConstraintViolationException(
+					"Duplicate entry", new SQLException("Duplicate entry"), ConstraintKind.UNIQUE, "uk_users_email_normalized"));
+		}
+		if (user.getEmail().startsWith("broken")) {
+			throw new DataIntegrityViolationException("could not execute statement", new ConstraintViolationException(
+					"Column 'first_name' cannot be null", new SQLException("Column 'first_name' cannot be null"),
+					ConstraintKind.OTHER, null));
+		}
+	}
+
+	private static ByteArrayInputStream csv(String... emails) {
+		StringBuilder csv = new StringBuilder("firstName,lastName,email,password\n");
+		for (String email : emails) {
+			csv.append("Ada,Lovelace,").append(email).append(',').append(PASSWORD).append('\n');
+		}
+		return body(csv.toString());
+	}
+
+	private static ByteArrayInputStream body(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+}
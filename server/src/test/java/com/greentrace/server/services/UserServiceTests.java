@@ -0,0 +1,174 @@
+package com.greentrace.server.services;
+
+import com.greentrace.server.dto.SignUpRequest;
+import com.greentrace.server.model.User;
+import com.greentrace.server.repository.UserRepository;
+import com.greentrace.server.security.JwtPrincipal;
+import com.greentrace.server.security.JwtService;
+import com.greentrace.server.security.PasswordHashingService;
+import com.greentrace.server.security.UserStatusRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest
+class UserServiceTests {
+
+	private static final String PASSWORD = "Str0ng!Pass";
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private UserStatusRegistry userStatusRegistry;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@Autowired
+	private AuditTrail auditTrail;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@MockitoSpyBean
+	private PasswordHashingService passwordHashingService;
+
+	@Test
+	void leavesTheStatusRegistryAloneWhenADeactivationRollsBack() {
+		User user = signUp();
+		JwtPrincipal principal = jwtService.verifyToken(userService.generateToken(user));
+
+		transactionTemplate.executeWithoutResult(status -> {
+			userService.deactivateAccount(user.getId());
+			status.setRollbackOnly();
+		});
+
+		assertThat(userRepository.findById(user.getId()).orElseThrow().getIsActive()).isTrue();
+		assertThat(userStatusRegistry.isTokenCurrent(principal)).isTrue();
+
+		userService.deactivateAccount(user.getId());
+		assertThat(userStatusRegistry.isTokenCurrent(principal)).isFalse();
+	}
+
+	@Test
+	void rejectsTokensDeactivatedByAnotherInstanceAfterThePoll() {
+		User user = signUp();
+		JwtPrincipal principal = jwtService.verifyToken(userService.generateToken(user));
+
+		// Another instance deactivates the account; only the database sees the change
+		User stored = userRepository.findById(user.getId()).orElseThrow();
+		stored.setIsActive(false);
+		stored.bumpSecurityEpoch();
+		userRepository.save(stored);
+		assertThat(userStatusRegistry.isTokenCurrent(principal)).isTrue();
+
+		userStatusRegistry.poll();
+		assertThat(userStatusRegistry.isTokenCurrent(principal)).isFalse();
+	}
+
+	@Test
+	void auditsSignupsOnlyOnceTheyCommit() {
+		long accepted = auditTrail.stats().accepted();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			signUp();
+			status.setRollbackOnly();
+		});
+		assertThat(auditTrail.stats().accepted()).isEqualTo(accepted);
+
+		signUp();
+		assertThat(auditTrail.stats().accepted()).isEqualTo(accepted + 1);
+	}
+
+	@Test
+	void tellsDuplicateEmailsApartFromOtherConstraintViolations() {
+		User user = signUp();
+
+		User duplicate = User.builder().firstName("Ada").lastName("Lovelace").email(user.getEmail()).password("x").build();
+		assertThatThrownBy(() -> userRepository.saveAndFlush(duplicate))
+				.isInstanceOfSatisfying(DataIntegrityViolationException.class,
+						e -> assertThat(DuplicateEmailException.isCausedBy(e)).isTrue());
+
+		User missingName = User.builder().firstName("Ada").email("other-" + user.getEmail()).password("x").build();
+		assertThatThrownBy(() -> userRepository.saveAndFlush(missingName))
+				.isInstanceOfSatisfying(DataIntegrityViolationException.class,
+						e -> assertThat(DuplicateEmailException.isCausedBy(e)).isFalse());
+	}
+
+	@Test
+	void acceptsAResetTokenOnlyOnceUnderConcurrentRequests() throws Exception {
+		User user = signUp();
+		String token = userService.generateResetToken(user.getEmail());
+
+		CyclicBarrier barrier = new CyclicBarrier(2);
+		Callable<Boolean> reset = () -> {
+			barrier.await();
+			try {
+				userService.resetPassword(token, "N3w!Password");
+				return true;
+			} catch (IllegalArgumentException e) {
+				return false;
+			}
+		};
+
+		List<Boolean> outcomes = new ArrayList<>();
+		try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+			for (Future<Boolean> outcome : executor.invokeAll(List.of(reset, reset))) {
+				outcomes.add(outcome.get());
+			}
+		}
+
+		assertThat(outcomes).containsExactlyInAnyOrder(true, false);
+		assertThat(userRepository.findById(user.getId()).orElseThrow().getSecurityEpoch()).isEqualTo(1);
+		assertThatThrownBy(() -> userService.resetPassword(token, "An0ther!Password"))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void hashesPasswordsWithoutHoldingATransaction() {
+		List<Boolean> transactionActive = new CopyOnWriteArrayList<>();
+		Answer<Object> recordTransaction = invocation -> {
+			transactionActive.add(TransactionSynchronizationManager.isActualTransactionActive());
+			return invocation.callRealMethod();
+		};
+		doAnswer(recordTransaction).when(passwordHashingService).encode(any());
+		doAnswer(recordTransaction).when(passwordHashingService).matches(any(), any());
+
+		User user = signUp();
+		userService.login(user.getEmail(), PASSWORD);
+		userService.resetPassword(userService.generateResetToken(user.getEmail()), "N3w!Password");
+		userService.login(user.getEmail(), "N3w!Password");
+
+		assertThat(transactionActive).hasSize(4).containsOnly(false);
+		assertThat(userRepository.findById(user.getId()).orElseThrow().getSecurityEpoch()).isEqualTo(1);
+	}
+
+	private User signUp() {
+		String email = "user-" + UUID.randomUUID() + "@example.com";
+		return userService.signUp(new SignUpRequest("Ada", "Lovelace", email, PASSWORD));
+	}
+}
@@ -0,0 +1,65 @@
+package com.greentrace.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GorillaEncoderTests {
+
+	@Test
+	void roundTripsIrregularTimestampsAndValues() {
+		Random random = new Random(42);
+		int points = 5_000;
+		long[] timestamps = new long[points];
+		double[] values = new double[points];
+		long timestamp = 1_735_689_600_000L;
+		for (int i = 0; i < points; i++) {
+			// Mostly regular minutes, with jitter, gaps, repeats and a few out-of-order points
+			timestamp += switch (i % 50) {
+				case 7 -> 3_600_000L;
+				case 13 -> -90_000L;
+				case 21 -> random.nextInt(2_000);
+				default -> 60_000L;
+			};
+			timestamps[i] = timestamp;
+			values[i] = i % 3 == 0 ? values[Math.max(0, i - 1)] : Math.round(random.nextDouble() * 1e4) / 100.0;
+		}
+		values[10] = Double.MAX_VALUE;
+		values[11] = 0.0;
+		values[12] = Double.MIN_VALUE;
+
+		ByteBuffer buffer = ByteBuffer.allocateDirect(points * 20);
+		GorillaEncoder encoder = new GorillaEncoder(buffer);
+		for (int i = 0; i < points; i++) {
+			assertThat(encoder.append(timestamps[i], values[i])).isTrue();
+		}
+		assertThat(encoder.count()).isEqualTo(points);
+
+		GorillaDecoder decoder = new GorillaDecoder(buffer, encoder.count());
+		for (int i = 0; i < points; i++) {
+			assertThat(decoder.next()).isTrue();
+			assertThat(decoder.timestamp()).isEqualTo(timestamps[i]);
+			assertThat(decoder.value()).isEqualTo(values[i]);
+		}
+		assertThat(decoder.next()).isFalse();
+	}
+
+	@Test
+	void compressesRegularSeriesAndRefusesPointsWhenFull() {
+		GorillaEncoder encoder = new GorillaEncoder(ByteBuffer.allocate(256));
+		long start = 1_735_689_600_000L;
+		int appended = 0;
+		while (encoder.append(start + appended * 60_000L, 12.5)) {
+			appended++;
+		}
+
+		// 128 bits for the first point, 68 for the first delta, then 2 bits per point (unchanged delta and value)
+		assertThat(appended).isGreaterThan(800);
+		assertThat(encoder.sizeInBytes()).isLessThanOrEqualTo(256);
+		assertThat(encoder.minTimestamp()).isEqualTo(start);
+		assertThat(encoder.maxTimestamp()).isEqualTo(start + (appended - 1) * 60_000L);
+	}
+}
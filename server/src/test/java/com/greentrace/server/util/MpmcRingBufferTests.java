@@ -0,0 +1,73 @@
+package com.greentrace.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MpmcRingBufferTests {
+
+	@Test
+	void rejectsOffersWhenFullAndKeepsFifoOrder() {
+		MpmcRingBuffer<Integer> buffer = new MpmcRingBuffer<>(3);
+		assertThat(buffer.capacity()).isEqualTo(4);
+
+		for (int i = 0; i < 4; i++) {
+			assertThat(buffer.offer(i)).isTrue();
+		}
+		assertThat(buffer.offer(4)).isFalse();
+		assertThat(buffer.poll()).isEqualTo(0);
+		assertThat(buffer.offer(4)).isTrue();
+
+		List<Integer> drained = new ArrayList<>();
+		assertThat(buffer.drainTo(drained, 10)).isEqualTo(4);
+		assertThat(drained).containsExactly(1, 2, 3, 4);
+		assertThat(buffer.poll()).isNull();
+		assertThat(buffer.size()).isZero();
+	}
+
+	@Test
+	void deliversEveryElementExactlyOnceAcrossThreads() throws Exception {
+		int producers = 4;
+		int consumers = 2;
+		int perProducer = 50_000;
+		MpmcRingBuffer<Integer> buffer = new MpmcRingBuffer<>(64);
+		ConcurrentLinkedQueue<Integer> received = new ConcurrentLinkedQueue<>();
+		AtomicInteger remaining = new AtomicInteger(producers * perProducer);
+		CountDownLatch done = new CountDownLatch(producers + consumers);
+
+		for (int p = 0; p < producers; p++) {
+			int base = p * perProducer;
+			Thread.ofPlatform().start(() -> {
+				for (int i = 0; i < perProducer; i++) {
+					while (!buffer.offer(base + i)) {
+						Thread.yield();
+					}
+				}
+				done.countDown();
+			});
+		}
+		for (int c = 0; c < consumers; c++) {
+			Thread.ofPlatform().start(() -> {
+				while (remaining.get() > 0) {
+					Integer value = buffer.poll();
+					if (value != null) {
+						received.add(value);
+						remaining.decrementAndGet();
+					} else {
+						Thread.yield();
+					}
+				}
+				done.countDown();
+			});
+		}
+		done.await();
+
+		assertThat(received).hasSize(producers * perProducer).doesNotHaveDuplicates();
+	}
+}